@@ -0,0 +1,59 @@
+package com.daimlertrucksasia.it.dsc.pigeon.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the processing of one consumed batch, from resolution until every record was produced or
+ * moved to a retry tier.
+ *
+ * @author KUSHWPR
+ */
+@Name("com.daimlertrucksasia.pigeon.BatchConsume")
+@Label("Batch Consume")
+@Category({"Pigeon", "Kafka"})
+@Description("Resolution and production of a consumed batch")
+@StackTrace(false)
+public class BatchConsumeEvent extends jdk.jfr.Event {
+
+    @Label("Batch Id")
+    String batchId;
+
+    @Label("Topic")
+    String topic;
+
+    @Label("Retry Tier")
+    @Description("Retry tier the batch was consumed from, -1 for the main topic")
+    int tier;
+
+    @Label("Records")
+    int records;
+
+    @Label("First Failed Record")
+    @Description("Index of the first record that was neither produced nor moved to a retry tier, -1 if none")
+    int failedAt;
+
+    /**
+     * Ends the event and commits it if it is enabled and exceeds its threshold.
+     *
+     * @param batchId   the id of the batch
+     * @param topic     the topic the batch was consumed from
+     * @param tier      the retry tier, -1 for the main topic
+     * @param records   the number of records of the batch
+     * @param failedAt  the index of the first failed record, -1 if none
+     */
+    public void commit(String batchId, String topic, int tier, int records, int failedAt) {
+        end();
+        if (shouldCommit()) {
+            this.batchId = batchId;
+            this.topic = topic;
+            this.tier = tier;
+            this.records = records;
+            this.failedAt = failedAt;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.daimlertrucksasia.it.dsc.pigeon.diagnostics;
+
+import java.util.function.Supplier;
+
+/**
+ * Carries the id of the consumed batch a thread is working on, so diagnostics recorded deep in the
+ * resolution and send path can be attributed to their batch.
+ * <p>
+ * The id is bound on the listener thread for the duration of a batch and re-bound on every executor thread a
+ * task of the batch runs on.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public final class BatchContext {
+
+    private static final ThreadLocal<String> BATCH_ID = new ThreadLocal<>();
+
+    private BatchContext() {
+    }
+
+    /**
+     * @return the id of the batch the current thread is working on, or {@code null} outside of a batch
+     */
+    public static String currentBatchId() {
+        return BATCH_ID.get();
+    }
+
+    /**
+     * Runs a task with the given batch id bound to the current thread.
+     *
+     * @param batchId the batch id
+     * @param task    the task
+     * @param <T>     the result type
+     * @return the result of the task
+     */
+    public static <T> T callWith(String batchId, Supplier<T> task) {
+        String previous = BATCH_ID.get();
+        BATCH_ID.set(batchId);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                BATCH_ID.remove();
+            } else {
+                BATCH_ID.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.daimlertrucksasia.it.dsc.pigeon.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the formatting of one message of a batch whose templates were resolved up front.
+ *
+ * @author KUSHWPR
+ */
+@Name("com.daimlertrucksasia.pigeon.MessageFormat")
+@Label("Message Format")
+@Category({"Pigeon", "Localization"})
+@Description("Formatting of a resolved message template")
+@StackTrace(false)
+public class MessageFormatEvent extends jdk.jfr.Event {
+
+    @Label("Template Id")
+    String templateId;
+
+    @Label("Locale")
+    String locale;
+
+    @Label("Batch Id")
+    String batchId;
+
+    /**
+     * Ends the event and commits it if it is enabled and exceeds its threshold.
+     *
+     * @param templateId the template id
+     * @param locale     the requested locale tag
+     */
+    public void commit(String templateId, String locale) {
+        end();
+        if (shouldCommit()) {
+            this.templateId = templateId;
+            this.locale = locale;
+            this.batchId = BatchContext.currentBatchId();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.daimlertrucksasia.it.dsc.pigeon.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the send of one localized message, from the first attempt until the broker acknowledged
+ * it or the last attempt failed.
+ * <p>
+ * Asynchronous sends complete on a producer thread, so the event is committed there; its batch id is taken
+ * from the thread that started the send.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Name("com.daimlertrucksasia.pigeon.MessageSend")
+@Label("Message Send")
+@Category({"Pigeon", "Kafka"})
+@Description("Send of a localized message including its retries")
+@StackTrace(false)
+public class MessageSendEvent extends jdk.jfr.Event {
+
+    @Label("Template Id")
+    String templateId;
+
+    @Label("Locale")
+    String locale;
+
+    @Label("Batch Id")
+    String batchId;
+
+    @Label("Topic")
+    String topic;
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Ends the event and commits it if it is enabled and exceeds its threshold.
+     *
+     * @param templateId the template id of the message
+     * @param locale     the locale of the message
+     * @param batchId    the batch the message was resolved for, may be {@code null}
+     * @param topic      the destination topic
+     * @param attempts   the number of send attempts
+     * @param succeeded  whether the message was acknowledged
+     */
+    public void commit(String templateId, String locale, String batchId, String topic, int attempts, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.templateId = templateId;
+            this.locale = locale;
+            this.batchId = batchId;
+            this.topic = topic;
+            this.attempts = attempts;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.daimlertrucksasia.it.dsc.pigeon.diagnostics;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts a continuous Flight Recorder recording of the pipeline events when {@code pigeon.jfr.enabled} is set.
+ * <p>
+ * The recording uses the JDK {@code default} settings with the {@code jfr/pigeon.jfc} settings shipped with the
+ * service on top, keeps the last {@code pigeon.jfr.max-age} or {@code pigeon.jfr.max-size} of data on disk and, if
+ * {@code pigeon.jfr.destination} is set, is written to that file when the service shuts down. A running recording
+ * can be dumped at any time with {@code jcmd <pid> JFR.dump name=pigeon}.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+public class PipelineRecording implements ApplicationRunner {
+
+    static final String SETTINGS = "jfr/pigeon.jfc";
+
+    private final boolean enabled;
+
+    private final Duration maxAge;
+
+    private final DataSize maxSize;
+
+    private final String destination;
+
+    private Recording recording;
+
+    public PipelineRecording(@Value("${pigeon.jfr.enabled:false}") boolean enabled,
+                             @Value("${pigeon.jfr.max-age:6h}") Duration maxAge,
+                             @Value("${pigeon.jfr.max-size:256MB}") DataSize maxSize,
+                             @Value("${pigeon.jfr.destination:}") String destination) {
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.destination = destination;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Recording started = new Recording(settings());
+            started.setName("pigeon");
+            started.setToDisk(true);
+            started.setMaxAge(maxAge);
+            started.setMaxSize(maxSize.toBytes());
+            if (!destination.isBlank()) {
+                started.setDestination(Path.of(destination));
+            }
+            started.start();
+            recording = started;
+            log.info("Flight recording 'pigeon' started, keeping the last {} / {}", maxAge, maxSize);
+        } catch (IOException | ParseException | RuntimeException ex) {
+            log.warn("Could not start the flight recording: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.stop();
+            recording.close();
+        }
+    }
+
+    /**
+     * @return the JDK default settings overlaid with the settings shipped with the service
+     */
+    static Map<String, String> settings() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        try (Reader reader = new InputStreamReader(new ClassPathResource(SETTINGS).getInputStream(), StandardCharsets.UTF_8)) {
+            settings.putAll(Configuration.create(reader).getSettings());
+        }
+        return settings;
+    }
+}
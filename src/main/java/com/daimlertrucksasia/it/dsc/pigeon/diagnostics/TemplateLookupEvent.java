@@ -0,0 +1,57 @@
+package com.daimlertrucksasia.it.dsc.pigeon.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the lookup of one template by the {@code DatabaseMessageSource}, from the cache or, on a
+ * miss, from the catalog snapshot or the database.
+ *
+ * @author KUSHWPR
+ */
+@Name("com.daimlertrucksasia.pigeon.TemplateLookup")
+@Label("Template Lookup")
+@Category({"Pigeon", "Localization"})
+@Description("Lookup of a message template")
+@StackTrace(false)
+public class TemplateLookupEvent extends jdk.jfr.Event {
+
+    @Label("Template Id")
+    String templateId;
+
+    @Label("Locale")
+    String locale;
+
+    @Label("Batch Id")
+    String batchId;
+
+    @Label("Cached")
+    @Description("Whether the lookup was answered by the template cache")
+    boolean cached;
+
+    @Label("Found")
+    boolean found;
+
+    /**
+     * Ends the event and commits it if it is enabled and exceeds its threshold.
+     *
+     * @param templateId the template id
+     * @param locale     the requested locale tag
+     * @param cached     whether the template was answered from the template cache
+     * @param found      whether a template was found
+     */
+    public void commit(String templateId, String locale, boolean cached, boolean found) {
+        end();
+        if (shouldCommit()) {
+            this.templateId = templateId;
+            this.locale = locale;
+            this.batchId = BatchContext.currentBatchId();
+            this.cached = cached;
+            this.found = found;
+            commit();
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.daimlertrucksasia.it.dsc.pigeon.exceptions.e;
 
 import graphql.GraphQL;
 import io.leangen.graphql.spqr.spring.autoconfigure.BaseAutoConfiguration;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,17 +12,24 @@ import org.springframework.context.annotation.Import;
 @Import(BaseAutoConfiguration.class)
 public class GraphQLConfig  {
 
-    @Autowired
-    private CustomGraphQLExceptionHandler exceptionHandler;
-
+    /**
+     * Rebuilds the SPQR {@link GraphQL} instance with the custom exception handler and the metrics instrumentation.
+     * <p>
+     * Declared static and resolving its collaborators lazily, so registering the post processor does not create
+     * the exception handler, and with it the message services and the meter registry, before the other post
+     * processors are in place.
+     * </p>
+     */
     @Bean
-    public BeanPostProcessor graphQLBeanPostProcessor() {
+    public static BeanPostProcessor graphQLBeanPostProcessor(ObjectProvider<CustomGraphQLExceptionHandler> exceptionHandler,
+                                                             ObjectProvider<GraphQLMetricsInstrumentation> metricsInstrumentation) {
         return new BeanPostProcessor() {
             @Override
             public Object postProcessAfterInitialization(Object bean, String beanName) {
                 if (bean instanceof GraphQL && "graphQL".equals(beanName)) {
                     return GraphQL.newGraphQL(((GraphQL) bean).getGraphQLSchema())
-                            .defaultDataFetcherExceptionHandler(exceptionHandler)
+                            .defaultDataFetcherExceptionHandler(exceptionHandler.getObject())
+                            .instrumentation(metricsInstrumentation.getObject())
                             .build();
                 }
                 return bean;
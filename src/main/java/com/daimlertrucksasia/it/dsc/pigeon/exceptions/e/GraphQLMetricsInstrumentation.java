@@ -0,0 +1,94 @@
+package com.daimlertrucksasia.it.dsc.pigeon.exceptions.e;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GraphQL instrumentation timing every request per operation.
+ * <p>
+ * Publishes the {@code pigeon.graphql.request} timer, covering parsing, validation and execution, tagged by
+ * {@code type} ({@code query}, {@code mutation}), {@code operation} and {@code outcome} ({@code success}, or
+ * {@code error} if the result carries errors). The operation is the root field of the request, e.g.
+ * {@code getMessage}, or {@code multiple} if several root fields are selected, so the tag values are bounded by
+ * the schema rather than by client-chosen operation names. Requests failing before execution, e.g. on a syntax
+ * error, are tagged {@code unknown}. The timer of every tag combination is registered once and then reused.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Component
+public class GraphQLMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public GraphQLMetricsInstrumentation(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new RequestState();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        RequestState request = (RequestState) state;
+        return SimpleInstrumentationContext.whenCompleted((result, ex) -> sample.stop(timers.computeIfAbsent(
+                new TimerKey(request.type, request.operation,
+                        ex == null && result != null && result.getErrors().isEmpty() ? "success" : "error"),
+                this::requestTimer)));
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        OperationDefinition operation = parameters.getExecutionContext().getOperationDefinition();
+        RequestState request = (RequestState) state;
+        request.type = operation.getOperation().name().toLowerCase(Locale.ROOT);
+        List<Selection> selections = operation.getSelectionSet().getSelections();
+        request.operation = selections.size() == 1 && selections.get(0) instanceof Field field ? field.getName() : "multiple";
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    private Timer requestTimer(TimerKey key) {
+        return Timer.builder("pigeon.graphql.request")
+                .description("GraphQL request latency per operation")
+                .tag("type", key.type())
+                .tag("operation", key.operation())
+                .tag("outcome", key.outcome())
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(String type, String operation, String outcome) {
+    }
+
+    private static final class RequestState implements InstrumentationState {
+
+        private volatile String type = UNKNOWN;
+
+        private volatile String operation = UNKNOWN;
+    }
+}
@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -21,6 +23,8 @@ import java.util.Map;
  *   <li>{@code bootstrapServers} - Kafka broker connection string(s).</li>
  *   <li>{@code producer} - A map of Kafka producer-specific configuration properties.</li>
  *   <li>{@code consumer} - A map of Kafka consumer-specific configuration properties.</li>
+ *   <li>{@code retryTopics} - Delayed retry tiers and dead-letter topic for records that could not be processed.</li>
+ *   <li>{@code processing} - Parallelism used to process the records of a consumed batch.</li>
  * </ul>
  *
  * <p>The {@code producer} and {@code consumer} maps allow for flexible and
@@ -39,6 +43,9 @@ import java.util.Map;
  *       consumer:
  *         groupId: my-group
  *         autoOffsetReset: earliest
+ *       retry-topics:
+ *         enabled: true
+ *         delays: 5s, 30s, 2m
  * }</pre>
  *
  * <p>This configuration bean can be injected wherever Kafka configuration
@@ -69,4 +76,75 @@ public class KafkaPropertiesConfig {
      * The keys and values correspond to Kafka consumer configuration options.
      */
     private Map<String, Object> consumer;
+
+    /**
+     * Settings of the delayed retry tiers and the dead-letter topic.
+     */
+    private RetryTopics retryTopics = new RetryTopics();
+
+    /**
+     * Settings of the parallel processing of consumed batches.
+     */
+    private Processing processing = new Processing();
+
+    /**
+     * Settings of the retry tiers that take over records the main consumer could not resolve or send.
+     * <p>
+     * A failed record is published to {@code <consumer topic><retrySuffix>-0} and redelivered after the
+     * first delay; every further failure moves it one tier up. After the last tier it is published to
+     * {@code <consumer topic><dltSuffix>}. The tier and dead-letter topics must be provisioned on the broker.
+     */
+    @Getter
+    @Setter
+    public static class RetryTopics {
+
+        /**
+         * Whether failed records are moved to the retry tiers instead of being redelivered on the main topic.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Redelivery delay of every tier, in tier order.
+         */
+        private List<Duration> delays = List.of(Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(2));
+
+        /**
+         * Suffix appended to the consumer topic to name the retry tier topics.
+         */
+        private String retrySuffix = "-retry";
+
+        /**
+         * Suffix appended to the consumer topic to name the dead-letter topic.
+         */
+        private String dltSuffix = "-dlt";
+
+        /**
+         * How often the depth of the tiers is read from the broker; {@code 0} disables the
+         * {@code pigeon.kafka.retry.tier.depth} gauge.
+         */
+        private Duration depthRefreshInterval = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Settings of the worker pool that formats and sends the records of a consumed batch.
+     * <p>
+     * Records are spread over {@code parallelism} single threaded lanes by record key, so records with the
+     * same key are always processed in order while different keys are processed in parallel.
+     */
+    @Getter
+    @Setter
+    public static class Processing {
+
+        /**
+         * Number of worker lanes; {@code 1} processes the batch on the listener thread. Ignored with virtual
+         * threads, where every record gets a thread of its own.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Maximum number of records being processed or sent at once across all listeners; the listener
+         * waits for a free slot once the limit is reached.
+         */
+        private int maxInFlight = 2_000;
+    }
 }
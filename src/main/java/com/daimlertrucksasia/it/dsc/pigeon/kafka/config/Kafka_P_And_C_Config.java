@@ -1,16 +1,26 @@
 package com.daimlertrucksasia.it.dsc.pigeon.kafka.config;
 
 
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.serde.ByteBufferErrorHandlingDeserializer;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.serde.LocalizationMessageEventDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -26,6 +36,11 @@ import java.util.Map;
  * - ConcurrentKafkaListenerContainerFactory: Enables concurrent message listeners.</p>
  *
  * <p>
+ * Both factories bind the Kafka client metrics to the {@link MeterRegistry}, e.g. the consumer lag as
+ * {@code kafka.consumer.fetch.manager.records.lag.max} and the producer retries as
+ * {@code kafka.producer.record.retry.total}, tagged by {@code client.id}.</p>
+ *
+ * <p>
  * This class should be annotated with @Configuration and @EnableKafka to ensure proper
  * Kafka support is enabled in the Spring application context.</p>
  *
@@ -40,17 +55,21 @@ public class Kafka_P_And_C_Config {
 
     private final KafkaPropertiesConfig kafkaProperties;
 
+    private final MeterRegistry meterRegistry;
+
+    private final Environment environment;
+
     /**
      * Creates a custom {@link ProducerFactory} bean for Kafka message production.
      *
-     * <p>The factory uses StringSerializer for both key and value serialization and
+     * <p>The factory uses StringSerializer for keys and the binary LocalizationMessageEventSerializer for values and
      * reads Kafka broker address from the configuration property {@code kafka.bootstrap.servers}.</p>
      *
-     * @return a {@link DefaultKafkaProducerFactory} configured for String key-value pairs
+     * @return a {@link DefaultKafkaProducerFactory} configured for String keys and LocalizationMessageEvent values
      */
     @Bean
     @Qualifier("kafkaPigeonProducerFactory")
-    public ProducerFactory<String, String> kafkaPigeonProducerFactory() {
+    public ProducerFactory<String, LocalizationMessageEvent> kafkaPigeonProducerFactory() {
         Map<String, Object> kafkaProducerFactoryConfig = new HashMap<>();
         try {
             kafkaProducerFactoryConfig = new HashMap<>(kafkaProperties.getProducer());
@@ -63,11 +82,11 @@ public class Kafka_P_And_C_Config {
 
             log.debug("Kafka Producer Config: {}", kafkaProducerFactoryConfig);
 
-            return new DefaultKafkaProducerFactory<>(kafkaProducerFactoryConfig);
+            return withMetrics(new DefaultKafkaProducerFactory<>(kafkaProducerFactoryConfig));
 
         } catch (Exception ex) {
             log.error("Error In Producer Factory Configuration While Starting the Kafka Producer Factory Config. ", ex.fillInStackTrace());
-            return new DefaultKafkaProducerFactory<>(kafkaProducerFactoryConfig);
+            return withMetrics(new DefaultKafkaProducerFactory<>(kafkaProducerFactoryConfig));
         }
     }
 
@@ -77,27 +96,32 @@ public class Kafka_P_And_C_Config {
      * <p>This template uses the custom producer factory defined in {@code kafkaPigeonProducerFactory()}
      * and is qualified with {@code kafkaTemplate} so that it can be injected where needed.</p>
      *
-     * @return a {@link KafkaTemplate} for publishing String key-value messages
+     * @return a {@link KafkaTemplate} for publishing LocalizationMessageEvent messages with String keys
      */
     @Bean
     @Qualifier("pigeonKafkaTemplate")
-    public KafkaTemplate<String, String> pigeonKafkaTemplate() {
+    public KafkaTemplate<String, LocalizationMessageEvent> pigeonKafkaTemplate() {
         return new KafkaTemplate<>(kafkaPigeonProducerFactory());
     }
 
     /**
-     * Creates and configures a {@link ConsumerFactory} for String key-value pairs.
+     * Creates and configures a {@link ConsumerFactory} for String keys and LocalizationMessageEvent values.
      *
      * <p>This factory is responsible for creating Kafka Consumer instances with the
      * desired deserializers and properties.</p>
      *
-     * @return a configured {@link ConsumerFactory} for String keys and values
+     * <p>The value deserializer is wrapped in a {@link ByteBufferErrorHandlingDeserializer}: a record that cannot be
+     * decoded reaches the listener with a {@code null} value and the failure in its headers and is skipped, instead
+     * of failing every poll of its partition.</p>
+     *
+     * @return a configured {@link ConsumerFactory} for String keys and LocalizationMessageEvent values
      */
     @Bean
     @Qualifier("kafkaPigeonConsumerFactory")
-    public ConsumerFactory<String, String> kafkaPigeonConsumerFactory() {
+    public ConsumerFactory<String, LocalizationMessageEvent> kafkaPigeonConsumerFactory() {
 
         Map<String, Object> kafkaConsumerFactoryConfig = new HashMap<>();
+        Deserializer<LocalizationMessageEvent> valueDeserializer = new LocalizationMessageEventDeserializer();
 
         try {
             kafkaConsumerFactoryConfig = new HashMap<>(kafkaProperties.getConsumer());
@@ -107,12 +131,24 @@ public class Kafka_P_And_C_Config {
             kafkaConsumerFactoryConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers());
             kafkaConsumerFactoryConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, Class.forName((String) kafkaProperties.getConsumer().get("key-deserializer")));
             kafkaConsumerFactoryConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, Class.forName((String) kafkaProperties.getConsumer().get("value-deserializer")));
+            valueDeserializer = valueDeserializer((Class<?>) kafkaConsumerFactoryConfig.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
+            // Offsets are committed by the listener once a batch is fully produced, see kafkaListenerContainerFactory
+            kafkaConsumerFactoryConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
 
             log.debug("Kafka Consumer Config: {}", kafkaConsumerFactoryConfig);
         } catch (Exception ex) {
             log.error("Error In Consumer Factory Configuration While Starting the Kafka Consumer Factory Config. ", ex.fillInStackTrace());
         }
-        return new DefaultKafkaConsumerFactory<>(kafkaConsumerFactoryConfig);
+        DefaultKafkaConsumerFactory<String, LocalizationMessageEvent> consumerFactory =
+                new DefaultKafkaConsumerFactory<>(kafkaConsumerFactoryConfig);
+        consumerFactory.setValueDeserializer(new ByteBufferErrorHandlingDeserializer<>(valueDeserializer));
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Deserializer<LocalizationMessageEvent> valueDeserializer(Class<?> deserializerClass) {
+        return BeanUtils.instantiateClass(deserializerClass, Deserializer.class);
     }
 
     /**
@@ -120,19 +156,29 @@ public class Kafka_P_And_C_Config {
      * <p>
      * This factory is used by Spring Kafka to create listener containers for consuming messages.
      * It supports batch consumption and concurrent message processing.
+     * <p>
+     * Offsets are committed manually: the listener acknowledges a batch only after every produced response
+     * was acknowledged by the broker, or commits up to the first failed record and has the rest redelivered.
+     * <p>
+     * With {@code spring.threads.virtual.enabled} on a Java 21 runtime the consumer threads of every container,
+     * including the retry tier containers, are virtual threads.
      *
      * @param consumerFactory the Kafka ConsumerFactory used to create Kafka consumers
      * @return a configured ConcurrentKafkaListenerContainerFactory
      */
     @Bean
     @Qualifier("kafkaListenerContainerFactory")
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
-            ConsumerFactory<String, String> consumerFactory) {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+    public ConcurrentKafkaListenerContainerFactory<String, LocalizationMessageEvent> kafkaListenerContainerFactory(
+            ConsumerFactory<String, LocalizationMessageEvent> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, LocalizationMessageEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
         factory.setBatchListener(true);
         factory.setConcurrency(5);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            factory.getContainerProperties().setListenerTaskExecutor(new VirtualThreadTaskExecutor("pigeon-listener-"));
+        }
         return factory;
     }
 
@@ -146,9 +192,15 @@ public class Kafka_P_And_C_Config {
      */
     //@Bean
     //@Qualifier("kafkaListenerContainerFactory")
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, LocalizationMessageEvent> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, LocalizationMessageEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(kafkaPigeonConsumerFactory());
         return factory;
     }
+
+    private ProducerFactory<String, LocalizationMessageEvent> withMetrics(
+            DefaultKafkaProducerFactory<String, LocalizationMessageEvent> producerFactory) {
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
+    }
 }
@@ -1,4 +1,33 @@
 package com.daimlertrucksasia.it.dsc.pigeon.kafka.model;
 
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kafka event exchanged with the services that request localized messages from Pigeon.
+ * <p>
+ * A request event names the template, locale and args to resolve; Pigeon answers with a copy of the event
+ * that carries the {@code resolvedMessage}. Events travel in the compact binary format of
+ * {@link com.daimlertrucksasia.it.dsc.pigeon.kafka.serde.LocalizationMessageEventCodec}.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 public class LocalizationMessageEvent {
+
+    private String requestId;           // Unique ID to correlate request/response
+    private String sourceService;       // Who is sending the message
+    private String targetService;       // Intended recipient service
+    private String msgTemplateID;       // Template to resolve
+    private String locale;              // "en", "ja-JP", etc.
+    private Object[] args;              // Values to be substituted in {0}, {1}, etc.
+    private String resolvedMessage;     // Final message after localization (used in response)
+    private long timestamp;
+
 }
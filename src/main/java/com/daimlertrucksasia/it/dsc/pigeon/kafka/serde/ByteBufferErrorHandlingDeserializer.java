@@ -0,0 +1,39 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ErrorHandlingDeserializer} that keeps the zero-copy {@link ByteBuffer} path of its delegate.
+ * <p>
+ * {@code ErrorHandlingDeserializer} only implements the {@code byte[]} variants, so the consumer would copy every
+ * record value before decoding it. This subclass hands the buffer straight to the delegate and only copies a value
+ * the delegate rejected, decoding it once more through the {@code byte[]} path so the failure is recorded in the
+ * record headers as usual and the record reaches the listener with a {@code null} value.
+ * </p>
+ *
+ * @param <T> the type of the deserialized value
+ * @author KUSHWPR
+ */
+public class ByteBufferErrorHandlingDeserializer<T> extends ErrorHandlingDeserializer<T> {
+
+    private final Deserializer<T> delegate;
+
+    public ByteBufferErrorHandlingDeserializer(Deserializer<T> delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, ByteBuffer data) {
+        try {
+            return delegate.deserialize(topic, headers, data);
+        } catch (RuntimeException ex) {
+            return deserialize(topic, headers, Utils.toNullableArray(data));
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.serde;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Compact binary encoding of {@link LocalizationMessageEvent}.
+ * <p>
+ * Layout (all multi-byte numbers big-endian):
+ * <pre>
+ * byte    format version (1)
+ * long    timestamp
+ * string  requestId, sourceService, targetService, msgTemplateID, locale, resolvedMessage
+ * varint  number of args + 1 (0 = no args array)
+ * arg*    type tag byte followed by the value
+ * </pre>
+ * A {@code string} is a varint holding the UTF-8 byte length + 1 ({@code 0} = {@code null}) followed by the
+ * bytes. Args keep their type for {@code String}, {@code Integer} (also used for {@code Short} and
+ * {@code Byte}), {@code Long}, {@code Double} (also used for {@code Float}), {@code Boolean},
+ * {@code BigDecimal} and {@link Date}; any other value is sent as its {@code toString()}.
+ * </p>
+ * <p>
+ * Decoding reads straight from the record's {@link ByteBuffer} using absolute positions, so no intermediate
+ * copies or text representations are created.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public final class LocalizationMessageEventCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INT = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_BOOLEAN = 5;
+    private static final byte TAG_DECIMAL = 6;
+    private static final byte TAG_DATE = 7;
+
+    private LocalizationMessageEventCodec() {
+    }
+
+    /**
+     * Encodes an event.
+     *
+     * @param event the event to encode
+     * @return the encoded bytes
+     */
+    public static byte[] encode(LocalizationMessageEvent event) {
+        Writer writer = new Writer(128);
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeLong(event.getTimestamp());
+        writer.writeString(event.getRequestId());
+        writer.writeString(event.getSourceService());
+        writer.writeString(event.getTargetService());
+        writer.writeString(event.getMsgTemplateID());
+        writer.writeString(event.getLocale());
+        writer.writeString(event.getResolvedMessage());
+
+        Object[] args = event.getArgs();
+        if (args == null) {
+            writer.writeVarint(0);
+        } else {
+            writer.writeVarint(args.length + 1);
+            for (Object arg : args) {
+                writer.writeArg(arg);
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes an event from the remaining bytes of a buffer; the buffer position is left untouched.
+     *
+     * @param buffer the buffer holding an encoded event
+     * @return the decoded event
+     * @throws SerializationException if the bytes are not a valid encoded event
+     */
+    public static LocalizationMessageEvent decode(ByteBuffer buffer) {
+        try {
+            Reader reader = new Reader(buffer);
+            byte version = reader.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new SerializationException("Unsupported LocalizationMessageEvent format version " + version);
+            }
+            LocalizationMessageEvent event = new LocalizationMessageEvent();
+            event.setTimestamp(reader.readLong());
+            event.setRequestId(reader.readString());
+            event.setSourceService(reader.readString());
+            event.setTargetService(reader.readString());
+            event.setMsgTemplateID(reader.readString());
+            event.setLocale(reader.readString());
+            event.setResolvedMessage(reader.readString());
+
+            int argCount = reader.readVarint() - 1;
+            if (argCount > reader.remaining()) {
+                // every arg takes at least its type tag byte
+                throw new SerializationException("LocalizationMessageEvent payload declares " + argCount
+                        + " args but holds only " + reader.remaining() + " more bytes");
+            }
+            if (argCount >= 0) {
+                Object[] args = new Object[argCount];
+                for (int i = 0; i < argCount; i++) {
+                    args[i] = reader.readArg();
+                }
+                event.setArgs(args);
+            }
+            return event;
+        } catch (IndexOutOfBoundsException ex) {
+            throw new SerializationException("Truncated LocalizationMessageEvent payload", ex);
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] bytes;
+
+        private int position;
+
+        private Writer(int initialCapacity) {
+            this.bytes = new byte[initialCapacity];
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + additional));
+            }
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[position++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeVarint(int value) {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarlong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            int length = value.length();
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                ascii = value.charAt(i) < 0x80;
+            }
+            if (ascii) {
+                writeVarint(length + 1);
+                ensureCapacity(length);
+                for (int i = 0; i < length; i++) {
+                    bytes[position++] = (byte) value.charAt(i);
+                }
+            } else {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                writeVarint(utf8.length + 1);
+                ensureCapacity(utf8.length);
+                System.arraycopy(utf8, 0, bytes, position, utf8.length);
+                position += utf8.length;
+            }
+        }
+
+        private void writeArg(Object arg) {
+            if (arg == null) {
+                writeByte(TAG_NULL);
+            } else if (arg instanceof String value) {
+                writeByte(TAG_STRING);
+                writeString(value);
+            } else if (arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+                int value = ((Number) arg).intValue();
+                writeByte(TAG_INT);
+                writeVarint((value << 1) ^ (value >> 31));
+            } else if (arg instanceof Long value) {
+                writeByte(TAG_LONG);
+                writeVarlong((value << 1) ^ (value >> 63));
+            } else if (arg instanceof Double || arg instanceof Float) {
+                writeByte(TAG_DOUBLE);
+                writeLong(Double.doubleToRawLongBits(((Number) arg).doubleValue()));
+            } else if (arg instanceof Boolean value) {
+                writeByte(TAG_BOOLEAN);
+                writeByte(value ? 1 : 0);
+            } else if (arg instanceof BigDecimal value) {
+                writeByte(TAG_DECIMAL);
+                writeString(value.toString());
+            } else if (arg instanceof Date value) {
+                writeByte(TAG_DATE);
+                writeLong(value.getTime());
+            } else {
+                writeByte(TAG_STRING);
+                writeString(arg.toString());
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, position);
+        }
+    }
+
+    private static final class Reader {
+
+        private final ByteBuffer buffer;
+
+        private final int limit;
+
+        private int position;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.position = buffer.position();
+            this.limit = buffer.limit();
+        }
+
+        private int remaining() {
+            return limit - position;
+        }
+
+        private byte readByte() {
+            if (position >= limit) {
+                throw new IndexOutOfBoundsException(position);
+            }
+            return buffer.get(position++);
+        }
+
+        private long readLong() {
+            if (position + 8 > limit) {
+                throw new IndexOutOfBoundsException(position);
+            }
+            long value = buffer.getLong(position);
+            position += 8;
+            return value;
+        }
+
+        private int readVarint() {
+            return (int) readVarlong();
+        }
+
+        private long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in LocalizationMessageEvent payload");
+        }
+
+        private String readString() {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > limit - position) {
+                throw new IndexOutOfBoundsException(position);
+            }
+            String value;
+            if (buffer.hasArray()) {
+                value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+            } else {
+                byte[] utf8 = new byte[length];
+                buffer.get(position, utf8);
+                value = new String(utf8, StandardCharsets.UTF_8);
+            }
+            position += length;
+            return value;
+        }
+
+        private Object readArg() {
+            byte tag = readByte();
+            return switch (tag) {
+                case TAG_NULL -> null;
+                case TAG_STRING -> readString();
+                case TAG_INT -> {
+                    int value = readVarint();
+                    yield (value >>> 1) ^ -(value & 1);
+                }
+                case TAG_LONG -> {
+                    long value = readVarlong();
+                    yield (value >>> 1) ^ -(value & 1);
+                }
+                case TAG_DOUBLE -> Double.longBitsToDouble(readLong());
+                case TAG_BOOLEAN -> readByte() != 0;
+                case TAG_DECIMAL -> new BigDecimal(readString());
+                case TAG_DATE -> new Date(readLong());
+                default -> throw new SerializationException("Unknown arg type tag " + tag + " in LocalizationMessageEvent payload");
+            };
+        }
+    }
+}
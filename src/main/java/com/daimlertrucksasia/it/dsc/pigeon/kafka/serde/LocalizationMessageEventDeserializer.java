@@ -0,0 +1,30 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.serde;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka {@link Deserializer} reading {@link LocalizationMessageEvent}s in the format of
+ * {@link LocalizationMessageEventCodec}.
+ * <p>
+ * The consumer hands over the record value as a {@link ByteBuffer} view of the fetched data, which is
+ * decoded in place instead of being copied into a {@code byte[]} first.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public class LocalizationMessageEventDeserializer implements Deserializer<LocalizationMessageEvent> {
+
+    @Override
+    public LocalizationMessageEvent deserialize(String topic, byte[] data) {
+        return data == null ? null : LocalizationMessageEventCodec.decode(ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public LocalizationMessageEvent deserialize(String topic, Headers headers, ByteBuffer data) {
+        return data == null ? null : LocalizationMessageEventCodec.decode(data);
+    }
+}
@@ -0,0 +1,18 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.serde;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka {@link Serializer} writing {@link LocalizationMessageEvent}s in the format of
+ * {@link LocalizationMessageEventCodec}.
+ *
+ * @author KUSHWPR
+ */
+public class LocalizationMessageEventSerializer implements Serializer<LocalizationMessageEvent> {
+
+    @Override
+    public byte[] serialize(String topic, LocalizationMessageEvent event) {
+        return event == null ? null : LocalizationMessageEventCodec.encode(event);
+    }
+}
@@ -0,0 +1,148 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.consumer;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.config.KafkaPropertiesConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Worker pool that processes records in parallel while keeping the order of records with the same key.
+ * <p>
+ * The pool consists of {@code spring.pigeon.kafka.processing.parallelism} single threaded lanes. A task is
+ * always run on the lane selected by the hash of its key, so tasks sharing a key run one after the other in
+ * submission order, while tasks of different keys spread over all lanes. The order covers the start of the tasks,
+ * i.e. the order in which the records are handed to the producer; a send the {@code PigeonKafkaProducerService}
+ * retries after a backoff lands behind later records of its key.
+ * </p>
+ * <p>
+ * At most {@code spring.pigeon.kafka.processing.max-in-flight} tasks may be pending at once; a task counts as
+ * pending until the future it returned completed. Submitting beyond the limit blocks the caller, which
+ * applies back-pressure to the Kafka listener.
+ * </p>
+ * <p>
+ * With {@code spring.threads.virtual.enabled} on a Java 21 runtime there are no lanes: every task runs on a
+ * virtual thread of its own, so the parallelism is only bounded by {@code max-in-flight}. Tasks sharing a key are
+ * chained instead, each one starting after the previous task of its key returned, which keeps their order. The
+ * {@code parallelism} setting is ignored in that mode.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+public class KeyOrderedExecutor {
+
+    private final List<ExecutorService> lanes = new ArrayList<>();
+
+    private final Semaphore inFlight;
+
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    /** Starts every task on a new thread, {@code null} unless running in virtual thread mode. */
+    private final Executor threadPerTask;
+
+    /** The last task submitted for every key that still has a task pending, in virtual thread mode. */
+    private final ConcurrentMap<Object, CompletableFuture<Void>> lastStarted = new ConcurrentHashMap<>();
+
+    @Autowired
+    public KeyOrderedExecutor(KafkaPropertiesConfig kafkaProperties, Environment environment) {
+        this(kafkaProperties.getProcessing(),
+                Threading.VIRTUAL.isActive(environment) ? new VirtualThreadTaskExecutor("pigeon-worker-") : null);
+    }
+
+    /**
+     * @param processing    the parallelism and in-flight settings
+     * @param threadPerTask starts every task on a thread of its own instead of a lane, or {@code null} for lanes
+     */
+    KeyOrderedExecutor(KafkaPropertiesConfig.Processing processing, Executor threadPerTask) {
+        this.inFlight = new Semaphore(Math.max(1, processing.getMaxInFlight()));
+        this.threadPerTask = threadPerTask;
+        if (threadPerTask != null) {
+            log.info("Processing consumed records on a virtual thread each, at most {} in flight", processing.getMaxInFlight());
+            return;
+        }
+        if (processing.getParallelism() > 1) {
+            for (int i = 0; i < processing.getParallelism(); i++) {
+                lanes.add(Executors.newSingleThreadExecutor(new CustomizableThreadFactory("pigeon-worker-")));
+            }
+        }
+        log.info("Processing consumed batches with {} worker lanes and at most {} records in flight",
+                Math.max(1, lanes.size()), processing.getMaxInFlight());
+    }
+
+    /**
+     * Runs a task on the lane of its key.
+     * <p>
+     * With a parallelism of {@code 1} and without virtual threads the task runs right away on the calling thread.
+     * </p>
+     *
+     * @param key  the ordering key; tasks with equal keys run in submission order, {@code null} keys have no
+     *             ordering guarantee and are spread round-robin
+     * @param task the task, returning a future that completes when the record is fully processed
+     * @param <T>  the result type
+     * @return a future completing with the result of the future returned by the task
+     */
+    public <T> CompletableFuture<T> submit(Object key, Supplier<CompletableFuture<T>> task) {
+        inFlight.acquireUninterruptibly();
+        CompletableFuture<T> result;
+        try {
+            if (threadPerTask != null) {
+                result = startInOrder(key, task);
+            } else {
+                result = lanes.isEmpty()
+                        ? task.get()
+                        : CompletableFuture.supplyAsync(task, laneOf(key)).thenCompose(future -> future);
+            }
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        return result.whenComplete((value, ex) -> inFlight.release());
+    }
+
+    /**
+     * Starts the task on a new thread once the task submitted before it for the same key returned.
+     */
+    private <T> CompletableFuture<T> startInOrder(Object key, Supplier<CompletableFuture<T>> task) {
+        if (key == null) {
+            return CompletableFuture.supplyAsync(task, threadPerTask).thenCompose(future -> future);
+        }
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        CompletableFuture<Void> previous = lastStarted.put(key, started);
+        CompletableFuture<Void> turn = previous != null ? previous : CompletableFuture.completedFuture(null);
+        return turn.thenApplyAsync(ignored -> {
+            try {
+                return task.get();
+            } finally {
+                lastStarted.remove(key, started);
+                started.complete(null);
+            }
+        }, threadPerTask).thenCompose(future -> future);
+    }
+
+    private ExecutorService laneOf(Object key) {
+        int hash = key != null ? key.hashCode() : nextLane.getAndIncrement();
+        return lanes.get(Math.floorMod(hash ^ (hash >>> 16), lanes.size()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.forEach(ExecutorService::shutdown);
+    }
+}
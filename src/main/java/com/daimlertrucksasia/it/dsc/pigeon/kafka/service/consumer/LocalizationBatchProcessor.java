@@ -0,0 +1,254 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.consumer;
+
+import com.daimlertrucksasia.it.dsc.pigeon.diagnostics.BatchConsumeEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.diagnostics.BatchContext;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer.BatchSendResult;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer.PigeonKafkaProducerService;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.retry.RetryTierRouter;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageService;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.ResolvedTemplates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves a batch of consumed records and publishes the localized results.
+ * <p>
+ * The templates of the whole batch are resolved up front with a single lookup on the listener thread; the
+ * records are then formatted and sent on the {@link KeyOrderedExecutor}, in parallel across record keys and
+ * in order within a key.
+ * </p>
+ * <p>
+ * Every consumed {@link LocalizationMessageEvent} names the template, locale and args to resolve. The
+ * published response is a copy of the request carrying the {@code resolvedMessage}, addressed back to the
+ * requesting service. Records without a value (tombstones) carry no request and are skipped, and so are records
+ * whose value could not be deserialized; those are logged and counted in {@code pigeon.kafka.records.undeserializable}.
+ * </p>
+ * <p>
+ * Used by both the main consumer and the retry tier listeners. Records whose resolution or send failed are
+ * handed to the {@link RetryTierRouter}, so the caller can commit the batch as soon as every record was
+ * either produced or durably moved to the next retry tier.
+ * </p>
+ * <p>
+ * Every batch is recorded in the {@code pigeon.kafka.batch.size} distribution and the
+ * {@code pigeon.kafka.batch.processing} timer, both tagged by {@code tier} ({@code main} or the retry tier
+ * index); the timer is also tagged by {@code outcome}: {@code committed}, {@code redelivered} or {@code error}.
+ * </p>
+ * <p>
+ * Every batch is also recorded as a {@link BatchConsumeEvent} JFR event. Its id, {@code topic-partition@offset} of
+ * the first record, is bound as the {@link BatchContext} of the listener thread and of the lane tasks of the batch,
+ * so the lookup, format and send events recorded for the batch carry it too.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Service
+public class LocalizationBatchProcessor {
+
+    private final MessageService messageService;
+
+    private final PigeonKafkaProducerService pigeonKafkaProducerService;
+
+    private final RetryTierRouter retryTierRouter;
+
+    private final KeyOrderedExecutor keyOrderedExecutor;
+
+    private final String resolvedTopic;
+
+    private final String defaultLocale;
+
+    private final String applicationName;
+
+    /** Batch size distributions by tier, indexed by {@code tier + 1}. */
+    private final List<DistributionSummary> batchSizes = new ArrayList<>();
+
+    /** Batch processing timers by outcome and tier, indexed by {@code tier + 1}. */
+    private final List<Map<String, Timer>> batchTimers = new ArrayList<>();
+
+    private final Counter undeserializable;
+
+    private final LogAccessor logAccessor = new LogAccessor(LocalizationBatchProcessor.class);
+
+    public LocalizationBatchProcessor(MessageService messageService, PigeonKafkaProducerService pigeonKafkaProducerService,
+                                      RetryTierRouter retryTierRouter, KeyOrderedExecutor keyOrderedExecutor,
+                                      LocalizationPropertiesConfig localizationProperties, MeterRegistry meterRegistry,
+                                      @Value("${spring.pigeon.kafka.producer.topic}") String resolvedTopic,
+                                      @Value("${spring.application.name}") String applicationName) {
+        this.messageService = messageService;
+        this.pigeonKafkaProducerService = pigeonKafkaProducerService;
+        this.retryTierRouter = retryTierRouter;
+        this.keyOrderedExecutor = keyOrderedExecutor;
+        this.defaultLocale = localizationProperties.getDefaultLocale();
+        this.resolvedTopic = resolvedTopic;
+        this.applicationName = applicationName;
+        for (int tier = -1; tier < retryTierRouter.tierCount(); tier++) {
+            String tierTag = tier < 0 ? "main" : Integer.toString(tier);
+            batchSizes.add(DistributionSummary.builder("pigeon.kafka.batch.size")
+                    .description("Records per consumed batch")
+                    .baseUnit("records")
+                    .tag("tier", tierTag)
+                    .register(meterRegistry));
+            Map<String, Timer> timers = new HashMap<>();
+            for (String outcome : List.of("committed", "redelivered", "error")) {
+                timers.put(outcome, Timer.builder("pigeon.kafka.batch.processing")
+                        .description("Time to resolve, produce and route a consumed batch")
+                        .tag("tier", tierTag)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+            batchTimers.add(timers);
+        }
+        this.undeserializable = Counter.builder("pigeon.kafka.records.undeserializable")
+                .description("Consumed records skipped because their value could not be deserialized")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolves and publishes a batch of records.
+     * <p>
+     * The whole batch is resolved at once, so the distinct templates of the batch cost a single database
+     * query. Every record is then formatted and sent on the lane of its key, and the listener waits once for
+     * the whole batch to be acknowledged. When retry tiers are enabled each result gets a single send attempt
+     * and failed records are moved to the next tier instead of being retried in place.
+     * </p>
+     *
+     * @param records     the consumed records, in batch order
+     * @param currentTier the retry tier the records were consumed from, {@code -1} for the main topic
+     * @return the index of the first record that was neither produced nor moved to a retry tier, or {@code -1}
+     * if the whole batch was handled and its offsets may be committed
+     */
+    public int process(List<ConsumerRecord<String, LocalizationMessageEvent>> records, int currentTier) {
+        long started = System.nanoTime();
+        BatchConsumeEvent event = new BatchConsumeEvent();
+        event.begin();
+        String batchId = records.isEmpty() ? null : batchId(records.get(0));
+        String outcome = "error";
+        int failedAt = -1;
+        try {
+            failedAt = BatchContext.callWith(batchId, () -> processBatch(records, currentTier, batchId));
+            outcome = failedAt < 0 ? "committed" : "redelivered";
+            return failedAt;
+        } finally {
+            event.commit(batchId, records.isEmpty() ? null : records.get(0).topic(), currentTier, records.size(), failedAt);
+            batchSizes.get(currentTier + 1).record(records.size());
+            batchTimers.get(currentTier + 1).get(outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int processBatch(List<ConsumerRecord<String, LocalizationMessageEvent>> records, int currentTier, String batchId) {
+        List<Throwable> failures = new ArrayList<>(Collections.nCopies(records.size(), null));
+
+        List<MessageResolutionRequest> requests = records.stream().map(this::toRequest).toList();
+        ResolvedTemplates templates = null;
+        try {
+            templates = messageService.resolveTemplates(requests.stream().filter(Objects::nonNull).toList());
+        } catch (Exception ex) {
+            log.error("Error resolving Kafka message batch of size {}: {} ", records.size(), ex.getMessage());
+            // records without a request were skipped and have nothing to retry
+            for (int i = 0; i < records.size(); i++) {
+                if (requests.get(i) != null) {
+                    failures.set(i, ex);
+                }
+            }
+        }
+
+        if (templates != null) {
+            List<CompletableFuture<?>> sends = new ArrayList<>(records.size());
+            for (int i = 0; i < records.size(); i++) {
+                ConsumerRecord<String, LocalizationMessageEvent> record = records.get(i);
+                MessageResolutionRequest request = requests.get(i);
+                if (request == null) {
+                    sends.add(CompletableFuture.completedFuture(null));
+                    continue;
+                }
+                ResolvedTemplates batchTemplates = templates;
+                sends.add(keyOrderedExecutor.submit(record.key(),
+                        () -> BatchContext.callWith(batchId, () -> send(record, batchTemplates.format(request)))));
+            }
+            BatchSendResult sendResult = BatchSendResult.collect(sends).join();
+            failures = new ArrayList<>(sendResult.getFailures());
+            log.info("Sent {} of {} localized messages to topic: {}",
+                    sendResult.size() - sendResult.getFailedCount(), sendResult.size(), resolvedTopic);
+        }
+
+        List<Integer> failedIndexes = new ArrayList<>();
+        for (int i = 0; i < failures.size(); i++) {
+            if (failures.get(i) != null) {
+                failedIndexes.add(i);
+            }
+        }
+        if (failedIndexes.isEmpty()) {
+            return -1;
+        }
+        if (!retryTierRouter.isEnabled()) {
+            return failedIndexes.get(0);
+        }
+
+        BatchSendResult forwardResult = retryTierRouter.forward(
+                failedIndexes.stream().map(records::get).toList(),
+                failedIndexes.stream().map(failures::get).toList(),
+                currentTier).join();
+        return forwardResult.isSuccessful() ? -1 : failedIndexes.get(forwardResult.getFirstFailedIndex());
+    }
+
+    private CompletableFuture<?> send(ConsumerRecord<String, LocalizationMessageEvent> record, String result) {
+        log.debug("Result : {} ", result);
+        LocalizationMessageEvent request = record.value();
+        LocalizationMessageEvent response = request.toBuilder()
+                .sourceService(applicationName)
+                .targetService(request.getSourceService())
+                .resolvedMessage(result)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        ProducerRecord<String, LocalizationMessageEvent> outgoing = new ProducerRecord<>(resolvedTopic, record.key(), response);
+        return retryTierRouter.isEnabled()
+                ? pigeonKafkaProducerService.sendMsgAsync(outgoing, 1)
+                : pigeonKafkaProducerService.sendMsgAsync(outgoing);
+    }
+
+    private static String batchId(ConsumerRecord<?, ?> first) {
+        return first.topic() + "-" + first.partition() + "@" + first.offset();
+    }
+
+    private MessageResolutionRequest toRequest(ConsumerRecord<String, LocalizationMessageEvent> record) {
+        LocalizationMessageEvent event = record.value();
+        if (event == null) {
+            DeserializationException failure = SerializationUtils.getExceptionFromHeader(record,
+                    SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, logAccessor);
+            if (failure != null) {
+                log.error("Skipping record {}-{}@{} whose value could not be deserialized: {}", record.topic(),
+                        record.partition(), record.offset(),
+                        failure.getCause() != null ? failure.getCause().getMessage() : failure.getMessage());
+                undeserializable.increment();
+            }
+            return null;
+        }
+        return MessageResolutionRequest.builder()
+                .msgTemplateID(event.getMsgTemplateID())
+                .locale(event.getLocale() != null ? event.getLocale() : defaultLocale)
+                .args(event.getArgs())
+                .build();
+    }
+}
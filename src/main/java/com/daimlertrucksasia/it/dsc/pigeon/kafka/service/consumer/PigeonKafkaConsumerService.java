@@ -1,19 +1,49 @@
 package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.consumer;
 
-import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer.PigeonKafkaProducerService;
-import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageService;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.retry.RetryTierRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Kafka consumer service for listening to messages published to Kafka topics by the Pigeon system.
  * <p>
- * This class listens on configured topics using {@link KafkaListener} and logs received messages.
- * Additional message handling logic can be added in the consumer method.
+ * This class listens on configured topics using {@link KafkaListener} and hands every received batch to the
+ * {@link LocalizationBatchProcessor}, which resolves the batch and publishes the localized results to the
+ * topic configured under {@code spring.pigeon.kafka.producer.topic}.
+ * </p>
+ * <p>
+ * Offsets are committed manually and only for records whose localized result was acknowledged by the
+ * broker or which were moved to a retry tier. Otherwise the offsets before the first unhandled record are
+ * committed and the rest is redelivered after {@code spring.pigeon.kafka.consumer.redelivery-backoff-ms}.
+ * </p>
+ * <p>
+ * Without retry tiers a record that keeps failing, e.g. because its args do not fit its template, would block its
+ * partition forever. Once the batch failed at the same offset more than
+ * {@code spring.pigeon.kafka.consumer.max-redeliveries} times in a row, the record is logged, counted in
+ * {@code pigeon.kafka.records.skipped} and committed, and consumption continues after it. A negative limit
+ * redelivers without limit. With retry tiers the limit does not apply: failing records already leave the partition
+ * through the tiers and the dead-letter topic, and a batch is only redelivered when the tier topic was unwritable.
+ * </p>
+ * <p>
+ * The listener is not started with the application context but on {@link ApplicationReadyEvent}, i.e. once the
+ * startup runners such as the catalog snapshot build and the template warm-up completed, so a cold instance
+ * does not take over partitions.
  * </p>
  *
  * <p>
@@ -34,33 +64,97 @@ import java.util.Locale;
 @Service
 public class PigeonKafkaConsumerService {
 
+    /** Id of the listener container consuming the main topic. */
+    public static final String LISTENER_ID = "pigeonConsumer";
+
+    private final LocalizationBatchProcessor localizationBatchProcessor;
+
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    private final RetryTierRouter retryTierRouter;
+
+    private final Duration redeliveryBackoff;
 
-    private final MessageService messageService;
+    private final int maxRedeliveries;
 
-    private final PigeonKafkaProducerService pigeonKafkaProducerService;
+    /** The offset every partition last failed at and how often it was redelivered since. */
+    private final Map<TopicPartition, FailedOffset> failedOffsets = new ConcurrentHashMap<>();
 
-    public PigeonKafkaConsumerService(MessageService messageService, PigeonKafkaProducerService pigeonKafkaProducerService) {
-        this.messageService = messageService;
-        this.pigeonKafkaProducerService = pigeonKafkaProducerService;
+    private final Counter skipped;
+
+    public PigeonKafkaConsumerService(LocalizationBatchProcessor localizationBatchProcessor,
+                                      KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+                                      RetryTierRouter retryTierRouter, MeterRegistry meterRegistry,
+                                      @Value("${spring.pigeon.kafka.consumer.redelivery-backoff-ms:1000}") long redeliveryBackoffMs,
+                                      @Value("${spring.pigeon.kafka.consumer.max-redeliveries:10}") int maxRedeliveries) {
+        this.localizationBatchProcessor = localizationBatchProcessor;
+        this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+        this.retryTierRouter = retryTierRouter;
+        this.redeliveryBackoff = Duration.ofMillis(redeliveryBackoffMs);
+        this.maxRedeliveries = maxRedeliveries;
+        this.skipped = Counter.builder("pigeon.kafka.records.skipped")
+                .description("Consumed records skipped after exceeding spring.pigeon.kafka.consumer.max-redeliveries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts consuming the main topic once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startConsuming() {
+        log.info("Application ready, starting the Kafka listener {}", LISTENER_ID);
+        kafkaListenerEndpointRegistry.getListenerContainer(LISTENER_ID).start();
     }
 
     /**
      * Consumes messages from the configured Kafka topic.
      * This method is automatically triggered when a new message is published to the topic.
+     * <p>
+     * The batch offsets are committed once every record was either produced or moved to a retry tier;
+     * otherwise the offsets are committed up to the first unhandled record, which is redelivered together
+     * with the rest of the batch. A record that exhausted its redeliveries is committed as well and only the
+     * records after it are redelivered, without backoff.
+     * </p>
      *
-     * @param messages the list of message content received from the Kafka topic
+     * @param records        the list of records received from the Kafka topic
+     * @param acknowledgment handle used to commit the batch offsets
      */
-    @KafkaListener(topics = "${spring.pigeon.kafka.consumer.topic}", groupId = "${spring.pigeon.kafka.consumer.group-id}",
-            concurrency = "5", containerFactory = "kafkaListenerContainerFactory")
-    public void consume(List<String> messages) {
-        messages.forEach(message -> {
-            try {
-                String result = messageService.getMessage(message, new Object[]{"Pradeep"}, Locale.ENGLISH);
-                log.info("Result : {} ", result);
-                pigeonKafkaProducerService.sendMsg("", "", "");
-            } catch (Exception ex) {
-                log.error("Error processing Kafka message: {} ", ex.getMessage());
-            }
-        });
+    @KafkaListener(id = LISTENER_ID, topics = "${spring.pigeon.kafka.consumer.topic}", groupId = "${spring.pigeon.kafka.consumer.group-id}",
+            concurrency = "5", containerFactory = "kafkaListenerContainerFactory", autoStartup = "false")
+    public void consume(List<ConsumerRecord<String, LocalizationMessageEvent>> records, Acknowledgment acknowledgment) {
+        int failedAt = localizationBatchProcessor.process(records, -1);
+        if (failedAt < 0) {
+            acknowledgment.acknowledge();
+        } else if (mayRedeliver(records.get(failedAt))) {
+            log.error("Could not handle record #{} of batch of size {}, committing up to it and redelivering the rest",
+                    failedAt, records.size());
+            acknowledgment.nack(failedAt, redeliveryBackoff);
+        } else if (failedAt + 1 < records.size()) {
+            acknowledgment.nack(failedAt + 1, Duration.ZERO);
+        } else {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    private boolean mayRedeliver(ConsumerRecord<String, LocalizationMessageEvent> record) {
+        if (retryTierRouter.isEnabled() || maxRedeliveries < 0) {
+            return true;
+        }
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        FailedOffset failed = failedOffsets.merge(partition, new FailedOffset(record.offset(), 0),
+                (previous, current) -> previous.offset() == current.offset()
+                        ? new FailedOffset(previous.offset(), previous.redeliveries() + 1)
+                        : current);
+        if (failed.redeliveries() < maxRedeliveries) {
+            return true;
+        }
+        failedOffsets.remove(partition);
+        log.error("Skipping record {}-{}@{} after {} redeliveries", record.topic(), record.partition(), record.offset(),
+                failed.redeliveries());
+        skipped.increment();
+        return false;
+    }
+
+    private record FailedOffset(long offset, int redeliveries) {
     }
 }
@@ -0,0 +1,85 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Completion report of a batch of asynchronous sends issued through
+ * {@link PigeonKafkaProducerService#sendBatch(List)}.
+ *
+ * <p>Failures are kept per record, in the order the records were handed to the producer, so callers can
+ * tell exactly which records of the batch were not acknowledged by the broker.</p>
+ *
+ * @author KUSHWPR
+ */
+public class BatchSendResult {
+
+    /**
+     * Failure of every record of the batch, {@code null} for records that were acknowledged.
+     */
+    @Getter
+    private final List<Throwable> failures;
+
+    public BatchSendResult(List<Throwable> failures) {
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Waits, without blocking, for every send of a batch and collects their outcomes.
+     *
+     * @param sends the sends of the batch, in batch order
+     * @return a future completing with the per-record outcome once every send completed; it never completes
+     * exceptionally
+     */
+    public static CompletableFuture<BatchSendResult> collect(List<? extends CompletableFuture<?>> sends) {
+        return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .handle((ignored, ex) -> {
+                    List<Throwable> failures = new ArrayList<>(sends.size());
+                    sends.forEach(send -> failures.add(send.handle((sendResult, failure) -> unwrap(failure)).join()));
+                    return new BatchSendResult(failures);
+                });
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    /**
+     * @return the number of records in the batch
+     */
+    public int size() {
+        return failures.size();
+    }
+
+    /**
+     * @return {@code true} if every record of the batch was acknowledged
+     */
+    public boolean isSuccessful() {
+        return getFirstFailedIndex() < 0;
+    }
+
+    /**
+     * @return the number of records that failed after all retry attempts
+     */
+    public long getFailedCount() {
+        return failures.stream().filter(Objects::nonNull).count();
+    }
+
+    /**
+     * @return the index of the first record that failed, or {@code -1} if the whole batch was acknowledged
+     */
+    public int getFirstFailedIndex() {
+        for (int i = 0; i < failures.size(); i++) {
+            if (failures.get(i) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,11 +1,30 @@
 package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer;
 
+import com.daimlertrucksasia.it.dsc.pigeon.diagnostics.BatchContext;
+import com.daimlertrucksasia.it.dsc.pigeon.diagnostics.MessageSendEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Service class responsible for sending messages to Kafka topics related to the Pigeon system.
  * <p>
@@ -13,12 +32,25 @@ import org.springframework.beans.factory.annotation.Qualifier;
  * automatically retry message sending on failures.
  * </p>
  * <p>
+ * Besides the blocking {@link #sendMsg(String, String, LocalizationMessageEvent)}, the service offers a
+ * non-blocking path: {@link #sendMsgAsync(ProducerRecord)} returns a future right away and
+ * {@link #sendBatch(List)} pipelines a whole batch of sends, so the producer can fill its batches ({@code batch.size}, {@code linger.ms}) and the
+ * caller waits only once per batch. Failed asynchronous sends are retried on a scheduler thread.
+ * </p>
+ * <p>
  * The KafkaTemplate and RetryTemplate beans are injected using Spring's dependency injection,
  * distinguished by their respective qualifiers.
  * </p>
  * <p>
  * Logging is enabled to trace message send attempts and failures.
  * </p>
+ * <p>
+ * Every send is recorded in the {@code pigeon.kafka.producer.send} timer, from the first attempt until the
+ * record was acknowledged or the last attempt failed, tagged by {@code topic} and {@code outcome}
+ * ({@code success}, {@code failure}). Every attempt after the first counts in
+ * {@code pigeon.kafka.producer.retries}, tagged by {@code topic}. Sends are also recorded as
+ * {@link MessageSendEvent} JFR events.
+ * </p>
  *
  * @author KUSHWPR
  */
@@ -27,20 +59,43 @@ import org.springframework.beans.factory.annotation.Qualifier;
 public class PigeonKafkaProducerService {
 
     @Qualifier("pigeonKafkaTemplate")
-    private final KafkaTemplate<String, String> pigeonKafkaTemplate;
+    private final KafkaTemplate<String, LocalizationMessageEvent> pigeonKafkaTemplate;
 
     @Qualifier("kafkaProducerRetryTemplate")
     private RetryTemplate kafkaProducerRetryTemplate;
 
+    @Qualifier("kafkaProducerRetryScheduler")
+    private final TaskScheduler kafkaProducerRetryScheduler;
+
+    private final long backOffPeriod;
+
+    private final int maxRetryAttempts;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, SendMeters> sendMeters = new ConcurrentHashMap<>();
+
     /**
      * Constructs a {@code PigeonKafkaProducerService} with injected KafkaTemplate and RetryTemplate.
      *
-     * @param pigeonKafkaTemplate        the Kafka template used to send messages to Kafka topics
-     * @param kafkaProducerRetryTemplate the retry template used to retry sending messages on failure
+     * @param pigeonKafkaTemplate         the Kafka template used to send messages to Kafka topics
+     * @param kafkaProducerRetryTemplate  the retry template used to retry sending messages on failure
+     * @param kafkaProducerRetryScheduler the scheduler running delayed retries of asynchronous sends
+     * @param backOffPeriod               back-off period in milliseconds between asynchronous send attempts
+     * @param maxRetryAttempts            maximum number of asynchronous send attempts (including the first attempt)
+     * @param meterRegistry               the registry the send metrics are published to
      */
-    public PigeonKafkaProducerService(KafkaTemplate<String, String> pigeonKafkaTemplate, RetryTemplate kafkaProducerRetryTemplate) {
+    public PigeonKafkaProducerService(KafkaTemplate<String, LocalizationMessageEvent> pigeonKafkaTemplate, RetryTemplate kafkaProducerRetryTemplate,
+                                      TaskScheduler kafkaProducerRetryScheduler,
+                                      @Value("${spring.pigeon.kafka.producer.retry.BackOffPeriod}") long backOffPeriod,
+                                      @Value("${spring.pigeon.kafka.producer.retry.MaxRetryAttempts}") int maxRetryAttempts,
+                                      MeterRegistry meterRegistry) {
         this.pigeonKafkaTemplate = pigeonKafkaTemplate;
         this.kafkaProducerRetryTemplate = kafkaProducerRetryTemplate;
+        this.kafkaProducerRetryScheduler = kafkaProducerRetryScheduler;
+        this.backOffPeriod = backOffPeriod;
+        this.maxRetryAttempts = maxRetryAttempts;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -55,18 +110,182 @@ public class PigeonKafkaProducerService {
      *
      * @param pigeonTopic the name of the Kafka topic to send the message to
      * @param key         the key for the message
-     * @param msgContent  the content of the message to send
+     * @param msgContent  the event to send
      * @throws Exception if sending the message fails after all retry attempts
      */
-    public void sendMsg(String pigeonTopic, String key, String msgContent) throws Exception {
+    public void sendMsg(String pigeonTopic, String key, LocalizationMessageEvent msgContent) throws Exception {
         log.info("Sending message to topic: {}, key: {}, message: {}", pigeonTopic, key, msgContent);
+        SendTrace trace = new SendTrace(pigeonTopic, msgContent);
         kafkaProducerRetryTemplate.execute(context -> {
+            if (context.getRetryCount() > 0) {
+                trace.retried();
+            }
             pigeonKafkaTemplate.send(pigeonTopic, key, msgContent).get(); // blocks until send completes
             log.info("Message sent on attempt #{}", context.getRetryCount() + 1);
+            trace.finished(context.getRetryCount() + 1, true);
             return null;
         }, context -> {
             log.error("All retry attempts failed for message to topic: {}", pigeonTopic);
+            trace.finished(context.getRetryCount(), false);
             return null;
         });
     }
+
+    /**
+     * Sends a record without blocking the calling thread.
+     * <p>
+     * A failed send is retried up to {@code spring.pigeon.kafka.producer.retry.MaxRetryAttempts} attempts,
+     * {@code spring.pigeon.kafka.producer.retry.BackOffPeriod} milliseconds apart, on the producer retry
+     * scheduler. The returned future completes once the broker acknowledged the record, or exceptionally
+     * with the failure of the last attempt.
+     * </p>
+     * <p>
+     * These retries do not keep the order of records sharing a key: a record sent after a failed one is not held
+     * back, so it reaches the topic before the retried record. Only the producer's own {@code retries}, which the
+     * idempotent producer performs in order, preserve the key order; the retries here are a last resort once those
+     * are exhausted.
+     * </p>
+     *
+     * @param record the record to send
+     * @return a future completing with the send result
+     */
+    public CompletableFuture<SendResult<String, LocalizationMessageEvent>> sendMsgAsync(ProducerRecord<String, LocalizationMessageEvent> record) {
+        return sendMsgAsync(record, maxRetryAttempts);
+    }
+
+    /**
+     * Sends a record without blocking the calling thread, making at most {@code maxAttempts} attempts.
+     *
+     * @param record      the record to send
+     * @param maxAttempts maximum number of send attempts (including the first attempt)
+     * @return a future completing with the send result
+     * @see #sendMsgAsync(ProducerRecord)
+     */
+    public CompletableFuture<SendResult<String, LocalizationMessageEvent>> sendMsgAsync(ProducerRecord<String, LocalizationMessageEvent> record, int maxAttempts) {
+        log.debug("Sending message asynchronously to topic: {}, key: {}", record.topic(), record.key());
+        CompletableFuture<SendResult<String, LocalizationMessageEvent>> result = new CompletableFuture<>();
+        attemptSend(record, 1, maxAttempts, new SendTrace(record.topic(), record.value()), result);
+        return result;
+    }
+
+    /**
+     * Sends a batch of records without waiting between them.
+     * <p>
+     * All records are handed to the producer at once, so they are pipelined into the producer's own batches.
+     * The returned future completes when every record was either acknowledged or failed after all retry
+     * attempts; it never completes exceptionally.
+     * </p>
+     *
+     * @param records the records to send, in batch order
+     * @return a future completing with the per-record outcome of the batch
+     */
+    public CompletableFuture<BatchSendResult> sendBatch(List<ProducerRecord<String, LocalizationMessageEvent>> records) {
+        return sendBatch(records, maxRetryAttempts);
+    }
+
+    /**
+     * Sends a batch of records without waiting between them, making at most {@code maxAttempts} attempts per record.
+     *
+     * @param records     the records to send, in batch order
+     * @param maxAttempts maximum number of send attempts per record (including the first attempt)
+     * @return a future completing with the per-record outcome of the batch
+     * @see #sendBatch(List)
+     */
+    public CompletableFuture<BatchSendResult> sendBatch(List<ProducerRecord<String, LocalizationMessageEvent>> records, int maxAttempts) {
+        return BatchSendResult.collect(records.stream()
+                .map(record -> sendMsgAsync(record, maxAttempts))
+                .toList());
+    }
+
+    private void attemptSend(ProducerRecord<String, LocalizationMessageEvent> record, int attempt, int maxAttempts,
+                             SendTrace trace, CompletableFuture<SendResult<String, LocalizationMessageEvent>> result) {
+        CompletableFuture<SendResult<String, LocalizationMessageEvent>> send;
+        try {
+            send = pigeonKafkaTemplate.send(copyOf(record));
+        } catch (Exception ex) {
+            send = CompletableFuture.failedFuture(ex);
+        }
+        send.whenComplete((sendResult, ex) -> {
+            if (ex == null) {
+                log.debug("Message sent on attempt #{}", attempt);
+                trace.finished(attempt, true);
+                result.complete(sendResult);
+            } else if (attempt >= maxAttempts) {
+                log.error("All retry attempts failed for message to topic: {}", record.topic(), unwrap(ex));
+                trace.finished(attempt, false);
+                result.completeExceptionally(unwrap(ex));
+            } else {
+                log.warn("Send attempt #{} to topic: {} failed, retrying in {} ms", attempt, record.topic(), backOffPeriod);
+                trace.retried();
+                kafkaProducerRetryScheduler.schedule(() -> attemptSend(record, attempt + 1, maxAttempts, trace, result),
+                        Instant.now().plusMillis(backOffPeriod));
+            }
+        });
+    }
+
+    private SendMeters sendMeters(String topic) {
+        return sendMeters.computeIfAbsent(topic, t -> new SendMeters(
+                sendTimer(t, "success"),
+                sendTimer(t, "failure"),
+                Counter.builder("pigeon.kafka.producer.retries")
+                        .description("Send attempts repeated after a failed attempt")
+                        .tag("topic", t)
+                        .register(meterRegistry)));
+    }
+
+    private Timer sendTimer(String topic, String outcome) {
+        return Timer.builder("pigeon.kafka.producer.send")
+                .description("Latency of a send including its retries, until acknowledged or finally failed")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static ProducerRecord<String, LocalizationMessageEvent> copyOf(ProducerRecord<String, LocalizationMessageEvent> record) {
+        // The producer marks the headers of a sent record read-only, so every attempt gets its own copy
+        return new ProducerRecord<>(record.topic(), record.partition(), record.timestamp(), record.key(), record.value(),
+                new RecordHeaders(record.headers().toArray()));
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    private record SendMeters(Timer succeeded, Timer failed, Counter retries) {
+    }
+
+    /**
+     * Times one send across its attempts, into the send meters of its topic and a {@link MessageSendEvent}.
+     */
+    private final class SendTrace {
+
+        private final String topic;
+
+        private final LocalizationMessageEvent message;
+
+        private final SendMeters meters;
+
+        private final String batchId = BatchContext.currentBatchId();
+
+        private final MessageSendEvent event = new MessageSendEvent();
+
+        private final long started = System.nanoTime();
+
+        SendTrace(String topic, LocalizationMessageEvent message) {
+            this.topic = topic;
+            this.message = message;
+            this.meters = sendMeters(topic);
+            event.begin();
+        }
+
+        void retried() {
+            meters.retries().increment();
+        }
+
+        void finished(int attempts, boolean succeeded) {
+            (succeeded ? meters.succeeded() : meters.failed()).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            event.commit(message != null ? message.getMsgTemplateID() : null, message != null ? message.getLocale() : null,
+                    batchId, topic, attempts, succeeded);
+        }
+    }
 }
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.retry.backoff.FixedBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * Configuration class that defines a {@link RetryTemplate} bean
@@ -29,6 +30,11 @@ import org.springframework.retry.support.RetryTemplate;
  * <p>The configured {@link RetryTemplate} can be injected and used in Kafka producer
  * components to automatically retry message sending on failure with the configured settings.</p>
  *
+ * <p>Asynchronous sends reuse the same settings but schedule their retries on the
+ * {@code kafkaProducerRetryScheduler}, so a failed send never sleeps on the calling thread.
+ * The Kafka listeners do not retry in place at all: records that fail are moved to the delayed retry tiers
+ * configured under {@code spring.pigeon.kafka.retry-topics}.</p>
+ *
  * @author KUSHWPR
  */
 @Configuration
@@ -71,4 +77,18 @@ public class ProducerRetryBean {
 
         return retryTemplate;
     }
+
+    /**
+     * Creates the scheduler that runs delayed retries of asynchronous Kafka sends.
+     *
+     * @return a single threaded {@link ThreadPoolTaskScheduler}
+     */
+    @Bean
+    @Qualifier("kafkaProducerRetryScheduler")
+    public ThreadPoolTaskScheduler kafkaProducerRetryScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("pigeon-producer-retry-");
+        return scheduler;
+    }
 }
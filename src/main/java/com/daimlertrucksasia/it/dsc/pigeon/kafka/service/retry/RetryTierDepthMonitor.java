@@ -0,0 +1,165 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.retry;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.config.KafkaPropertiesConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the number of records waiting in every retry tier as the {@code pigeon.kafka.retry.tier.depth} gauge,
+ * tagged by {@code tier}.
+ * <p>
+ * The depth of a tier is its consumer lag: the end offset minus the offset committed by the consumer group, summed
+ * over the partitions of the tier topic; a partition the group never committed counts from its earliest offset.
+ * It is read from the broker, so every instance reports the same depth no matter which instance forwarded the
+ * records and which one consumes them.
+ * </p>
+ * <p>
+ * The offsets are read with an {@link Admin} client every {@code spring.pigeon.kafka.retry-topics.depth-refresh-interval},
+ * starting on {@link ApplicationReadyEvent}. While the broker cannot be reached the gauge keeps its last value.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+public class RetryTierDepthMonitor {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final RetryTierRouter retryTierRouter;
+
+    private final String groupId;
+
+    private final Duration refreshInterval;
+
+    private final Map<String, Object> adminConfig = new HashMap<>();
+
+    private final List<AtomicLong> depths = new ArrayList<>();
+
+    private final ScheduledExecutorService refresher;
+
+    private volatile Admin admin;
+
+    public RetryTierDepthMonitor(RetryTierRouter retryTierRouter, KafkaPropertiesConfig kafkaProperties,
+                                 MeterRegistry meterRegistry, @Value("${spring.pigeon.kafka.consumer.group-id}") String groupId) {
+        this.retryTierRouter = retryTierRouter;
+        this.groupId = groupId;
+        this.refreshInterval = kafkaProperties.getRetryTopics().getDepthRefreshInterval();
+        if (kafkaProperties.getConsumer() != null) {
+            // security and client settings shared with the consumer
+            kafkaProperties.getConsumer().forEach((key, value) -> {
+                if (AdminClientConfig.configNames().contains(key)) {
+                    adminConfig.put(key, value);
+                }
+            });
+        }
+        adminConfig.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers());
+        for (int tier = 0; tier < retryTierRouter.tierCount(); tier++) {
+            AtomicLong depth = new AtomicLong();
+            depths.add(depth);
+            Gauge.builder("pigeon.kafka.retry.tier.depth", depth, AtomicLong::get)
+                    .description("Records in the retry tier topic not yet committed by the consumer group")
+                    .tag("tier", String.valueOf(tier))
+                    .register(meterRegistry);
+        }
+        this.refresher = !depths.isEmpty() && refreshInterval.toMillis() > 0
+                ? Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("pigeon-retry-depth-"))
+                : null;
+    }
+
+    /**
+     * Starts reading the tier depths once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (refresher == null || admin != null) {
+            return;
+        }
+        admin = Admin.create(adminConfig);
+        refresher.scheduleWithFixedDelay(() -> refresh(admin), 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        if (admin != null) {
+            admin.close(Duration.ZERO);
+        }
+    }
+
+    /**
+     * Reads the lag of every tier topic and updates the gauges.
+     *
+     * @param admin the client to read the offsets with
+     */
+    void refresh(Admin admin) {
+        try {
+            Map<String, Integer> tiers = new HashMap<>();
+            for (int tier = 0; tier < depths.size(); tier++) {
+                tiers.put(retryTierRouter.tierTopic(tier), tier);
+            }
+            Map<String, TopicDescription> topics = admin.describeTopics(tiers.keySet()).allTopicNames()
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+            for (TopicDescription topic : topics.values()) {
+                for (TopicPartitionInfo info : topic.partitions()) {
+                    TopicPartition partition = new TopicPartition(topic.name(), info.partition());
+                    latest.put(partition, OffsetSpec.latest());
+                    if (committed.get(partition) == null) {
+                        earliest.put(partition, OffsetSpec.earliest());
+                    }
+                }
+            }
+            Map<TopicPartition, ListOffsetsResultInfo> ends = admin.listOffsets(latest).all()
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Map<TopicPartition, ListOffsetsResultInfo> starts = earliest.isEmpty()
+                    ? Map.of()
+                    : admin.listOffsets(earliest).all().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            long[] lag = new long[depths.size()];
+            ends.forEach((partition, end) -> {
+                OffsetAndMetadata offset = committed.get(partition);
+                long from = offset != null ? offset.offset() : starts.get(partition).offset();
+                lag[tiers.get(partition.topic())] += Math.max(0, end.offset() - from);
+            });
+            for (int tier = 0; tier < lag.length; tier++) {
+                depths.get(tier).set(lag[tier]);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.warn("Could not read the depth of the retry tiers: {}", ex.getMessage());
+        }
+    }
+}
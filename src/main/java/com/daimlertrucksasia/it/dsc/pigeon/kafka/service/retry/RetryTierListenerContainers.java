@@ -0,0 +1,143 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.retry;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.consumer.LocalizationBatchProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs one listener container per retry tier topic.
+ * <p>
+ * Each tier has its own container, so a tier waiting for its delay to elapse pauses only its own consumer
+ * and never the main consumer or the other tiers. Records that are not yet due are redelivered by
+ * negatively acknowledging them with the remaining delay; due records are reprocessed through the
+ * {@link LocalizationBatchProcessor} and moved one tier up if they fail again.
+ * </p>
+ * <p>
+ * Like the main listener, the containers are started on {@link ApplicationReadyEvent} rather than with the
+ * application context.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+public class RetryTierListenerContainers implements SmartLifecycle {
+
+    private final ConcurrentKafkaListenerContainerFactory<String, LocalizationMessageEvent> kafkaListenerContainerFactory;
+
+    private final LocalizationBatchProcessor localizationBatchProcessor;
+
+    private final RetryTierRouter retryTierRouter;
+
+    private final String groupId;
+
+    private final Duration redeliveryBackoff;
+
+    private final List<ConcurrentMessageListenerContainer<String, LocalizationMessageEvent>> containers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public RetryTierListenerContainers(
+            @Qualifier("kafkaListenerContainerFactory") ConcurrentKafkaListenerContainerFactory<String, LocalizationMessageEvent> kafkaListenerContainerFactory,
+            LocalizationBatchProcessor localizationBatchProcessor, RetryTierRouter retryTierRouter,
+            @Value("${spring.pigeon.kafka.consumer.group-id}") String groupId,
+            @Value("${spring.pigeon.kafka.consumer.redelivery-backoff-ms:1000}") long redeliveryBackoffMs) {
+        this.kafkaListenerContainerFactory = kafkaListenerContainerFactory;
+        this.localizationBatchProcessor = localizationBatchProcessor;
+        this.retryTierRouter = retryTierRouter;
+        this.groupId = groupId;
+        this.redeliveryBackoff = Duration.ofMillis(redeliveryBackoffMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        start();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        for (int tier = 0; tier < retryTierRouter.tierCount(); tier++) {
+            int currentTier = tier;
+            ConcurrentMessageListenerContainer<String, LocalizationMessageEvent> container =
+                    kafkaListenerContainerFactory.createContainer(retryTierRouter.tierTopic(tier));
+            container.getContainerProperties().setGroupId(groupId);
+            container.getContainerProperties().setMessageListener(
+                    (BatchAcknowledgingMessageListener<String, LocalizationMessageEvent>) (records, ack) -> onTierBatch(currentTier, records, ack));
+            container.setBeanName("pigeonRetryTier" + tier);
+            container.setConcurrency(1);
+            container.start();
+            containers.add(container);
+            log.info("Started retry tier #{} listener on topic: {}", tier, retryTierRouter.tierTopic(tier));
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Reprocesses the due records of a tier batch and redelivers the rest once they become due.
+     *
+     * @param tier    the tier the records were consumed from
+     * @param records the consumed records
+     * @param ack     handle used to commit or redeliver the batch
+     */
+    void onTierBatch(int tier, List<ConsumerRecord<String, LocalizationMessageEvent>> records, Acknowledgment ack) {
+        long now = System.currentTimeMillis();
+        int firstNotDue = records.size();
+        Duration wait = Duration.ZERO;
+        for (int i = 0; i < records.size(); i++) {
+            wait = retryTierRouter.remainingDelay(records.get(i), now);
+            if (!wait.isZero()) {
+                firstNotDue = i;
+                break;
+            }
+        }
+
+        if (firstNotDue > 0) {
+            int failedAt = localizationBatchProcessor.process(records.subList(0, firstNotDue), tier);
+            if (failedAt >= 0) {
+                ack.nack(failedAt, redeliveryBackoff);
+                return;
+            }
+        }
+
+        if (firstNotDue < records.size()) {
+            ack.nack(firstNotDue, wait);
+        } else {
+            ack.acknowledge();
+        }
+    }
+}
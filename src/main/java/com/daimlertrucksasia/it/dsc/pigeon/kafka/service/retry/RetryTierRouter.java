@@ -0,0 +1,181 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.retry;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.config.KafkaPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer.BatchSendResult;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer.PigeonKafkaProducerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Moves records that could not be processed onto delayed retry tier topics and, after the last tier,
+ * onto the dead-letter topic.
+ * <p>
+ * Every forwarded record keeps its key, value and headers and gets the {@code pigeon-retry-*} headers
+ * describing the tier it was moved to, the time it becomes due and the failure that caused the move.
+ * The tier topics are consumed by {@link RetryTierListenerContainers}, so delayed redelivery never blocks
+ * the main consumer.
+ * </p>
+ * <p>
+ * The router publishes the following meters:
+ * <ul>
+ *   <li>{@code pigeon.kafka.retry.tier.forwarded} - records forwarded into a tier, tagged by {@code tier}.</li>
+ *   <li>{@code pigeon.kafka.retry.dead.lettered} - records published to the dead-letter topic.</li>
+ * </ul>
+ * The number of records waiting in every tier is published by the {@link RetryTierDepthMonitor}.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Service
+public class RetryTierRouter {
+
+    /** Header holding the tier index a record was forwarded to. */
+    public static final String TIER_HEADER = "pigeon-retry-tier";
+
+    /** Header holding the epoch millisecond timestamp from which a record may be reprocessed. */
+    public static final String DUE_AT_HEADER = "pigeon-retry-due-at";
+
+    /** Header holding the topic the record was first consumed from. */
+    public static final String ORIGINAL_TOPIC_HEADER = "pigeon-retry-original-topic";
+
+    /** Header holding the message of the failure that caused the last move. */
+    public static final String EXCEPTION_HEADER = "pigeon-retry-exception";
+
+    private final PigeonKafkaProducerService pigeonKafkaProducerService;
+
+    private final KafkaPropertiesConfig.RetryTopics retryTopics;
+
+    private final String mainTopic;
+
+    private final List<Counter> tierForwarded = new ArrayList<>();
+
+    private final Counter deadLettered;
+
+    public RetryTierRouter(PigeonKafkaProducerService pigeonKafkaProducerService, KafkaPropertiesConfig kafkaProperties,
+                           MeterRegistry meterRegistry, @Value("${spring.pigeon.kafka.consumer.topic}") String mainTopic) {
+        this.pigeonKafkaProducerService = pigeonKafkaProducerService;
+        this.retryTopics = kafkaProperties.getRetryTopics();
+        this.mainTopic = mainTopic;
+        for (int tier = 0; tier < tierCount(); tier++) {
+            tierForwarded.add(Counter.builder("pigeon.kafka.retry.tier.forwarded")
+                    .description("Records forwarded into the retry tier")
+                    .tag("tier", String.valueOf(tier))
+                    .register(meterRegistry));
+        }
+        this.deadLettered = Counter.builder("pigeon.kafka.retry.dead.lettered")
+                .description("Records published to the dead-letter topic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return {@code true} if failed records are moved to the retry tiers
+     */
+    public boolean isEnabled() {
+        return retryTopics.isEnabled();
+    }
+
+    /**
+     * @return the number of configured retry tiers
+     */
+    public int tierCount() {
+        return retryTopics.isEnabled() ? retryTopics.getDelays().size() : 0;
+    }
+
+    /**
+     * @param tier the tier index
+     * @return the name of the topic backing the tier
+     */
+    public String tierTopic(int tier) {
+        return mainTopic + retryTopics.getRetrySuffix() + "-" + tier;
+    }
+
+    /**
+     * @return the name of the dead-letter topic
+     */
+    public String deadLetterTopic() {
+        return mainTopic + retryTopics.getDltSuffix();
+    }
+
+    /**
+     * Moves failed records one tier up: records of the main topic ({@code currentTier = -1}) go to tier 0,
+     * records of the last tier go to the dead-letter topic.
+     * <p>
+     * Every record gets a single send attempt, so a listener waiting for the forward is not held up by producer
+     * retries; records that could not be forwarded are left to the caller to redeliver.
+     * </p>
+     *
+     * @param records     the records that failed, in batch order
+     * @param failures    the failure of every record, aligned with {@code records}
+     * @param currentTier the tier the records were consumed from, {@code -1} for the main topic
+     * @return a future completing with the per-record outcome of the forward
+     */
+    public CompletableFuture<BatchSendResult> forward(List<ConsumerRecord<String, LocalizationMessageEvent>> records, List<Throwable> failures,
+                                                      int currentTier) {
+        int nextTier = currentTier + 1;
+        boolean deadLetter = nextTier >= tierCount();
+        String topic = deadLetter ? deadLetterTopic() : tierTopic(nextTier);
+        long dueAt = deadLetter ? 0 : System.currentTimeMillis() + retryTopics.getDelays().get(nextTier).toMillis();
+
+        List<ProducerRecord<String, LocalizationMessageEvent>> forwards = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, LocalizationMessageEvent> record = records.get(i);
+            Headers headers = new RecordHeaders(record.headers().toArray());
+            replaceHeader(headers, TIER_HEADER, deadLetter ? "dlt" : String.valueOf(nextTier));
+            replaceHeader(headers, DUE_AT_HEADER, String.valueOf(dueAt));
+            if (headers.lastHeader(ORIGINAL_TOPIC_HEADER) == null) {
+                headers.add(ORIGINAL_TOPIC_HEADER, record.topic().getBytes(StandardCharsets.UTF_8));
+            }
+            Throwable failure = failures.get(i);
+            replaceHeader(headers, EXCEPTION_HEADER, failure != null ? String.valueOf(failure.getMessage()) : "");
+            forwards.add(new ProducerRecord<>(topic, null, record.key(), record.value(), headers));
+        }
+
+        log.warn("Forwarding {} failed records to {}", records.size(), topic);
+        return pigeonKafkaProducerService.sendBatch(forwards, 1).thenApply(result -> {
+            long forwarded = result.size() - result.getFailedCount();
+            if (deadLetter) {
+                deadLettered.increment(forwarded);
+            } else {
+                tierForwarded.get(nextTier).increment(forwarded);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns how long a tier record still has to wait before it may be reprocessed.
+     *
+     * @param record the record consumed from a tier topic
+     * @param now    the current epoch millisecond timestamp
+     * @return the remaining delay, {@link Duration#ZERO} if the record is due
+     */
+    public Duration remainingDelay(ConsumerRecord<String, LocalizationMessageEvent> record, long now) {
+        Header header = record.headers().lastHeader(DUE_AT_HEADER);
+        if (header == null) {
+            return Duration.ZERO;
+        }
+        long dueAt = Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        return dueAt > now ? Duration.ofMillis(dueAt - now) : Duration.ZERO;
+    }
+
+    private static void replaceHeader(Headers headers, String key, String value) {
+        headers.remove(key);
+        headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
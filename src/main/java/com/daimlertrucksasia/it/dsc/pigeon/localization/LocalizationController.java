@@ -1,18 +1,39 @@
 package com.daimlertrucksasia.it.dsc.pigeon.localization;
 
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateCacheStats;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotInfo;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotManager;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
 import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
 import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
 import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMsgRequest;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionInput;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.ResolvedMessage;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.TemplateImportSummary;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageBatchLoader;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateChangedEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateImportService;
 
 import io.leangen.graphql.annotations.GraphQLArgument;
+import io.leangen.graphql.annotations.GraphQLContext;
+import io.leangen.graphql.annotations.GraphQLEnvironment;
 import io.leangen.graphql.annotations.GraphQLMutation;
 import io.leangen.graphql.annotations.GraphQLNonNull;
 import io.leangen.graphql.annotations.GraphQLQuery;
+import io.leangen.graphql.execution.ResolutionEnvironment;
 import io.leangen.graphql.spqr.spring.annotations.GraphQLApi;
 import jakarta.validation.Valid;
+import org.dataloader.DataLoader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * GraphQL controller for managing localized message templates.
  * <p>
@@ -38,14 +59,36 @@ public class LocalizationController {
 
     private final MessageRepository messageRepo;
 
+    private final MessageTemplateCache templateCache;
+
+    private final MessageTemplateImportService importService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CatalogSnapshotManager snapshotManager;
+
+    private final String defaultLocale;
+
     /**
      * Constructs a {@code LocalizationController} with the given {@link MessageRepository}.
      *
-     * @param messageRepo the repository used to interact with the message data store
+     * @param messageRepo            the repository used to interact with the message data store
+     * @param templateCache          the template cache reporting its statistics
+     * @param importService          the service importing templates in bulk
+     * @param eventPublisher         publishes {@link MessageTemplateChangedEvent}s when templates change
+     * @param snapshotManager        the manager of the in-memory catalog snapshots
+     * @param localizationProperties the localization settings providing the default locale
      */
     @Autowired
-    public LocalizationController(MessageRepository messageRepo) {
+    public LocalizationController(MessageRepository messageRepo, MessageTemplateCache templateCache,
+                                  MessageTemplateImportService importService, ApplicationEventPublisher eventPublisher,
+                                  CatalogSnapshotManager snapshotManager, LocalizationPropertiesConfig localizationProperties) {
         this.messageRepo = messageRepo;
+        this.templateCache = templateCache;
+        this.importService = importService;
+        this.eventPublisher = eventPublisher;
+        this.snapshotManager = snapshotManager;
+        this.defaultLocale = localizationProperties.getDefaultLocale();
     }
 
 
@@ -65,6 +108,101 @@ public class LocalizationController {
         return "GraphQL schema is valid and working.";
     }
 
+    /**
+     * Reports the counters of the in-process message template cache.
+     *
+     * @return the current size and hit/miss/eviction counts of the template cache
+     */
+    @GraphQLQuery(name = "templateCacheStats", description = "Size and hit/miss/eviction counters of the message template cache")
+    public TemplateCacheStats templateCacheStats() {
+        return templateCache.stats();
+    }
+
+    /**
+     * Reports the catalog snapshot lookups are currently served from.
+     *
+     * @return the version ids of the current and previous snapshot
+     */
+    @GraphQLQuery(name = "catalogSnapshot", description = "Version of the in-memory catalog snapshot served by this instance")
+    public CatalogSnapshotInfo catalogSnapshot() {
+        return snapshotManager.info();
+    }
+
+    /**
+     * Rebuilds the catalog snapshot from the database, also ending a rollback.
+     *
+     * @return the version ids of the new current and previous snapshot
+     */
+    @GraphQLMutation(name = "refreshCatalogSnapshot", description = "Rebuilds the catalog snapshot from the database and resumes automatic refreshes")
+    public CatalogSnapshotInfo refreshCatalogSnapshot() {
+        snapshotManager.refresh();
+        return snapshotManager.info();
+    }
+
+    /**
+     * Restores the previous catalog snapshot on this instance, e.g. after a bad template import.
+     * <p>
+     * Automatic refreshes are paused until {@code refreshCatalogSnapshot} is called, so the restored
+     * snapshot is not replaced while the templates in the database are being fixed.
+     * </p>
+     * <p>
+     * Only the instance serving the call rolls back, i.e. the one the gateway routed the request to through
+     * Eureka. The other instances keep their current snapshot, so the mutation has to be sent to every
+     * instance directly.
+     * </p>
+     *
+     * @return the version ids of the restored and the replaced snapshot
+     */
+    @GraphQLMutation(name = "rollbackCatalogSnapshot", description = "Restores the previous catalog snapshot, only on the "
+            + "instance serving this call (the one Eureka routed it to); send it to every instance to roll all of them back")
+    public CatalogSnapshotInfo rollbackCatalogSnapshot() {
+        snapshotManager.rollback();
+        return snapshotManager.info();
+    }
+
+    /**
+     * Resolves a list of messages.
+     * <p>
+     * Each result echoes its request; the localized text is selected through the {@code message} field, see
+     * {@link #message(ResolvedMessage, ResolutionEnvironment)}. A request without locale is resolved for the
+     * default locale.
+     * </p>
+     *
+     * @param requests the template, locale and args of every message
+     * @return one result per request, in request order
+     */
+    @GraphQLQuery(name = "resolveMessages", description = "Resolves a list of messages with a single batched lookup")
+    public List<ResolvedMessage> resolveMessages(@GraphQLArgument(name = "requests") @GraphQLNonNull List<@GraphQLNonNull @Valid MessageResolutionInput> requests) {
+        return requests.stream()
+                .map(request -> ResolvedMessage.builder()
+                        .msgTemplateID(request.getMsgTemplateID())
+                        .locale(request.getLocale() != null ? request.getLocale() : defaultLocale)
+                        .args(request.getArgs())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Resolves the localized text of a {@link ResolvedMessage}.
+     * <p>
+     * The lookup is queued on the {@value MessageBatchLoader#NAME} data loader of the current operation, so
+     * all messages selected below one {@code resolveMessages} field are resolved together with one batched
+     * repository call. Aliased {@code resolveMessages} fields of the same operation are dispatched one after the
+     * other by graphql-java, so clients should put all their requests into a single field.
+     * With {@code localization.read-path} set to {@code reactive} that call does not block the request thread; the
+     * returned future completes once the reactive driver delivered the templates.
+     * </p>
+     *
+     * @param resolved the message to resolve
+     * @param env      the resolution environment giving access to the operation's data loaders
+     * @return a future completing with the localized message
+     */
+    @GraphQLQuery(name = "message", description = "The localized message")
+    public CompletableFuture<String> message(@GraphQLContext ResolvedMessage resolved, @GraphQLEnvironment ResolutionEnvironment env) {
+        DataLoader<MessageResolutionRequest, String> loader = env.dataFetchingEnvironment.getDataLoader(MessageBatchLoader.NAME);
+        return loader.load(resolved.toRequest());
+    }
+
     /**
      * Registers a new localized message template in the system.
      *
@@ -78,17 +216,40 @@ public class LocalizationController {
      * which may indicate a planned change or migration in how templates are registered.
      * </p>
      *
+     * <p>
+     * A {@link MessageTemplateChangedEvent} is published, so a previously cached "not found" result does not
+     * hide the new template on this instance.
+     * </p>
+     *
      * @param newMsg the new localized message template to be created (must not be null and must be valid)
      * @return the persisted {@link LocalizedMessageEntity}
      */
     @GraphQLMutation(name = "createMsgTemplate", deprecationReason = "MSG template Registration")
     public LocalizedMessageEntity createLocalizedMsg(@GraphQLArgument(name = "newMsg") @GraphQLNonNull @Valid LocalizedMsgRequest newMsg) {
-        return messageRepo.save(LocalizedMessageEntity.builder()
+        LocalizedMessageEntity saved = messageRepo.save(LocalizedMessageEntity.builder()
                 .locale(newMsg.getLocale())
                 .message(newMsg.getMessage())
                 .msgTemplateID(newMsg.getMsgTemplateID())
                 .serviceProviderID(newMsg.getServiceProviderID())
                 .serviceConsumerID(newMsg.getServiceConsumerID())
                 .build());
+        eventPublisher.publishEvent(new MessageTemplateChangedEvent(Set.of(saved.getMsgTemplateID())));
+        return saved;
+    }
+
+    /**
+     * Registers or overwrites many localized message templates at once.
+     * <p>
+     * Unlike {@code createMsgTemplate}, the items are upserted on their (msgTemplateID, locale) pair with
+     * unordered bulk writes, and an invalid or rejected item does not fail the whole import. For very large
+     * catalogs use the streaming NDJSON import of {@link LocalizationImportController}.
+     * </p>
+     *
+     * @param templates the templates to import
+     * @return the counts per outcome and the outcome of every item, in input order
+     */
+    @GraphQLMutation(name = "importMsgTemplates", description = "Upserts a list of message templates with bulk writes")
+    public TemplateImportSummary importMsgTemplates(@GraphQLArgument(name = "templates") @GraphQLNonNull List<@GraphQLNonNull LocalizedMsgRequest> templates) {
+        return importService.importTemplates(templates);
     }
 }
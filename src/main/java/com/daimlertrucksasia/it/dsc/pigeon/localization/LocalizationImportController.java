@@ -0,0 +1,49 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.TemplateImportSummary;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST endpoint streaming a message template catalog into the database.
+ * <p>
+ * The request body is newline delimited JSON with one {@code LocalizedMsgRequest} per line, e.g.
+ * <pre>
+ * curl -X POST -H 'Content-Type: application/x-ndjson' --data-binary @catalog.ndjson \
+ *      http://localhost:8085/localization/templates/import
+ * </pre>
+ * The body is consumed while it is uploaded and written in chunks, so catalogs of any size can be imported
+ * without holding them in memory.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@RestController
+@RequestMapping("/localization/templates")
+public class LocalizationImportController {
+
+    private final MessageTemplateImportService importService;
+
+    public LocalizationImportController(MessageTemplateImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Upserts every template of the uploaded NDJSON catalog.
+     *
+     * @param request the HTTP request whose body holds the catalog
+     * @return the counts per outcome and the outcome of every line, in file order
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(path = "/import", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public TemplateImportSummary importTemplates(HttpServletRequest request) throws IOException {
+        return importService.importTemplates(request.getInputStream());
+    }
+}
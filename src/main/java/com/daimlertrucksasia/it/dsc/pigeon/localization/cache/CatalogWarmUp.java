@@ -0,0 +1,161 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotManager;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.format.CompiledTemplate;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Preloads message templates into the {@link MessageTemplateCache} before the instance takes traffic.
+ * <p>
+ * Enabled by {@code localization.warm-up.enabled}. The {@code Localized_Message} collection, optionally
+ * restricted to {@code localization.warm-up.service-consumer-ids} and {@code localization.warm-up.locales},
+ * is streamed with a cursor, so the catalog is never held in memory as a whole. At most
+ * {@code localization.cache.maximum-size} templates are loaded.
+ * </p>
+ * <p>
+ * The warm-up runs as an {@link ApplicationRunner}, i.e. before Spring Boot reports the application as
+ * {@link ReadinessState#ACCEPTING_TRAFFIC} and before the Kafka listeners, which are only started on
+ * {@link ApplicationReadyEvent}. The instance registers with Eureka as {@link InstanceInfo.InstanceStatus#STARTING}
+ * ({@code eureka.instance.initial-status}) and is switched to {@link InstanceInfo.InstanceStatus#UP} on
+ * {@link ApplicationReadyEvent} too, so discovery clients do not route requests to it before the cache is warm.
+ * A failing warm-up is logged and the instance starts with a cold cache.
+ * </p>
+ * <p>
+ * With catalog snapshots the warm-up waits for the {@link CatalogSnapshotManager#initialBuild() first snapshot built
+ * from the database}, as swapping it in invalidates the cache. That build has already completed at this point,
+ * unless a persisted snapshot file is served while it runs in the background; the warm-up then follows it in the
+ * background as well and the instance is ready before the cache is warm.
+ * </p>
+ * <p>
+ * Templates are cached under the locale they are stored for, i.e. the exact (msgTemplateID, locale) keys of the
+ * collection. Requests answered through the locale fallback chain, e.g. {@code ja-JP} served by the {@code ja}
+ * translation, are cached under the requested locale and still miss once.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class CatalogWarmUp implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MessageTemplateCache templateCache;
+
+    private final LocalizationPropertiesConfig localizationProperties;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    private final CatalogSnapshotManager snapshotManager;
+
+    public CatalogWarmUp(MongoTemplate mongoTemplate, MessageTemplateCache templateCache,
+                         LocalizationPropertiesConfig localizationProperties, ApplicationEventPublisher eventPublisher,
+                         ObjectProvider<ApplicationInfoManager> applicationInfoManager, CatalogSnapshotManager snapshotManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.templateCache = templateCache;
+        this.snapshotManager = snapshotManager;
+        this.localizationProperties = localizationProperties;
+        this.eventPublisher = eventPublisher;
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        LocalizationPropertiesConfig.WarmUp warmUp = localizationProperties.getWarmUp();
+        if (!warmUp.isEnabled() || !localizationProperties.getCache().isEnabled()) {
+            return;
+        }
+
+        CompletableFuture<Void> initialBuild = snapshotManager.initialBuild();
+        if (!initialBuild.isDone()) {
+            log.info("Template warm-up starts once the first catalog snapshot was built from the database");
+            initialBuild.thenRun(() -> warmUpOrLog(warmUp));
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        warmUpOrLog(warmUp);
+    }
+
+    /**
+     * Reports the instance to Eureka as up once every startup runner, including the warm-up, completed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markUp() {
+        applicationInfoManager.ifAvailable(manager -> manager.setInstanceStatus(InstanceInfo.InstanceStatus.UP));
+    }
+
+    private void warmUpOrLog(LocalizationPropertiesConfig.WarmUp warmUp) {
+        try {
+            warmUp(warmUp);
+        } catch (Exception ex) {
+            log.error("Template warm-up failed, starting with a cold template cache", ex);
+        }
+    }
+
+    private void warmUp(LocalizationPropertiesConfig.WarmUp warmUp) {
+        long started = System.nanoTime();
+        int limit = localizationProperties.getCache().getMaximumSize();
+        int loaded = 0;
+        int skipped = 0;
+
+        try (Stream<LocalizedMessageEntity> templates = mongoTemplate.stream(query(warmUp), LocalizedMessageEntity.class)) {
+            Iterator<LocalizedMessageEntity> iterator = templates.iterator();
+            while (iterator.hasNext() && loaded < limit) {
+                LocalizedMessageEntity template = iterator.next();
+                try {
+                    Locale locale = Locale.forLanguageTag(template.getLocale());
+                    templateCache.put(TemplateKey.of(template.getMsgTemplateID(), template.getLocale()),
+                            CompiledTemplate.compile(template.getMessage(), locale));
+                    loaded++;
+                } catch (RuntimeException ex) {
+                    log.warn("Skipping template {} [{}] during warm-up: {}", template.getMsgTemplateID(),
+                            template.getLocale(), ex.getMessage());
+                    skipped++;
+                }
+            }
+        }
+
+        log.info("Template warm-up loaded {} templates ({} skipped) in {} ms{}", loaded, skipped,
+                (System.nanoTime() - started) / 1_000_000,
+                loaded >= limit ? ", stopped at localization.cache.maximum-size" : "");
+    }
+
+    private static Query query(LocalizationPropertiesConfig.WarmUp warmUp) {
+        Criteria criteria = new Criteria();
+        if (!warmUp.getServiceConsumerIds().isEmpty()) {
+            criteria = criteria.and("serviceConsumerID").in(warmUp.getServiceConsumerIds());
+        }
+        if (!warmUp.getLocales().isEmpty()) {
+            criteria = criteria.and("locale").in(warmUp.getLocales());
+        }
+        Query query = Query.query(criteria).cursorBatchSize(Math.max(1, warmUp.getCursorBatchSize()));
+        query.fields().include("msgTemplateID", "locale", "message").exclude("_id");
+        return query;
+    }
+}
@@ -0,0 +1,300 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache of fully formatted messages keyed by template, locale and argument values.
+ * <p>
+ * Sits in front of the {@link MessageTemplateCache}: a message resolved again with the same arguments, e.g. the
+ * same "staff not found" error for the same few ids, is answered with a single map lookup instead of a
+ * template lookup and formatting. Enabled by {@code localization.output-cache.enabled}.
+ * </p>
+ * <p>
+ * Only messages whose arguments are immutable values with a stable {@code hashCode} (strings, numbers,
+ * booleans, characters and enums) are cached, and strings longer than {@code localization.output-cache.max-arg-length}
+ * are left out as they rarely repeat. The hit ratio of every template is sampled over
+ * {@code localization.output-cache.sample-size} resolutions; a template hit less often than
+ * {@code localization.output-cache.min-hit-ratio}, i.e. one formatted with high-cardinality arguments, bypasses
+ * the cache for the next sample before it is tried again. Like the entries, the samplers are kept for at most
+ * {@code localization.output-cache.maximum-size} templates, least recently resolved first out, so ids that are
+ * resolved once, e.g. misspelled ones, do not accumulate.
+ * </p>
+ * <p>
+ * An entry expires together with the {@link MessageTemplateCache.Entry template cache entry} it was formatted from,
+ * so it never outlives its template: messages of a found template expire after {@code localization.cache.ttl},
+ * "no message found" messages after {@code localization.cache.negative-ttl}. Entries are also dropped once the
+ * {@link MessageTemplateCache#generation() template generation} changes.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public class FormattedMessageCache {
+
+    private final boolean enabled;
+
+    private final int maximumSize;
+
+    private final int maxArgLength;
+
+    private final double minHitRatio;
+
+    private final int sampleSize;
+
+    private final MessageTemplateCache templateCache;
+
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LinkedHashMap<String, Sampler> samplers;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder bypassed = new LongAdder();
+
+    /**
+     * Creates a cache configured from {@code localization.output-cache.*}.
+     *
+     * @param properties    the localization settings
+     * @param templateCache the template cache whose generation invalidates formatted messages
+     */
+    public FormattedMessageCache(LocalizationPropertiesConfig properties, MessageTemplateCache templateCache) {
+        this(properties.getOutputCache(), templateCache, System::nanoTime);
+    }
+
+    FormattedMessageCache(LocalizationPropertiesConfig.OutputCache properties, MessageTemplateCache templateCache,
+                          LongSupplier ticker) {
+        this.enabled = properties.isEnabled() && properties.getMaximumSize() > 0;
+        this.maximumSize = properties.getMaximumSize();
+        this.maxArgLength = properties.getMaxArgLength();
+        this.minHitRatio = properties.getMinHitRatio();
+        this.sampleSize = Math.max(1, properties.getSampleSize());
+        this.templateCache = templateCache;
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+        this.samplers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Sampler> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached formatted message, or formats and caches it.
+     *
+     * @param msgTemplateID the template id
+     * @param locale        the requested locale tag
+     * @param args          the arguments of the message, may be {@code null}
+     * @param source        looks up the template cache entry the message is formatted from on a miss
+     * @param formatter     formats the message from that entry
+     * @return the formatted message
+     */
+    public String resolve(String msgTemplateID, String locale, Object[] args, Supplier<MessageTemplateCache.Entry> source,
+                          Function<MessageTemplateCache.Entry, String> formatter) {
+        if (!enabled || !cacheable(args)) {
+            return formatter.apply(source.get());
+        }
+        Key key = new Key(msgTemplateID, locale, args);
+        long generation = templateCache.generation();
+        Sampler sampler;
+        boolean bypass;
+        Entry entry = null;
+        lock.lock();
+        try {
+            sampler = samplers.computeIfAbsent(msgTemplateID, id -> new Sampler());
+            bypass = sampler.bypassing();
+            if (!bypass) {
+                entry = entries.get(key);
+                if (entry != null && (entry.generation != generation || entry.expiresAt - ticker.getAsLong() <= 0)) {
+                    entries.remove(key);
+                    entry = null;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (bypass) {
+            bypassed.increment();
+            return formatter.apply(source.get());
+        }
+        sampler.record(entry != null);
+        if (entry != null) {
+            hits.increment();
+            return entry.message;
+        }
+
+        misses.increment();
+        MessageTemplateCache.Entry template = source.get();
+        String message = formatter.apply(template);
+        Key stored = new Key(msgTemplateID, locale, args == null ? null : args.clone());
+        lock.lock();
+        try {
+            entries.put(stored, new Entry(message, generation, template.getExpiresAt()));
+        } finally {
+            lock.unlock();
+        }
+        return message;
+    }
+
+    /**
+     * @return the number of resolutions answered from the cache
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of cacheable resolutions that had to format the message
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of resolutions that skipped the cache because their template's hit ratio was too low
+     */
+    public long bypassCount() {
+        return bypassed.sum();
+    }
+
+    /**
+     * @return the share of cacheable resolutions answered from the cache, {@code 0} before the first one
+     */
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return the number of formatted messages currently held
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of templates whose hit ratio is currently sampled
+     */
+    int samplerCount() {
+        lock.lock();
+        try {
+            return samplers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean cacheable(Object[] args) {
+        if (args == null) {
+            return true;
+        }
+        for (Object arg : args) {
+            if (arg instanceof String string) {
+                if (string.length() > maxArgLength) {
+                    return false;
+                }
+            } else if (arg != null && !(arg instanceof Integer || arg instanceof Long || arg instanceof Short
+                    || arg instanceof Byte || arg instanceof Double || arg instanceof Float || arg instanceof BigDecimal
+                    || arg instanceof BigInteger || arg instanceof Boolean || arg instanceof Character || arg instanceof Enum<?>)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tracks the hit ratio of one template over windows of {@code sampleSize} resolutions.
+     */
+    private final class Sampler {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        private final AtomicInteger hits = new AtomicInteger();
+
+        private final AtomicInteger bypassedLookups = new AtomicInteger();
+
+        private volatile boolean bypassing;
+
+        boolean bypassing() {
+            if (!bypassing) {
+                return false;
+            }
+            if (bypassedLookups.incrementAndGet() >= sampleSize) {
+                bypassedLookups.set(0);
+                bypassing = false;
+            }
+            return true;
+        }
+
+        void record(boolean hit) {
+            if (hit) {
+                hits.incrementAndGet();
+            }
+            int count = lookups.incrementAndGet();
+            if (count >= sampleSize) {
+                lookups.set(0);
+                bypassing = (double) hits.getAndSet(0) / count < minHitRatio;
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final String msgTemplateID;
+
+        private final String locale;
+
+        private final Object[] args;
+
+        private final int hash;
+
+        Key(String msgTemplateID, String locale, Object[] args) {
+            this.msgTemplateID = msgTemplateID;
+            this.locale = locale;
+            this.args = args;
+            this.hash = 31 * (31 * msgTemplateID.hashCode() + locale.hashCode()) + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && hash == key.hash && msgTemplateID.equals(key.msgTemplateID)
+                    && locale.equals(key.locale) && Arrays.equals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private record Entry(String message, long generation, long expiresAt) {
+    }
+}
@@ -0,0 +1,282 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.format.CompiledTemplate;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded, time-limited cache of compiled message templates keyed by {@link TemplateKey}.
+ * <p>
+ * Entries are kept in least-recently-used order and the eldest entry is evicted once
+ * {@code localization.cache.maximum-size} is exceeded. Every entry also carries its own expiry,
+ * so a template is reloaded from the database at the latest after {@code localization.cache.ttl}.
+ * </p>
+ * <p>
+ * Lookups that found nothing in the database are cached as well ("negative caching") for
+ * {@code localization.cache.negative-ttl}, so unknown templates do not reach MongoDB on every call. Templates that
+ * failed to compile are cached with their error for the same time, so only the messages using them fail.
+ * </p>
+ * <p>
+ * The cached {@link CompiledTemplate}s are immutable and shared; they are formatted concurrently without
+ * any locking.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public class MessageTemplateCache {
+
+    private final boolean enabled;
+
+    private final int maximumSize;
+
+    private final long ttlNanos;
+
+    private final long negativeTtlNanos;
+
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<TemplateKey, Entry> entries;
+
+    /** Guards {@link #entries}; unlike a contended monitor, waiting for it never pins a virtual thread. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder negativeHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a cache configured from {@code localization.cache.*}.
+     *
+     * @param properties the cache settings
+     */
+    public MessageTemplateCache(LocalizationPropertiesConfig.Cache properties) {
+        this(properties.isEnabled(), properties.getMaximumSize(), properties.getTtl(), properties.getNegativeTtl(), System::nanoTime);
+    }
+
+    MessageTemplateCache(boolean enabled, int maximumSize, Duration ttl, Duration negativeTtl, LongSupplier ticker) {
+        this.enabled = enabled && maximumSize > 0;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TemplateKey, Entry> eldest) {
+                if (size() > MessageTemplateCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up a cached entry.
+     *
+     * @param key the template and locale to look up
+     * @return the cached entry, or {@code null} if the key is not cached or its entry expired
+     */
+    public Entry get(TemplateKey key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt - ticker.getAsLong() <= 0) {
+                entries.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            misses.increment();
+        } else if (entry.isFound()) {
+            hits.increment();
+        } else {
+            negativeHits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Caches a compiled template.
+     *
+     * @param key      the template and locale the template was resolved for
+     * @param template the compiled template
+     * @return the cached entry
+     */
+    public Entry put(TemplateKey key, CompiledTemplate template) {
+        return store(key, new Entry(template, null, ticker.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * Caches the fact that no template exists for the given key.
+     *
+     * @param key the template and locale that could not be resolved
+     * @return the cached "not found" entry
+     */
+    public Entry putNotFound(TemplateKey key) {
+        return store(key, new Entry(null, null, ticker.getAsLong() + negativeTtlNanos));
+    }
+
+    /**
+     * Caches the fact that the template stored for the given key could not be compiled.
+     *
+     * @param key   the template and locale whose template is invalid
+     * @param error the error the template failed to compile with
+     * @return the cached "invalid" entry
+     */
+    public Entry putInvalid(TemplateKey key, RuntimeException error) {
+        return store(key, new Entry(null, error, ticker.getAsLong() + negativeTtlNanos));
+    }
+
+    private Entry store(TemplateKey key, Entry entry) {
+        if (enabled) {
+            lock.lock();
+            try {
+                entries.put(key, entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Removes every cached entry of a template, regardless of locale.
+     *
+     * @param msgTemplateID the template whose entries should be dropped
+     */
+    public void evictTemplate(String msgTemplateID) {
+        generation.incrementAndGet();
+        lock.lock();
+        try {
+            entries.keySet().removeIf(key -> key.getMsgTemplateID().equals(msgTemplateID));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every cached entry of several templates, regardless of locale, in a single pass over the cache.
+     *
+     * @param msgTemplateIDs the templates whose entries should be dropped
+     */
+    public void evictTemplates(Collection<String> msgTemplateIDs) {
+        HashSet<String> ids = new HashSet<>(msgTemplateIDs);
+        generation.incrementAndGet();
+        lock.lock();
+        try {
+            entries.keySet().removeIf(key -> ids.contains(key.getMsgTemplateID()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all cached entries.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a counter that changes whenever templates are evicted or invalidated because they may have changed.
+     * <p>
+     * Caches of values derived from templates compare it to detect that their entries may be stale; entries
+     * dropped for size or time-to-live reasons do not change it.
+     * </p>
+     *
+     * @return the current generation of the cached templates
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the current size and hit/miss/eviction counters of the cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public TemplateCacheStats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return TemplateCacheStats.builder()
+                .size(size)
+                .hits(hits.sum())
+                .negativeHits(negativeHits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .build();
+    }
+
+    /**
+     * A cached lookup result: a compiled template, a "not found" marker or the error of an invalid template.
+     */
+    public static final class Entry {
+
+        @Getter
+        private final CompiledTemplate template;
+
+        /** The compile error of an invalid template, {@code null} otherwise. */
+        @Getter
+        private final RuntimeException error;
+
+        private final long expiresAt;
+
+        private Entry(CompiledTemplate template, RuntimeException error, long expiresAt) {
+            this.template = template;
+            this.error = error;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return the {@link System#nanoTime()} at which the entry expires
+         */
+        long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * @return {@code true} if a valid template was found, {@code false} for a cached miss or an invalid template
+         */
+        public boolean isFound() {
+            return template != null;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key into a single load ("single-flight").
+ * <p>
+ * The first caller missing a key becomes the leader and runs the load; callers asking for the same key
+ * while that load is in flight wait for the leader's result instead of loading the key again. Nothing is
+ * remembered once a load completed - caching the result is up to the loader.
+ * </p>
+ * <p>
+ * A waiting caller gives up after the load timeout and loads the key itself, so a stuck leader delays the
+ * other callers by at most the timeout. A failure of the leader's load is rethrown to all waiting callers.
+ * </p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type; loads must not return {@code null}
+ * @author KUSHWPR
+ */
+@Slf4j
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final long timeoutNanos;
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param loadTimeout how long a caller waits for the in-flight load of another caller
+     */
+    public SingleFlight(Duration loadTimeout) {
+        this.timeoutNanos = loadTimeout.toNanos();
+    }
+
+    /**
+     * Loads a key, sharing the load with all concurrent callers of the same key.
+     *
+     * @param key    the key to load
+     * @param loader loads the key if no load of it is in flight
+     * @return the loaded value
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing == null) {
+            try {
+                V value = loader.get();
+                own.complete(value);
+                return value;
+            } catch (RuntimeException ex) {
+                own.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(key, own);
+            }
+        }
+        coalesced.increment();
+        V value = await(key, existing);
+        return value != null ? value : loader.get();
+    }
+
+    /**
+     * Loads several keys, sharing the load of every key with all concurrent callers of the same key.
+     * <p>
+     * Keys not in flight are loaded together with one call of {@code bulkLoader}; keys already in flight
+     * are taken from the running loads. Keys whose load timed out are loaded with a second bulk call.
+     * </p>
+     *
+     * @param keys       the keys to load
+     * @param bulkLoader loads a list of keys, returning a value for every key
+     * @return the loaded values by key
+     */
+    public Map<K, V> loadAll(Collection<K> keys, Function<List<K>, Map<K, V>> bulkLoader) {
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> joined = new LinkedHashMap<>();
+        for (K key : keys) {
+            CompletableFuture<V> own = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+            if (existing == null) {
+                owned.put(key, own);
+            } else {
+                joined.put(key, existing);
+            }
+        }
+
+        Map<K, V> values = new HashMap<>();
+        if (!owned.isEmpty()) {
+            try {
+                Map<K, V> loaded = bulkLoader.apply(new ArrayList<>(owned.keySet()));
+                owned.forEach((key, future) -> future.complete(loaded.get(key)));
+                values.putAll(loaded);
+            } catch (RuntimeException ex) {
+                owned.values().forEach(future -> future.completeExceptionally(ex));
+                throw ex;
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+        }
+
+        List<K> timedOut = new ArrayList<>();
+        coalesced.add(joined.size());
+        joined.forEach((key, future) -> {
+            V value = await(key, future);
+            if (value != null) {
+                values.put(key, value);
+            } else {
+                timedOut.add(key);
+            }
+        });
+        if (!timedOut.isEmpty()) {
+            values.putAll(bulkLoader.apply(timedOut));
+        }
+        return values;
+    }
+
+    /**
+     * Loads several keys like {@link #loadAll(Collection, Function)}, without blocking the calling thread.
+     * <p>
+     * Keys not in flight are loaded together with one call of {@code bulkLoader}; keys already in flight complete
+     * with the running loads, of blocking and non-blocking callers alike. Keys whose load did not complete within
+     * the load timeout are loaded with a second bulk call.
+     * </p>
+     *
+     * @param keys       the keys to load
+     * @param bulkLoader starts the load of a list of keys, completing with a value for every key
+     * @return a future completing with the loaded values by key
+     */
+    public CompletableFuture<Map<K, V>> loadAllAsync(Collection<K> keys, Function<List<K>, CompletableFuture<Map<K, V>>> bulkLoader) {
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> joined = new LinkedHashMap<>();
+        for (K key : keys) {
+            CompletableFuture<V> own = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+            if (existing == null) {
+                owned.put(key, own);
+            } else {
+                joined.put(key, existing.copy().completeOnTimeout(null, timeoutNanos, TimeUnit.NANOSECONDS));
+            }
+        }
+
+        CompletableFuture<Map<K, V>> ownLoad = CompletableFuture.completedFuture(Map.of());
+        if (!owned.isEmpty()) {
+            try {
+                ownLoad = bulkLoader.apply(new ArrayList<>(owned.keySet()));
+            } catch (RuntimeException ex) {
+                ownLoad = CompletableFuture.failedFuture(ex);
+            }
+            ownLoad = ownLoad.whenComplete((loaded, ex) -> {
+                owned.forEach((key, future) -> {
+                    if (ex != null) {
+                        future.completeExceptionally(ex);
+                    } else {
+                        future.complete(loaded.get(key));
+                    }
+                });
+                owned.forEach(inFlight::remove);
+            });
+        }
+
+        coalesced.add(joined.size());
+        CompletableFuture<Map<K, V>> load = ownLoad;
+        List<CompletableFuture<?>> pending = new ArrayList<>(joined.values());
+        pending.add(load);
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).thenCompose(ignored -> {
+            Map<K, V> values = new HashMap<>(load.join());
+            List<K> timedOut = new ArrayList<>();
+            joined.forEach((key, future) -> {
+                V value = future.join();
+                if (value != null) {
+                    values.put(key, value);
+                } else {
+                    timeouts.increment();
+                    log.warn("Load of {} did not complete within {} ms, loading it again", key,
+                            TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+                    timedOut.add(key);
+                }
+            });
+            if (timedOut.isEmpty()) {
+                return CompletableFuture.completedFuture(values);
+            }
+            return bulkLoader.apply(timedOut).thenApply(loaded -> {
+                values.putAll(loaded);
+                return values;
+            });
+        });
+    }
+
+    /**
+     * @return the number of callers that were served by another caller's load
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return the number of callers that stopped waiting for another caller's load and loaded themselves
+     */
+    public long timeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Waits for another caller's load.
+     *
+     * @return the loaded value, or {@code null} if the load did not complete within the timeout
+     */
+    private V await(K key, CompletableFuture<V> future) {
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            log.warn("Load of {} did not complete within {} ms, loading it again", key,
+                    TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+            return null;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Load of " + key + " failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the load of " + key, ex);
+        }
+    }
+}
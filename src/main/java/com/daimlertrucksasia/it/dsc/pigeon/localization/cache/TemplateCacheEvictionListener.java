@@ -0,0 +1,29 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts changed templates from the {@link MessageTemplateCache}, so a cached template or cached
+ * "not found" result never hides a template that was just written on this instance.
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+public class TemplateCacheEvictionListener {
+
+    private final MessageTemplateCache templateCache;
+
+    public TemplateCacheEvictionListener(MessageTemplateCache templateCache) {
+        this.templateCache = templateCache;
+    }
+
+    @EventListener
+    public void onTemplatesChanged(MessageTemplateChangedEvent event) {
+        log.debug("Evicting {} changed templates from the template cache", event.getMsgTemplateIDs().size());
+        templateCache.evictTemplates(event.getMsgTemplateIDs());
+    }
+}
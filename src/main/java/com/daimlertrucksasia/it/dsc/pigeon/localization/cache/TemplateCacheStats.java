@@ -0,0 +1,32 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Point-in-time snapshot of the {@link MessageTemplateCache} counters.
+ *
+ * @author KUSHWPR
+ */
+@Value
+@Builder
+public class TemplateCacheStats {
+
+    /** Number of entries currently held, including cached "not found" entries. */
+    int size;
+
+    /** Lookups answered with a cached template. */
+    long hits;
+
+    /** Lookups answered with a cached "not found" entry. */
+    long negativeHits;
+
+    /** Lookups that had to go to the database. */
+    long misses;
+
+    /** Entries dropped because the cache reached its maximum size. */
+    long evictions;
+
+    /** Entries dropped because their time-to-live elapsed. */
+    long expirations;
+}
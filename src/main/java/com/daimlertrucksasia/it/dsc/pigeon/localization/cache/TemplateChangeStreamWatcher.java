@@ -0,0 +1,214 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateChangedEvent;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts templates changed by any Pigeon instance from this instance's {@link MessageTemplateCache}.
+ * <p>
+ * Enabled by {@code localization.change-stream.enabled}. A background thread watches the
+ * {@code Localized_Message} collection with a MongoDB change stream and publishes a
+ * {@link MessageTemplateChangedEvent} for every inserted, updated or replaced template. Every locale of
+ * the template is evicted, because a cached entry of another locale may have fallen back to the changed
+ * translation. Deletes, and updates changing a template's id or locale, invalidate the whole cache since
+ * the previous key is not part of the change event.
+ * </p>
+ * <p>
+ * The resume token of the last handled change is stored per {@code localization.change-stream.node-id} in
+ * {@code localization.change-stream.resume-token-collection}, so a restarted instance evicts the changes
+ * it missed while it was down. If the token can no longer be resumed, the whole cache is invalidated and
+ * the stream restarts from the current position.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+public class TemplateChangeStreamWatcher implements SmartLifecycle {
+
+    static final String TEMPLATE_COLLECTION = "Localized_Message";
+
+    /** Server error codes meaning the stored resume token can no longer be used. */
+    private static final Set<Integer> RESUME_FAILED_CODES = Set.of(260, 280, 286);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MessageTemplateCache templateCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final LocalizationPropertiesConfig.ChangeStream settings;
+
+    private volatile boolean running;
+
+    private volatile Thread watcherThread;
+
+    private volatile MongoChangeStreamCursor<?> cursor;
+
+    public TemplateChangeStreamWatcher(MongoTemplate mongoTemplate, MessageTemplateCache templateCache,
+                                       ApplicationEventPublisher eventPublisher,
+                                       LocalizationPropertiesConfig localizationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.templateCache = templateCache;
+        this.eventPublisher = eventPublisher;
+        this.settings = localizationProperties.getChangeStream();
+    }
+
+    @Override
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::watch, "pigeon-template-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+        watcherThread = thread;
+        log.info("Watching {} for template changes as node {}", TEMPLATE_COLLECTION, settings.getNodeId());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<?> current = cursor;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (RuntimeException ex) {
+                log.debug("Closing the template change stream failed: {}", ex.getMessage());
+            }
+        }
+        Thread thread = watcherThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                watchOnce();
+            } catch (MongoServerException ex) {
+                if (running && RESUME_FAILED_CODES.contains(ex.getCode())) {
+                    log.warn("Cannot resume the template change stream ({}), invalidating the template cache", "error " + ex.getCode());
+                    resumeTokens().deleteOne(Filters.eq("_id", settings.getNodeId()));
+                    templateCache.invalidateAll();
+                } else {
+                    backOff(ex);
+                }
+            } catch (RuntimeException ex) {
+                backOff(ex);
+            }
+        }
+    }
+
+    private void watchOnce() {
+        BsonDocument resumeToken = loadResumeToken();
+        ChangeStreamIterable<Document> changes = mongoTemplate.getCollection(TEMPLATE_COLLECTION)
+                .watch(List.of(Aggregates.match(Filters.in("operationType", "insert", "update", "replace", "delete"))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP);
+        if (resumeToken != null) {
+            changes = changes.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> changeCursor = changes.cursor()) {
+            cursor = changeCursor;
+            BsonDocument savedToken = resumeToken;
+            long savedAt = System.nanoTime();
+            while (running) {
+                ChangeStreamDocument<Document> change = changeCursor.tryNext();
+                if (change != null) {
+                    onChange(change);
+                }
+                BsonDocument token = changeCursor.getResumeToken();
+                boolean saveDue = System.nanoTime() - savedAt >= settings.getTokenSaveInterval().toNanos();
+                if (token != null && !token.equals(savedToken) && (change != null || saveDue)) {
+                    saveResumeToken(token);
+                    savedToken = token;
+                    savedAt = System.nanoTime();
+                }
+            }
+        } finally {
+            cursor = null;
+        }
+    }
+
+    private void onChange(ChangeStreamDocument<Document> change) {
+        Document template = change.getFullDocument();
+        UpdateDescription update = change.getUpdateDescription();
+        boolean keyChanged = update != null && update.getUpdatedFields() != null
+                && (update.getUpdatedFields().containsKey("msgTemplateID") || update.getUpdatedFields().containsKey("locale"));
+
+        if (change.getOperationType() == OperationType.DELETE || template == null || keyChanged) {
+            log.info("Template {} was {}, invalidating the template cache", change.getDocumentKey(), change.getOperationType());
+            templateCache.invalidateAll();
+            return;
+        }
+        String msgTemplateID = template.getString("msgTemplateID");
+        log.debug("Template {} [{}] changed ({})", msgTemplateID, template.getString("locale"), change.getOperationType());
+        eventPublisher.publishEvent(new MessageTemplateChangedEvent(Set.of(msgTemplateID)));
+    }
+
+    private void backOff(RuntimeException ex) {
+        if (!running) {
+            return;
+        }
+        log.warn("Template change stream failed, reopening in {} ms: {}", settings.getRetryBackoff().toMillis(), ex.getMessage());
+        try {
+            Thread.sleep(settings.getRetryBackoff().toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private MongoCollection<BsonDocument> resumeTokens() {
+        return mongoTemplate.getDb().getCollection(settings.getResumeTokenCollection(), BsonDocument.class);
+    }
+
+    private BsonDocument loadResumeToken() {
+        BsonDocument stored = resumeTokens().find(Filters.eq("_id", settings.getNodeId())).first();
+        return stored != null && stored.isDocument("token") ? stored.getDocument("token") : null;
+    }
+
+    private void saveResumeToken(BsonDocument token) {
+        BsonDocument stored = new BsonDocument("_id", new BsonString(settings.getNodeId()))
+                .append("token", token)
+                .append("updatedAt", new BsonDateTime(System.currentTimeMillis()));
+        resumeTokens().replaceOne(Filters.eq("_id", settings.getNodeId()), stored, new ReplaceOptions().upsert(true));
+    }
+}
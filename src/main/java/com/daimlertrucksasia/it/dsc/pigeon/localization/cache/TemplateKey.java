@@ -0,0 +1,16 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import lombok.Value;
+
+/**
+ * Identifies a single localized message template by its template id and locale tag.
+ *
+ * @author KUSHWPR
+ */
+@Value(staticConstructor = "of")
+public class TemplateKey {
+
+    String msgTemplateID;
+
+    String locale;
+}
@@ -0,0 +1,93 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over (msgTemplateID, locale) pairs.
+ * <p>
+ * {@link #mightContain(String, String)} never returns {@code false} for a pair that was {@link #put(String, String) put},
+ * and returns {@code true} for a pair that was not put with roughly the false positive rate the filter was sized
+ * for. Bits are set with atomic updates, so pairs can be added while other threads query the filter.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.bits = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+        this.bitCount = (long) bits.length() << 6;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates a filter sized for the expected number of pairs.
+     *
+     * @param expectedPairs     the number of pairs that will be put
+     * @param falsePositiveRate the accepted share of false positives, between 0 and 1
+     * @return an empty filter
+     */
+    static BloomFilter create(long expectedPairs, double falsePositiveRate) {
+        long n = Math.max(1, expectedPairs);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long bitCount = Math.max(64, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+        bitCount = Math.min(bitCount, (long) Integer.MAX_VALUE * 64);
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        return new BloomFilter(bitCount, Math.min(hashCount, 16));
+    }
+
+    void put(String msgTemplateID, String locale) {
+        long h1 = hash(msgTemplateID, locale);
+        long h2 = Long.rotateLeft(h1, 32) | 1;
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String msgTemplateID, String locale) {
+        long h1 = hash(msgTemplateID, locale);
+        long h2 = Long.rotateLeft(h1, 32) | 1;
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of bytes held by the bit array
+     */
+    long footprint() {
+        return (long) bits.length() * 8;
+    }
+
+    private static long hash(String msgTemplateID, String locale) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < msgTemplateID.length(); i++) {
+            h = (h ^ msgTemplateID.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ 0x1F) * 0x100000001b3L;
+        for (int i = 0; i < locale.length(); i++) {
+            h = (h ^ locale.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,35 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only storage of the translations of a {@link CatalogSnapshot}.
+ * <p>
+ * Implementations must be safe for concurrent reads without locking.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+interface CatalogIndex {
+
+    /**
+     * @param msgTemplateID the template id
+     * @param locale        the exact locale tag
+     * @return the stored message, or {@code null} if there is no such translation
+     */
+    String message(String msgTemplateID, String locale);
+
+    /**
+     * @return the number of translations stored
+     */
+    int size();
+
+    /**
+     * Passes every stored translation to the action, in no particular order.
+     *
+     * @param action receives the (msgTemplateID, locale) key and the message
+     */
+    void forEach(BiConsumer<TemplateKey, String> action);
+}
@@ -0,0 +1,114 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable copy of the whole message template catalog.
+ * <p>
+ * A snapshot is built once, off the request path, and never changes afterwards, so any number of threads
+ * can read it without locking. Newer catalog states are published as new snapshots by the
+ * {@link CatalogSnapshotManager}.
+ * </p>
+ * <p>
+ * A snapshot is either held on the heap in a {@link CompactCatalogStore} or backed by a memory-mapped
+ * {@link CatalogSnapshotFile}.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+
+    private final Instant createdAt;
+
+    private final CatalogIndex index;
+
+    private CatalogSnapshot(long version, Instant createdAt, CatalogIndex index) {
+        this.version = version;
+        this.createdAt = createdAt;
+        this.index = index;
+    }
+
+    /**
+     * Creates a snapshot holding a compact copy of the given messages.
+     *
+     * @param version  the version id of the snapshot
+     * @param messages the message of every (msgTemplateID, locale) pair of the catalog
+     * @return the snapshot
+     */
+    public static CatalogSnapshot of(long version, Map<TemplateKey, String> messages) {
+        CompactCatalogStore.Builder store = CompactCatalogStore.builder();
+        messages.forEach((key, message) -> store.put(key.getMsgTemplateID(), key.getLocale(), message));
+        return new CatalogSnapshot(version, Instant.now(), store.build());
+    }
+
+    static CatalogSnapshot of(long version, Instant createdAt, CatalogIndex index) {
+        return new CatalogSnapshot(version, createdAt, index);
+    }
+
+    /**
+     * Looks up the message stored for exactly this template and locale; no locale fallback is applied.
+     *
+     * @param msgTemplateID the template id
+     * @param locale        the locale tag
+     * @return the message, or {@code null} if the catalog has no such translation
+     */
+    public String message(String msgTemplateID, String locale) {
+        return index.message(msgTemplateID, locale);
+    }
+
+    /**
+     * @return the version id, increasing with every build of this instance and across restarts when snapshots
+     * are persisted
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the time the snapshot was built
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return the number of translations in the snapshot
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Compares the translations of two snapshots, ignoring their versions and creation times.
+     *
+     * @param other the snapshot to compare with, may be {@code null}
+     * @return {@code true} if both snapshots hold exactly the same messages under the same keys
+     */
+    public boolean hasSameContent(CatalogSnapshot other) {
+        if (other == null || other.size() != size()) {
+            return false;
+        }
+        boolean[] same = {true};
+        index.forEach((key, message) -> {
+            if (same[0] && !message.equals(other.message(key.getMsgTemplateID(), key.getLocale()))) {
+                same[0] = false;
+            }
+        });
+        return same[0];
+    }
+
+    /**
+     * Passes every translation of the snapshot to the action, in no particular order.
+     *
+     * @param action receives the (msgTemplateID, locale) key and the message
+     */
+    public void forEach(BiConsumer<TemplateKey, String> action) {
+        index.forEach(action);
+    }
+}
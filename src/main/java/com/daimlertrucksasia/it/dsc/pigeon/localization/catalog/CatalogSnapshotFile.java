@@ -0,0 +1,285 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file format of a persisted {@link CatalogSnapshot}.
+ * <p>
+ * The file is laid out so it can be memory-mapped and queried in place, without parsing it first:
+ * </p>
+ * <pre>
+ * header (40 bytes)  magic "PGCS", format version, snapshot version, created-at millis, entry count,
+ *                    slot count, data length, CRC32 of slot table and data
+ * slot table         slot count x (int hash, int data offset + 1); open addressing with linear probing,
+ *                    0 marks an empty slot
+ * data               per entry: int length + UTF-8 bytes of msgTemplateID, locale and message
+ * </pre>
+ * <p>
+ * All numbers are big-endian. The slot count is a power of two and at least twice the entry count, so
+ * probe sequences stay short. A file with a wrong magic, format version, length or checksum is rejected
+ * by {@link #load(Path)}.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public final class CatalogSnapshotFile {
+
+    static final int MAGIC = 0x50474353;
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int HEADER_SIZE = 40;
+
+    private static final int SLOT_SIZE = 8;
+
+    private static final int CRC_OFFSET = 36;
+
+    private CatalogSnapshotFile() {
+    }
+
+    /**
+     * Writes the snapshot to the file, replacing it atomically where the file system supports it.
+     *
+     * @param snapshot the snapshot to persist
+     * @param file     the target file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CatalogSnapshot snapshot, Path file) throws IOException {
+        List<byte[][]> entries = encode(snapshot);
+        long dataLength = 0;
+        for (byte[][] entry : entries) {
+            dataLength += 12L + entry[0].length + entry[1].length + entry[2].length;
+        }
+        int slots = slotCount(entries.size());
+        long fileLength = HEADER_SIZE + (long) slots * SLOT_SIZE + dataLength;
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot of " + fileLength + " bytes exceeds the 2 GiB file limit");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileLength);
+        int slotBase = HEADER_SIZE;
+        int dataBase = slotBase + slots * SLOT_SIZE;
+        int mask = slots - 1;
+        int position = dataBase;
+        for (byte[][] entry : entries) {
+            int hash = hash(entry[0], entry[1]);
+            int slot = hash & mask;
+            while (buffer.getInt(slotBase + slot * SLOT_SIZE + 4) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            buffer.putInt(slotBase + slot * SLOT_SIZE, hash);
+            buffer.putInt(slotBase + slot * SLOT_SIZE + 4, position - dataBase + 1);
+            for (byte[] field : entry) {
+                buffer.putInt(position, field.length);
+                buffer.put(position + 4, field);
+                position += 4 + field.length;
+            }
+        }
+
+        buffer.putInt(0, MAGIC)
+                .putInt(4, FORMAT_VERSION)
+                .putLong(8, snapshot.getVersion())
+                .putLong(16, snapshot.getCreatedAt().toEpochMilli())
+                .putInt(24, entries.size())
+                .putInt(28, slots)
+                .putInt(32, (int) dataLength)
+                .putInt(CRC_OFFSET, checksum(buffer, fileLength));
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Memory-maps a snapshot file after validating its header and checksum.
+     * <p>
+     * The returned snapshot reads the mapping in place; the file can be replaced by a later
+     * {@link #write(CatalogSnapshot, Path)} while the mapping is still in use.
+     * </p>
+     * <p>
+     * The checksum is computed over the whole mapping before the snapshot is returned, so loading reads every page
+     * of the file once, one sequential pass that also leaves the file in the page cache. That pass is the bulk of
+     * the load time for a large catalog. It is still done up front: a snapshot verified later in the background
+     * could serve corrupt templates until the check failed, while a rejected file only means a regular database
+     * build at startup.
+     * </p>
+     *
+     * @param file the snapshot file
+     * @return the snapshot backed by the mapped file
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static CatalogSnapshot load(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileLength = channel.size();
+            if (fileLength < HEADER_SIZE || fileLength > Integer.MAX_VALUE) {
+                throw new IOException("Invalid catalog snapshot length " + fileLength);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileLength);
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot file");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog snapshot format " + buffer.getInt(4));
+        }
+        int entries = buffer.getInt(24);
+        int slots = buffer.getInt(28);
+        int dataLength = buffer.getInt(32);
+        if (entries < 0 || slots <= 0 || Integer.bitCount(slots) != 1 || slots < entries || dataLength < 0
+                || HEADER_SIZE + (long) slots * SLOT_SIZE + dataLength != buffer.capacity()) {
+            throw new IOException("Inconsistent catalog snapshot header");
+        }
+        if (checksum(buffer, buffer.capacity()) != buffer.getInt(CRC_OFFSET)) {
+            throw new IOException("Catalog snapshot checksum mismatch");
+        }
+        return CatalogSnapshot.of(buffer.getLong(8), Instant.ofEpochMilli(buffer.getLong(16)),
+                new MappedIndex(buffer, entries, slots));
+    }
+
+    static int hash(byte[] msgTemplateID, byte[] locale) {
+        int hash = 1;
+        for (byte b : msgTemplateID) {
+            hash = 31 * hash + b;
+        }
+        hash = 31 * hash;
+        for (byte b : locale) {
+            hash = 31 * hash + b;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static List<byte[][]> encode(CatalogSnapshot snapshot) {
+        List<byte[][]> entries = new ArrayList<>(snapshot.size());
+        snapshot.forEach((key, message) -> entries.add(new byte[][]{
+                key.getMsgTemplateID().getBytes(StandardCharsets.UTF_8),
+                key.getLocale().getBytes(StandardCharsets.UTF_8),
+                message.getBytes(StandardCharsets.UTF_8)}));
+        return entries;
+    }
+
+    private static int slotCount(int entries) {
+        return Math.max(2, Integer.highestOneBit(Math.max(1, entries) * 2 - 1) << 1);
+    }
+
+    private static int checksum(ByteBuffer buffer, long fileLength) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_SIZE, (int) fileLength - HEADER_SIZE));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Lookups against a mapped snapshot file; reads use absolute offsets only, so the buffer is shared by all threads.
+     */
+    private static final class MappedIndex implements CatalogIndex {
+
+        private final MappedByteBuffer buffer;
+
+        private final int entries;
+
+        private final int mask;
+
+        private final int dataBase;
+
+        MappedIndex(MappedByteBuffer buffer, int entries, int slots) {
+            this.buffer = buffer;
+            this.entries = entries;
+            this.mask = slots - 1;
+            this.dataBase = HEADER_SIZE + slots * SLOT_SIZE;
+        }
+
+        @Override
+        public String message(String msgTemplateID, String locale) {
+            byte[] id = msgTemplateID.getBytes(StandardCharsets.UTF_8);
+            byte[] tag = locale.getBytes(StandardCharsets.UTF_8);
+            int hash = hash(id, tag);
+            for (int slot = hash & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                int slotOffset = HEADER_SIZE + slot * SLOT_SIZE;
+                int entry = buffer.getInt(slotOffset + 4);
+                if (entry == 0) {
+                    return null;
+                }
+                if (buffer.getInt(slotOffset) != hash) {
+                    continue;
+                }
+                int position = dataBase + entry - 1;
+                if (matches(position, id)) {
+                    position += 4 + id.length;
+                    if (matches(position, tag)) {
+                        return string(position + 4 + tag.length);
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return entries;
+        }
+
+        @Override
+        public void forEach(BiConsumer<TemplateKey, String> action) {
+            int position = dataBase;
+            for (int i = 0; i < entries; i++) {
+                String msgTemplateID = string(position);
+                position += 4 + buffer.getInt(position);
+                String locale = string(position);
+                position += 4 + buffer.getInt(position);
+                String message = string(position);
+                position += 4 + buffer.getInt(position);
+                action.accept(TemplateKey.of(msgTemplateID, locale), message);
+            }
+        }
+
+        private boolean matches(int position, byte[] expected) {
+            if (buffer.getInt(position) != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (buffer.get(position + 4 + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String string(int position) {
+            byte[] bytes = new byte[buffer.getInt(position)];
+            buffer.get(position + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
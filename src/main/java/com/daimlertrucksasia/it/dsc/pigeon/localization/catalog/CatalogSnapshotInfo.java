@@ -0,0 +1,31 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Describes the catalog snapshot currently served by this instance.
+ *
+ * @author KUSHWPR
+ */
+@Value
+@Builder
+public class CatalogSnapshotInfo {
+
+    /** Version id of the current snapshot, {@code null} if no snapshot is loaded. */
+    Long version;
+
+    /** Time the current snapshot was built. */
+    Instant createdAt;
+
+    /** Number of translations in the current snapshot. */
+    int size;
+
+    /** Version id of the snapshot a rollback would restore, {@code null} if there is none. */
+    Long previousVersion;
+
+    /** {@code true} after a rollback, until the next explicit refresh; automatic refreshes are paused meanwhile. */
+    boolean pinned;
+}
@@ -0,0 +1,321 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Holds the {@link CatalogSnapshot} that template lookups are served from.
+ * <p>
+ * Enabled by {@code localization.snapshot.enabled}. The current and the previous snapshot are held together
+ * in one {@link AtomicReference}: a refresh builds a complete new snapshot on the refresh thread and then
+ * swaps it in with a single atomic update, so readers never lock and never see a partially built catalog.
+ * The first snapshot is built before the instance reports itself ready; afterwards the snapshot is rebuilt
+ * every {@code localization.snapshot.refresh-interval} and whenever a {@link MessageTemplateChangedEvent}
+ * is published. Bursts of changes are coalesced into one rebuild.
+ * </p>
+ * <p>
+ * A rebuild that finds the catalog unchanged keeps the current snapshot, so the previous snapshot is always the
+ * last catalog that differed from the current one.
+ * </p>
+ * <p>
+ * {@link #rollback()} swaps the previous snapshot back in, e.g. after a bad template import. The restored
+ * snapshot stays pinned, i.e. automatic refreshes are paused, until an operator calls {@link #refresh()}.
+ * Every swap invalidates the {@link MessageTemplateCache}, which caches templates of the former snapshot.
+ * </p>
+ * <p>
+ * If {@code localization.snapshot.file} is set, every snapshot built from the database is also written to
+ * that {@link CatalogSnapshotFile}. At startup the file is memory-mapped and served right away, and the
+ * first database build runs in the background instead of delaying the startup; a missing or corrupt file is
+ * ignored and the startup builds from the database as usual.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CatalogSnapshotManager implements ApplicationRunner {
+
+    private record Generations(CatalogSnapshot current, CatalogSnapshot previous) {
+    }
+
+    private final AtomicReference<Generations> generations = new AtomicReference<>(new Generations(null, null));
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    private final AtomicBoolean pinned = new AtomicBoolean();
+
+    private final CompletableFuture<Void> initialBuild = new CompletableFuture<>();
+
+    /**
+     * Serializes refreshes and rollbacks. A lock rather than a monitor, so a refresh requested on a virtual thread
+     * does not pin its carrier thread while the snapshot is built from the database.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MessageTemplateCache templateCache;
+
+    private final LocalizationPropertiesConfig.Snapshot settings;
+
+    private final ScheduledExecutorService refresher;
+
+    public CatalogSnapshotManager(MongoTemplate mongoTemplate, MessageTemplateCache templateCache,
+                                  LocalizationPropertiesConfig localizationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.templateCache = templateCache;
+        this.settings = localizationProperties.getSnapshot();
+        this.refresher = settings.isEnabled()
+                ? Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("pigeon-catalog-refresh-"))
+                : null;
+    }
+
+    /**
+     * @return {@code true} if lookups are served from catalog snapshots
+     */
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * @return the snapshot lookups are served from, or {@code null} if snapshots are disabled or none was built yet
+     */
+    public CatalogSnapshot current() {
+        return generations.get().current();
+    }
+
+    /**
+     * @return the version ids and sizes of the current and previous snapshot
+     */
+    public CatalogSnapshotInfo info() {
+        Generations state = generations.get();
+        return CatalogSnapshotInfo.builder()
+                .version(state.current() != null ? state.current().getVersion() : null)
+                .createdAt(state.current() != null ? state.current().getCreatedAt() : null)
+                .size(state.current() != null ? state.current().size() : 0)
+                .previousVersion(state.previous() != null ? state.previous().getVersion() : null)
+                .pinned(pinned.get())
+                .build();
+    }
+
+    /**
+     * Returns the first build of a snapshot from the database.
+     * <p>
+     * The build runs before the instance is ready, unless a persisted snapshot is served while it runs in the
+     * background. Its swap invalidates the {@link MessageTemplateCache}, so a cache preloaded earlier is lost.
+     * </p>
+     *
+     * @return a future completing once that build completed or failed, right away if snapshots are disabled
+     */
+    public CompletableFuture<Void> initialBuild() {
+        return initialBuild;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!settings.isEnabled()) {
+            initialBuild.complete(null);
+            return;
+        }
+        if (loadPersisted()) {
+            refresher.execute(() -> {
+                try {
+                    refreshUnlessPinned();
+                } finally {
+                    initialBuild.complete(null);
+                }
+            });
+        } else {
+            try {
+                refresh();
+            } catch (RuntimeException ex) {
+                log.error("Building the initial catalog snapshot failed, serving templates from the database", ex);
+            }
+            initialBuild.complete(null);
+        }
+        long interval = settings.getRefreshInterval().toMillis();
+        if (interval > 0) {
+            refresher.scheduleWithFixedDelay(this::refreshUnlessPinned, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Builds a new snapshot from the database and makes it the current one, also releasing a pinned rollback.
+     * <p>
+     * If the catalog did not change since the current snapshot was built, the new snapshot is dropped: the current
+     * and previous snapshot stay as they are and the template cache is kept.
+     * </p>
+     *
+     * @return the new current snapshot, or the current one if the catalog is unchanged
+     */
+    public CatalogSnapshot refresh() {
+        lock.lock();
+        try {
+            if (!settings.isEnabled()) {
+                throw new IllegalStateException("Catalog snapshots are disabled (localization.snapshot.enabled)");
+            }
+            long started = System.nanoTime();
+            CatalogSnapshot snapshot = build();
+            CatalogSnapshot current = generations.get().current();
+            if (snapshot.hasSameContent(current)) {
+                // keep both generations, so a rollback still restores the last different catalog
+                pinned.set(false);
+                log.debug("Catalog unchanged after {} ms, keeping snapshot v{}", (System.nanoTime() - started) / 1_000_000,
+                        current.getVersion());
+                return current;
+            }
+            Generations previous = generations.getAndUpdate(state -> new Generations(snapshot, state.current()));
+            pinned.set(false);
+            templateCache.invalidateAll();
+            log.info("Catalog snapshot v{} with {} templates built in {} ms, replacing v{}", snapshot.getVersion(),
+                    snapshot.size(), (System.nanoTime() - started) / 1_000_000,
+                    previous.current() != null ? previous.current().getVersion() : "-");
+            persist(snapshot);
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes the previous snapshot current again and pins it until the next explicit {@link #refresh()}.
+     * <p>
+     * Rolling back twice returns to the snapshot that was current before the first rollback.
+     * </p>
+     *
+     * @return the restored snapshot
+     * @throws IllegalStateException if there is no previous snapshot
+     */
+    public CatalogSnapshot rollback() {
+        lock.lock();
+        try {
+            Generations state = generations.get();
+            if (state.previous() == null) {
+                throw new IllegalStateException("There is no previous catalog snapshot to roll back to");
+            }
+            generations.set(new Generations(state.previous(), state.current()));
+            pinned.set(true);
+            templateCache.invalidateAll();
+            log.warn("Rolled back catalog snapshot from v{} to v{}; automatic refreshes are paused until the next refresh",
+                    state.current().getVersion(), state.previous().getVersion());
+            return state.previous();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a rebuild of the snapshot after templates changed.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onTemplatesChanged(MessageTemplateChangedEvent event) {
+        if (settings.isEnabled() && refreshQueued.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshQueued.set(false);
+                refreshUnlessPinned();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    private void refreshUnlessPinned() {
+        lock.lock();
+        try {
+            if (pinned.get()) {
+                log.debug("Catalog snapshot is pinned after a rollback, skipping the automatic refresh");
+                return;
+            }
+            try {
+                refresh();
+            } catch (RuntimeException ex) {
+                log.error("Refreshing the catalog snapshot failed, keeping v{}", info().getVersion(), ex);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean loadPersisted() {
+        Path file = persistedFile();
+        if (file == null || !Files.exists(file)) {
+            return false;
+        }
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshotFile.load(file);
+            versions.accumulateAndGet(snapshot.getVersion(), Math::max);
+            generations.set(new Generations(snapshot, null));
+            log.info("Serving catalog snapshot v{} with {} templates from {} until the database build completes",
+                    snapshot.getVersion(), snapshot.size(), file);
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Ignoring catalog snapshot file {}: {}", file, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void persist(CatalogSnapshot snapshot) {
+        Path file = persistedFile();
+        if (file == null) {
+            return;
+        }
+        try {
+            CatalogSnapshotFile.write(snapshot, file);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Writing catalog snapshot v{} to {} failed: {}", snapshot.getVersion(), file, ex.getMessage());
+        }
+    }
+
+    private Path persistedFile() {
+        String file = settings.getFile();
+        return file == null || file.isBlank() ? null : Path.of(file);
+    }
+
+    private CatalogSnapshot build() {
+        Query query = new Query().cursorBatchSize(Math.max(1, settings.getCursorBatchSize()));
+        query.fields().include("msgTemplateID", "locale", "message").exclude("_id");
+        CompactCatalogStore.Builder store = CompactCatalogStore.builder();
+        try (Stream<LocalizedMessageEntity> templates = mongoTemplate.stream(query, LocalizedMessageEntity.class)) {
+            templates.filter(template -> template.getMessage() != null)
+                    .forEach(template -> store.put(template.getMsgTemplateID(), template.getLocale(), template.getMessage()));
+        }
+        return CatalogSnapshot.of(versions.incrementAndGet(), Instant.now(), store.build());
+    }
+}
@@ -0,0 +1,198 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Heap-compact, immutable storage of a whole message catalog.
+ * <p>
+ * A {@link com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity} costs several hundred
+ * bytes per translation: an object header, an {@code ObjectId} and five {@code String}s with their backing
+ * arrays. This store keeps a translation in a few primitive array slots instead:
+ * </p>
+ * <ul>
+ *   <li>template ids and locale tags are interned into {@link StringDictionary dictionaries} of small ints,
+ *   so a template id shared by twenty locales and a locale tag shared by the whole catalog are stored once;</li>
+ *   <li>a translation is keyed by the primitive pair {@code (templateId << 32 | localeId)} in an
+ *   open-addressing {@code long[]} table with linear probing;</li>
+ *   <li>all message bodies are packed UTF-8 into one {@code byte[]}, addressed by an {@code int[]} of offsets.</li>
+ * </ul>
+ * <p>
+ * Stores are created through a {@link Builder} and never change afterwards, so any number of threads can
+ * read them without locking.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public final class CompactCatalogStore implements CatalogIndex {
+
+    private static final long EMPTY = -1L;
+
+    private final StringDictionary templateIds;
+
+    private final StringDictionary locales;
+
+    private final long[] keys;
+
+    private final int[] values;
+
+    private final int[] messageOffsets;
+
+    private final byte[] messages;
+
+    private final int size;
+
+    private CompactCatalogStore(StringDictionary templateIds, StringDictionary locales, long[] keys, int[] values,
+                                int[] messageOffsets, byte[] messages, int size) {
+        this.templateIds = templateIds;
+        this.locales = locales;
+        this.keys = keys;
+        this.values = values;
+        this.messageOffsets = messageOffsets;
+        this.messages = messages;
+        this.size = size;
+    }
+
+    /**
+     * @return a builder for a new store
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String message(String msgTemplateID, String locale) {
+        int templateId = templateIds.id(msgTemplateID);
+        int localeId = templateId < 0 ? -1 : locales.id(locale);
+        if (localeId < 0) {
+            return null;
+        }
+        long key = key(templateId, localeId);
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int message = values[slot];
+                int offset = messageOffsets[message];
+                return new String(messages, offset, messageOffsets[message + 1] - offset, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(BiConsumer<TemplateKey, String> action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key != EMPTY) {
+                int message = values[slot];
+                int offset = messageOffsets[message];
+                action.accept(TemplateKey.of(templateIds.value((int) (key >>> 32)), locales.value((int) key)),
+                        new String(messages, offset, messageOffsets[message + 1] - offset, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * @return the approximate number of bytes held by the arrays of this store
+     */
+    public long footprint() {
+        return 8L * keys.length + 4L * values.length + 4L * messageOffsets.length + messages.length
+                + templateIds.footprint() + locales.footprint();
+    }
+
+    private static long key(int templateId, int localeId) {
+        return (long) templateId << 32 | (localeId & 0xFFFFFFFFL);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSize(int entries) {
+        return Math.max(2, Integer.highestOneBit(Math.max(1, entries) * 2 - 1) << 1);
+    }
+
+    /**
+     * Collects translations for a {@link CompactCatalogStore}; a later translation of the same
+     * (msgTemplateID, locale) replaces an earlier one.
+     */
+    public static final class Builder {
+
+        private final StringDictionary.Builder templateIds = new StringDictionary.Builder();
+
+        private final StringDictionary.Builder locales = new StringDictionary.Builder();
+
+        private long[] entryKeys = new long[1024];
+
+        private int[] messageOffsets = new int[1025];
+
+        private byte[] messages = new byte[16 * 1024];
+
+        private int entries;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a translation.
+         *
+         * @param msgTemplateID the template id
+         * @param locale        the locale tag
+         * @param message       the message
+         * @return this builder
+         */
+        public Builder put(String msgTemplateID, String locale, String message) {
+            byte[] body = message.getBytes(StandardCharsets.UTF_8);
+            int offset = messageOffsets[entries];
+            if ((long) offset + body.length > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Catalog messages exceed the 2 GiB limit of a compact catalog store");
+            }
+            if (entries == entryKeys.length) {
+                entryKeys = Arrays.copyOf(entryKeys, entries * 2);
+                messageOffsets = Arrays.copyOf(messageOffsets, entries * 2 + 1);
+            }
+            if (offset + body.length > messages.length) {
+                messages = Arrays.copyOf(messages, (int) Math.min(Integer.MAX_VALUE - 8,
+                        Math.max(offset + (long) body.length, messages.length * 2L)));
+            }
+            System.arraycopy(body, 0, messages, offset, body.length);
+            entryKeys[entries] = key(templateIds.intern(msgTemplateID), locales.intern(locale));
+            messageOffsets[++entries] = offset + body.length;
+            return this;
+        }
+
+        /**
+         * @return the immutable store holding all translations added so far
+         */
+        public CompactCatalogStore build() {
+            long[] keys = new long[tableSize(entries)];
+            Arrays.fill(keys, EMPTY);
+            int[] values = new int[keys.length];
+            int mask = keys.length - 1;
+            int size = 0;
+            for (int entry = 0; entry < entries; entry++) {
+                long key = entryKeys[entry];
+                int slot = mix(key) & mask;
+                while (keys[slot] != EMPTY && keys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                if (keys[slot] == EMPTY) {
+                    keys[slot] = key;
+                    size++;
+                }
+                values[slot] = entry;
+            }
+            return new CompactCatalogStore(templateIds.build(), locales.build(), keys, values,
+                    Arrays.copyOf(messageOffsets, entries + 1), Arrays.copyOf(messages, messageOffsets[entries]), size);
+        }
+    }
+}
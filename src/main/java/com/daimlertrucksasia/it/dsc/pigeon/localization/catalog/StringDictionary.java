@@ -0,0 +1,142 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable dictionary assigning dense int ids {@code 0..n-1} to distinct strings.
+ * <p>
+ * The strings are packed UTF-8 into one {@code byte[]}; an open-addressing table of ids, probed with the
+ * cached {@link String#hashCode()}, maps a string back to its id without allocating for ASCII strings.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+final class StringDictionary {
+
+    private final byte[] bytes;
+
+    private final int[] offsets;
+
+    private final int[] hashes;
+
+    /** Slot to {@code id + 1}; {@code 0} marks an empty slot. */
+    private final int[] table;
+
+    private StringDictionary(byte[] bytes, int[] offsets, int[] hashes, int[] table) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.hashes = hashes;
+        this.table = table;
+    }
+
+    /**
+     * @param value the string to look up
+     * @return the id of the string, or {@code -1} if it is not part of the dictionary
+     */
+    int id(String value) {
+        int hash = value.hashCode();
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (hashes[id] == hash && equals(id, value)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param id an id of this dictionary
+     * @return the string of the id
+     */
+    String value(int id) {
+        return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    long footprint() {
+        return bytes.length + 4L * (offsets.length + hashes.length + table.length);
+    }
+
+    private boolean equals(int id, String value) {
+        int offset = offsets[id];
+        int length = offsets[id + 1] - offset;
+        if (length == value.length()) {
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    ascii = false;
+                } else if (bytes[offset + i] != c) {
+                    return false;
+                }
+            }
+            if (ascii) {
+                return true;
+            }
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        return Arrays.equals(bytes, offset, offset + length, encoded, 0, encoded.length);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Interns strings in the order they are first seen.
+     */
+    static final class Builder {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        /**
+         * @param value the string
+         * @return the id of the string, assigning the next free id if it is new
+         */
+        int intern(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        StringDictionary build() {
+            int[] offsets = new int[values.size() + 1];
+            int[] hashes = new int[values.size()];
+            int[] table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, values.size()) * 2 - 1) << 1)];
+            int mask = table.length - 1;
+            byte[][] encoded = new byte[values.size()][];
+            long length = 0;
+            for (int id = 0; id < values.size(); id++) {
+                String value = values.get(id);
+                encoded[id] = value.getBytes(StandardCharsets.UTF_8);
+                length += encoded[id].length;
+                hashes[id] = value.hashCode();
+                int slot = spread(hashes[id]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = id + 1;
+            }
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Dictionary strings exceed the 2 GiB limit");
+            }
+            byte[] bytes = new byte[(int) length];
+            for (int id = 0; id < encoded.length; id++) {
+                System.arraycopy(encoded[id], 0, bytes, offsets[id], encoded[id].length);
+                offsets[id + 1] = offsets[id] + encoded[id].length;
+            }
+            return new StringDictionary(bytes, offsets, hashes, table);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Rejects lookups of templates that do not exist without querying the database.
+ * <p>
+ * Enabled by {@code localization.existence-filter.enabled}. A {@link BloomFilter} over every (msgTemplateID, locale)
+ * pair of the {@code Localized_Message} collection is built in the background after startup and rebuilt every
+ * {@code localization.existence-filter.rebuild-interval}. A lookup none of whose fallback locales is in the filter
+ * definitely has no translation, so misspelled or retired template ids sent by upstream services cost no query.
+ * Until the first build completes, and if a build fails, every lookup is let through.
+ * </p>
+ * <p>
+ * Templates reported by a {@link MessageTemplateChangedEvent} are let through until the next rebuild has added
+ * them to the filter, so a newly created template is found right away.
+ * </p>
+ * <p>
+ * Templates created through another instance are only reported by the change stream, so the filter requires
+ * {@code localization.change-stream.enabled}; without it such a template would be rejected until the next rebuild,
+ * i.e. for up to {@code rebuild-interval} instead of at most the {@code negative-ttl} of a cached miss. Enabling the
+ * filter without the change stream fails the startup.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+public class TemplateExistenceFilter implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final LocalizationPropertiesConfig.ExistenceFilter settings;
+
+    private final ScheduledExecutorService rebuilder;
+
+    private final LongAdder rejections = new LongAdder();
+
+    private volatile BloomFilter filter;
+
+    private volatile Set<String> changedTemplates = ConcurrentHashMap.newKeySet();
+
+    private volatile Set<String> changedBeforeRebuild = Set.of();
+
+    public TemplateExistenceFilter(MongoTemplate mongoTemplate, LocalizationPropertiesConfig localizationProperties,
+                                   MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.settings = localizationProperties.getExistenceFilter();
+        if (settings.isEnabled() && !localizationProperties.getChangeStream().isEnabled()) {
+            throw new IllegalStateException("localization.existence-filter.enabled requires localization.change-stream.enabled, "
+                    + "otherwise templates created through other instances are rejected until the next rebuild");
+        }
+        this.rebuilder = settings.isEnabled()
+                ? Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("pigeon-existence-filter-"))
+                : null;
+        FunctionCounter.builder("pigeon.localization.existence.filter.rejections", rejections, LongAdder::sum)
+                .description("Template lookups answered as not found by the existence filter without a database query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether a template may have a translation in any of the given locales.
+     *
+     * @param msgTemplateID the template id
+     * @param locales       the candidate locale tags
+     * @return {@code false} only if the template definitely has no translation in any of the locales
+     */
+    public boolean mightExist(String msgTemplateID, Collection<String> locales) {
+        BloomFilter current = filter;
+        if (current == null || changedTemplates.contains(msgTemplateID) || changedBeforeRebuild.contains(msgTemplateID)) {
+            return true;
+        }
+        for (String locale : locales) {
+            if (current.mightContain(msgTemplateID, locale)) {
+                return true;
+            }
+        }
+        rejections.increment();
+        return false;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        long interval = settings.getRebuildInterval().toMillis();
+        if (interval > 0) {
+            rebuilder.scheduleWithFixedDelay(this::rebuild, 0, interval, TimeUnit.MILLISECONDS);
+        } else {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Lets lookups of changed templates through until they were added to the filter by the next rebuild.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onTemplatesChanged(MessageTemplateChangedEvent event) {
+        if (settings.isEnabled()) {
+            changedTemplates.addAll(event.getMsgTemplateIDs());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        changedBeforeRebuild = changedTemplates;
+        changedTemplates = ConcurrentHashMap.newKeySet();
+        try {
+            long expected = Math.max(1_024, mongoTemplate.estimatedCount(LocalizedMessageEntity.class) * 11 / 10);
+            BloomFilter rebuilt = BloomFilter.create(expected, settings.getFalsePositiveRate());
+            Query query = new Query().cursorBatchSize(1_000);
+            query.fields().include("msgTemplateID", "locale").exclude("_id");
+            long pairs = 0;
+            try (Stream<LocalizedMessageEntity> templates = mongoTemplate.stream(query, LocalizedMessageEntity.class)) {
+                Iterator<LocalizedMessageEntity> iterator = templates.iterator();
+                while (iterator.hasNext()) {
+                    LocalizedMessageEntity template = iterator.next();
+                    if (template.getMsgTemplateID() != null && template.getLocale() != null) {
+                        rebuilt.put(template.getMsgTemplateID(), template.getLocale());
+                        pairs++;
+                    }
+                }
+            }
+            filter = rebuilt;
+            changedBeforeRebuild = Set.of();
+            log.info("Template existence filter rebuilt with {} templates ({} KiB) in {} ms", pairs,
+                    rebuilt.footprint() / 1024, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            changedTemplates.addAll(changedBeforeRebuild);
+            changedBeforeRebuild = Set.of();
+            log.warn("Rebuilding the template existence filter failed, keeping the previous filter: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.config;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageBatchLoader;
+import io.leangen.graphql.spqr.spring.autoconfigure.DataLoaderRegistryFactory;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the GraphQL data loaders.
+ * <p>
+ * SPQR asks the {@link DataLoaderRegistryFactory} for a new registry for every GraphQL operation, so the
+ * loaders batch and de-duplicate the lookups of one operation and never share results across requests.
+ * </p>
+ */
+@Configuration
+public class DataLoaderConfig {
+
+    /**
+     * Defines the factory creating the per-operation {@link DataLoaderRegistry}.
+     *
+     * @param messageBatchLoader the batch function resolving localized messages
+     * @return a factory registering the {@value MessageBatchLoader#NAME} data loader
+     */
+    @Bean
+    public DataLoaderRegistryFactory dataLoaderRegistryFactory(MessageBatchLoader messageBatchLoader) {
+        return () -> DataLoaderRegistry.newRegistry()
+                .register(MessageBatchLoader.NAME, DataLoaderFactory.newDataLoaderWithTry(messageBatchLoader))
+                .build();
+    }
+}
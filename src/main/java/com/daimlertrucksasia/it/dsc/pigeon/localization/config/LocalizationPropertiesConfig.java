@@ -0,0 +1,331 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties holder for localization settings under the prefix
+ * {@code localization}.
+ *
+ * <p>The properties include:</p>
+ * <ul>
+ *   <li>{@code defaultLocale} - Locale used when no translation exists for the requested locale.</li>
+ *   <li>{@code cache} - Settings of the in-process message template cache.</li>
+ *   <li>{@code outputCache} - Settings of the cache of fully formatted messages.</li>
+ *   <li>{@code bulkImport} - Settings of the bulk template import.</li>
+ *   <li>{@code warmUp} - Settings of the template preload at startup.</li>
+ *   <li>{@code changeStream} - Settings of the cluster-wide cache invalidation.</li>
+ *   <li>{@code snapshot} - Settings of the in-memory catalog snapshot.</li>
+ *   <li>{@code existenceFilter} - Settings of the filter rejecting lookups of unknown templates.</li>
+ *   <li>{@code readPath} - Whether GraphQL lookups query the database with the blocking or the reactive driver.</li>
+ * </ul>
+ *
+ * <p>Example properties in {@code application.yaml} that bind to this class:</p>
+ * <pre>{@code
+ * localization:
+ *   default-locale: en
+ *   cache:
+ *     enabled: true
+ *     maximum-size: 10000
+ *     ttl: 10m
+ *     negative-ttl: 1m
+ *     load-timeout: 5s
+ *   output-cache:
+ *     enabled: false
+ *     maximum-size: 10000
+ *     max-arg-length: 64
+ *     min-hit-ratio: 0.2
+ *     sample-size: 1000
+ *   bulk-import:
+ *     chunk-size: 1000
+ *   warm-up:
+ *     enabled: false
+ *     service-consumer-ids: []
+ *     locales: []
+ *     cursor-batch-size: 1000
+ *   change-stream:
+ *     enabled: false
+ *     node-id: pigeon-1
+ *   snapshot:
+ *     enabled: false
+ *     refresh-interval: 5m
+ *     file: /var/lib/pigeon/catalog.snapshot
+ *   existence-filter:
+ *     enabled: false
+ *     false-positive-rate: 0.01
+ *     rebuild-interval: 10m
+ *   read-path: blocking
+ * }</pre>
+ *
+ * @author KUSHWPR
+ */
+@Configuration
+@ConfigurationProperties(prefix = "localization")
+@Getter
+@Setter
+public class LocalizationPropertiesConfig {
+
+    /**
+     * Locale tag used as the last fallback when resolving a message template.
+     */
+    private String defaultLocale = "en";
+
+    /**
+     * Settings of the in-process message template cache.
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * Settings of the cache of fully formatted messages.
+     */
+    private OutputCache outputCache = new OutputCache();
+
+    /**
+     * Settings of the bulk template import.
+     */
+    private BulkImport bulkImport = new BulkImport();
+
+    /**
+     * Settings of the template preload at startup.
+     */
+    private WarmUp warmUp = new WarmUp();
+
+    /**
+     * Settings of the cluster-wide cache invalidation.
+     */
+    private ChangeStream changeStream = new ChangeStream();
+
+    /**
+     * Settings of the in-memory catalog snapshot.
+     */
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Settings of the filter rejecting lookups of unknown templates.
+     */
+    private ExistenceFilter existenceFilter = new ExistenceFilter();
+
+    /**
+     * Driver the batched GraphQL lookups query the database with.
+     */
+    private ReadPath readPath = ReadPath.BLOCKING;
+
+    /**
+     * Settings of the bounded template cache placed in front of the database message source.
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Whether resolved templates are cached in-process at all.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of (msgTemplateID, locale) entries held; the least recently used entry
+         * is evicted once the limit is reached.
+         */
+        private int maximumSize = 10_000;
+
+        /**
+         * Time a resolved template stays cached after it was loaded.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Time a "not found" result stays cached, so unknown templates do not hit the database on every call.
+         */
+        private Duration negativeTtl = Duration.ofMinutes(1);
+
+        /**
+         * Time a caller waits for another caller's in-flight load of the same template before loading it
+         * itself.
+         */
+        private Duration loadTimeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Settings of the second-tier cache holding fully formatted messages per (template, locale, arguments).
+     */
+    @Getter
+    @Setter
+    public static class OutputCache {
+
+        /**
+         * Whether formatted messages are cached; repeated resolutions then cost one map lookup.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of formatted messages held; the least recently used one is evicted once the limit is reached.
+         */
+        private int maximumSize = 10_000;
+
+        /**
+         * Messages with a string argument longer than this are not cached, as such arguments rarely repeat.
+         */
+        private int maxArgLength = 64;
+
+        /**
+         * A template whose formatted messages are hit less often than this is bypassed for the next
+         * {@code sample-size} resolutions.
+         */
+        private double minHitRatio = 0.2;
+
+        /**
+         * Number of resolutions of a template after which its hit ratio is evaluated.
+         */
+        private int sampleSize = 1_000;
+    }
+
+    /**
+     * Settings of the bulk template import.
+     */
+    @Getter
+    @Setter
+    public static class BulkImport {
+
+        /**
+         * Number of templates written with one unordered bulk operation.
+         */
+        private int chunkSize = 1_000;
+    }
+
+    /**
+     * Settings of the template preload run before the instance reports itself ready.
+     */
+    @Getter
+    @Setter
+    public static class WarmUp {
+
+        /**
+         * Whether templates are loaded into the template cache at startup.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Only templates of these service consumers are preloaded; all if empty.
+         */
+        private List<String> serviceConsumerIds = new ArrayList<>();
+
+        /**
+         * Only templates of these locale tags are preloaded; all if empty.
+         */
+        private List<String> locales = new ArrayList<>();
+
+        /**
+         * Number of documents fetched per cursor round trip.
+         */
+        private int cursorBatchSize = 1_000;
+    }
+
+    /**
+     * Settings of the MongoDB change stream evicting templates changed by any instance.
+     */
+    @Getter
+    @Setter
+    public static class ChangeStream {
+
+        /**
+         * Whether this instance watches the template collection; requires MongoDB to run as a replica set.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Identifies this instance's resume token, so a restarted instance continues where it stopped.
+         */
+        private String nodeId = "pigeon";
+
+        /**
+         * Collection holding the resume token of every instance.
+         */
+        private String resumeTokenCollection = "Localized_Message_Resume_Token";
+
+        /**
+         * Minimum time between two saves of the resume token while no template changes.
+         */
+        private Duration tokenSaveInterval = Duration.ofSeconds(10);
+
+        /**
+         * Time to wait before reopening the change stream after an error.
+         */
+        private Duration retryBackoff = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Settings of the immutable in-memory copy of the catalog that template lookups are served from.
+     */
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        /**
+         * Whether the whole catalog is held in memory; lookups then never query the database.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Time between two periodic rebuilds of the snapshot; {@code 0} rebuilds only when templates change.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * Number of documents fetched per cursor round trip while building a snapshot.
+         */
+        private int cursorBatchSize = 1_000;
+
+        /**
+         * Local file every snapshot is persisted to and that is memory-mapped at startup, so lookups are served
+         * before MongoDB is reachable; blank disables persistence.
+         */
+        private String file;
+    }
+
+    /**
+     * Settings of the in-memory Bloom filter over all (msgTemplateID, locale) pairs of the catalog.
+     */
+    @Getter
+    @Setter
+    public static class ExistenceFilter {
+
+        /**
+         * Whether lookups of templates the filter has definitely never seen skip the database; requires
+         * {@code localization.change-stream.enabled}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Share of lookups for unknown templates that still reach the database; lower values need more memory.
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * Time between two rebuilds of the filter from the database, which also forgets deleted templates.
+         */
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+    }
+
+    /**
+     * How the batched GraphQL lookups of templates missing from the cache reach the database.
+     */
+    public enum ReadPath {
+
+        /**
+         * Query with the blocking repository on the thread executing the GraphQL request.
+         */
+        BLOCKING,
+
+        /**
+         * Query with the reactive repository; the request thread is released while the database answers and the
+         * data fetchers complete on the driver's threads.
+         */
+        REACTIVE
+    }
+}
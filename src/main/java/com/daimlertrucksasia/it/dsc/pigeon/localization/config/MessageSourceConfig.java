@@ -1,6 +1,14 @@
 package com.daimlertrucksasia.it.dsc.pigeon.localization.config;
 
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.FormattedMessageCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.SingleFlight;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
 import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.LocaleFallbackResolver;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,25 +18,132 @@ import org.springframework.context.annotation.Configuration;
  * <p>
  * This configuration provides a {@link MessageSource} implementation that retrieves localized messages
  * from a database using a custom {@code DatabaseMessageSource}.
- * The message retrieval is backed by a {@link MessageRepository} which abstracts access to the data source.
+ * The message retrieval is backed by the {@link LocaleFallbackResolver}, which reads the {@link MessageRepository},
+ * fronted by a {@link MessageTemplateCache} that keeps recently resolved templates in memory and a
+ * {@link SingleFlight} that lets concurrent cache misses of the same template share one database load.
+ * An optional {@link FormattedMessageCache} in front of both answers repeated resolutions with the same
+ * arguments without formatting them again.
  */
 @Configuration
 @SuppressWarnings("All")
 public class MessageSourceConfig {
 
+    /**
+     * Defines the in-process {@link MessageTemplateCache} shared by the database backed message sources.
+     * <p>
+     * Publishes the {@code pigeon.localization.template.cache.hits}, {@code .negative.hits}, {@code .misses},
+     * {@code .evictions} and {@code .expirations} counters and the {@code pigeon.localization.template.cache.size} gauge.
+     * </p>
+     *
+     * @param localizationProperties the localization settings holding the {@code localization.cache.*} properties
+     * @param meterRegistry          the registry the metrics are published to
+     * @return a cache bounded by size and time-to-live
+     */
+    @Bean
+    public MessageTemplateCache messageTemplateCache(LocalizationPropertiesConfig localizationProperties,
+                                                     MeterRegistry meterRegistry) {
+        MessageTemplateCache cache = new MessageTemplateCache(localizationProperties.getCache());
+        FunctionCounter.builder("pigeon.localization.template.cache.hits", cache, c -> c.stats().getHits())
+                .description("Template lookups answered with a cached template")
+                .register(meterRegistry);
+        FunctionCounter.builder("pigeon.localization.template.cache.negative.hits", cache, c -> c.stats().getNegativeHits())
+                .description("Template lookups answered with a cached \"not found\" entry")
+                .register(meterRegistry);
+        FunctionCounter.builder("pigeon.localization.template.cache.misses", cache, c -> c.stats().getMisses())
+                .description("Template lookups that had to go to the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("pigeon.localization.template.cache.evictions", cache, c -> c.stats().getEvictions())
+                .description("Cached templates dropped because the cache reached its maximum size")
+                .register(meterRegistry);
+        FunctionCounter.builder("pigeon.localization.template.cache.expirations", cache, c -> c.stats().getExpirations())
+                .description("Cached templates dropped because their time-to-live elapsed")
+                .register(meterRegistry);
+        Gauge.builder("pigeon.localization.template.cache.size", cache, c -> c.stats().getSize())
+                .description("Templates and \"not found\" entries currently cached")
+                .register(meterRegistry);
+        return cache;
+    }
+
+    /**
+     * Defines the {@link SingleFlight} coalescing concurrent template loads of the database backed message sources.
+     * <p>
+     * Publishes the {@code pigeon.localization.template.load.coalesced} and
+     * {@code pigeon.localization.template.load.timeouts} counters.
+     * </p>
+     *
+     * @param localizationProperties the localization settings holding {@code localization.cache.load-timeout}
+     * @param meterRegistry          the registry the counters are published to
+     * @return a single-flight keyed by (msgTemplateID, locale)
+     */
+    @Bean
+    public SingleFlight<TemplateKey, MessageTemplateCache.Entry> templateLoadSingleFlight(
+            LocalizationPropertiesConfig localizationProperties, MeterRegistry meterRegistry) {
+        SingleFlight<TemplateKey, MessageTemplateCache.Entry> singleFlight =
+                new SingleFlight<>(localizationProperties.getCache().getLoadTimeout());
+        FunctionCounter.builder("pigeon.localization.template.load.coalesced", singleFlight, SingleFlight::coalescedCount)
+                .description("Template lookups served by another caller's in-flight database load")
+                .register(meterRegistry);
+        FunctionCounter.builder("pigeon.localization.template.load.timeouts", singleFlight, SingleFlight::timeoutCount)
+                .description("Template lookups that stopped waiting for another caller's load and loaded themselves")
+                .register(meterRegistry);
+        return singleFlight;
+    }
+
+    /**
+     * Defines the {@link FormattedMessageCache} of fully formatted messages shared by the database backed message sources.
+     * <p>
+     * Publishes the {@code pigeon.localization.output.cache.hits}, {@code .misses} and {@code .bypassed}
+     * counters and the {@code pigeon.localization.output.cache.hit.ratio} and {@code .size} gauges.
+     * </p>
+     *
+     * @param localizationProperties the localization settings holding the {@code localization.output-cache.*} properties
+     * @param messageTemplateCache   the template cache whose invalidations drop formatted messages
+     * @param meterRegistry          the registry the metrics are published to
+     * @return a cache bounded by size, disabled unless {@code localization.output-cache.enabled} is set
+     */
+    @Bean
+    public FormattedMessageCache formattedMessageCache(LocalizationPropertiesConfig localizationProperties,
+                                                       MessageTemplateCache messageTemplateCache, MeterRegistry meterRegistry) {
+        FormattedMessageCache cache = new FormattedMessageCache(localizationProperties, messageTemplateCache);
+        FunctionCounter.builder("pigeon.localization.output.cache.hits", cache, FormattedMessageCache::hitCount)
+                .description("Message resolutions answered with a cached formatted message")
+                .register(meterRegistry);
+        FunctionCounter.builder("pigeon.localization.output.cache.misses", cache, FormattedMessageCache::missCount)
+                .description("Cacheable message resolutions that had to format the message")
+                .register(meterRegistry);
+        FunctionCounter.builder("pigeon.localization.output.cache.bypassed", cache, FormattedMessageCache::bypassCount)
+                .description("Message resolutions that skipped the cache because their template's hit ratio was too low")
+                .register(meterRegistry);
+        Gauge.builder("pigeon.localization.output.cache.hit.ratio", cache, FormattedMessageCache::hitRatio)
+                .description("Share of cacheable message resolutions answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("pigeon.localization.output.cache.size", cache, FormattedMessageCache::size)
+                .description("Formatted messages currently cached")
+                .register(meterRegistry);
+        return cache;
+    }
+
     /**
      * Defines a {@link MessageSource} bean that fetches localized messages from a database.
      * <p>
      * This bean enables Spring's i18n framework to resolve messages dynamically from the database
      * instead of traditional property files.
      *
-     * @param messageRepository the repository used to access localized message records from the database
+     * @param messageTemplateCache the cache holding recently resolved templates
+     * @param fallbackResolver     resolves a template along the locale fallback chain in one query
+     * @param singleFlight         coalesces concurrent loads of the same template
+     * @param outputCache          caches fully formatted messages
      * @return a configured {@link MessageSource} backed by {@code DatabaseMessageSource}
      */
     @Bean
-    public MessageSource messageSource(MessageRepository messageRepository) {
+    public MessageSource messageSource(MessageTemplateCache messageTemplateCache, LocaleFallbackResolver fallbackResolver,
+                                       SingleFlight<TemplateKey, MessageTemplateCache.Entry> singleFlight,
+                                       FormattedMessageCache outputCache) {
         return com.daimlertrucksasia.it.dsc.pigeon.localization.service.DatabaseMessageSource.builder()
-                .messageRepository(messageRepository)
+                .templateCache(messageTemplateCache)
+                .fallbackResolver(fallbackResolver)
+                .singleFlight(singleFlight)
+                .outputCache(outputCache)
                 .build();
     }
 }
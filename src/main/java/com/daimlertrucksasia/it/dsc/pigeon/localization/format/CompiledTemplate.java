@@ -0,0 +1,332 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.format;
+
+import java.text.ChoiceFormat;
+import java.text.DateFormat;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A message template parsed once into an immutable form that any number of threads can format concurrently.
+ * <p>
+ * Templates use the {@link MessageFormat} pattern syntax and produce the same output: literal text with
+ * {@code '} quoting, {@code {0}} placeholders and the {@code number}, {@code date} and {@code time} format
+ * types with their styles and sub-patterns. A placeholder without an argument is written as {@code {n}}, a
+ * {@code null} argument as {@code null}, and untyped numbers and dates use the locale's default formats.
+ * </p>
+ * <p>
+ * Unlike a shared {@code MessageFormat}, formatting takes no lock and does not re-parse anything. Literal
+ * text and {@code String} arguments are appended to a per-thread buffer that is reused across calls, and
+ * small integers are appended without a {@code NumberFormat} where the locale writes them as plain ASCII
+ * digits. The {@code Format} objects of typed placeholders are cloned once per thread into a per-thread cache
+ * shared by all templates, so templates using equal formats share one copy and a template holds no per-thread
+ * state of its own.
+ * </p>
+ * <p>
+ * Templates using the {@code choice} format type, whose results may contain nested placeholders, are
+ * formatted by a per-thread copy of a {@code MessageFormat} from the same cache instead, so no caller ever waits
+ * on a monitor.
+ * </p>
+ * <p>
+ * On long-lived threads, such as the Kafka worker lanes, the per-thread state is built once. A virtual thread
+ * serving a single request or record builds its own, which costs a buffer and a clone of each typed format it uses.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+public final class CompiledTemplate {
+
+    private static final int MAX_RETAINED_BUFFER = 8 * 1024;
+
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private static final ThreadLocal<Map<Locale, Format[]>> DEFAULT_FORMATS = ThreadLocal.withInitial(HashMap::new);
+
+    /** Upper bound of the formats copied per thread; the copies are dropped and recreated on demand beyond it. */
+    private static final int MAX_THREAD_FORMATS = 256;
+
+    /** The copy of every format prototype used on this thread, keyed by the equal prototype. */
+    private static final ThreadLocal<Map<Format, Format>> THREAD_FORMATS = ThreadLocal.withInitial(HashMap::new);
+
+    private static final Map<Locale, Boolean> PLAIN_INTEGERS = new ConcurrentHashMap<>();
+
+    private final String pattern;
+
+    private final Locale locale;
+
+    private final String[] literals;
+
+    private final int[] arguments;
+
+    /** The prototype of every typed placeholder, never formatted with directly. */
+    private final Format[] formats;
+
+    private final boolean plainIntegers;
+
+    /** The prototype formatting templates with a choice format, never formatted with directly. */
+    private final MessageFormat fallback;
+
+    private volatile MessageFormat messageFormat;
+
+    private CompiledTemplate(String pattern, Locale locale, String[] literals, int[] arguments,
+                             Format[] formats, MessageFormat fallback) {
+        this.pattern = pattern;
+        this.locale = locale;
+        this.literals = literals;
+        this.arguments = arguments;
+        this.formats = formats;
+        this.plainIntegers = PLAIN_INTEGERS.computeIfAbsent(locale, CompiledTemplate::formatsIntegersPlainly);
+        this.fallback = fallback;
+    }
+
+    /**
+     * Parses a template.
+     *
+     * @param pattern the template in {@link MessageFormat} syntax
+     * @param locale  the locale numbers and dates are formatted for
+     * @return the compiled template
+     * @throws IllegalArgumentException if the pattern is invalid, exactly as {@link MessageFormat} would
+     */
+    public static CompiledTemplate compile(String pattern, Locale locale) {
+        MessageFormat validated = new MessageFormat(pattern, locale);
+        Format[] subformats = validated.getFormats();
+        for (Format subformat : subformats) {
+            if (subformat instanceof ChoiceFormat) {
+                return new CompiledTemplate(pattern, locale, null, null, null, validated);
+            }
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        parse(pattern, literals, arguments);
+        return new CompiledTemplate(pattern, locale, literals.toArray(String[]::new),
+                arguments.stream().mapToInt(Integer::intValue).toArray(), Arrays.copyOf(subformats, arguments.size()), null);
+    }
+
+    /**
+     * Creates a template without placeholders that formats to the given text as is.
+     * <p>
+     * Unlike {@link #compile(String, Locale)} the text is not parsed, so it may contain quotes and braces.
+     * </p>
+     *
+     * @param text   the text of the template
+     * @param locale the locale of the template
+     * @return the template
+     */
+    public static CompiledTemplate ofText(String text, Locale locale) {
+        String pattern = text.isEmpty() ? text : "'" + text.replace("'", "''") + "'";
+        return new CompiledTemplate(pattern, locale, new String[]{text}, new int[0], new Format[0], null);
+    }
+
+    /**
+     * Formats the template.
+     *
+     * @param args the arguments of the placeholders, may be {@code null}
+     * @return the formatted message
+     */
+    public String format(Object[] args) {
+        if (fallback != null) {
+            return threadCopy(fallback).format(args);
+        }
+        if (arguments.length == 0) {
+            return literals[0];
+        }
+        Buffer buffer = BUFFER.get();
+        if (buffer.inUse) {
+            // an argument's toString() is formatting another template on this thread
+            StringBuilder out = new StringBuilder(64);
+            formatTo(args, out);
+            return out.toString();
+        }
+        buffer.inUse = true;
+        try {
+            StringBuilder out = buffer.builder;
+            out.setLength(0);
+            formatTo(args, out);
+            String message = out.toString();
+            if (out.capacity() > MAX_RETAINED_BUFFER) {
+                buffer.builder = new StringBuilder(256);
+            }
+            return message;
+        } finally {
+            buffer.inUse = false;
+        }
+    }
+
+    /**
+     * Formats the template into the given buffer.
+     *
+     * @param args the arguments of the placeholders, may be {@code null}
+     * @param out  the buffer the message is appended to
+     */
+    public void formatTo(Object[] args, StringBuilder out) {
+        if (fallback != null) {
+            out.append(format(args));
+            return;
+        }
+        out.append(literals[0]);
+        for (int i = 0; i < arguments.length; i++) {
+            appendArgument(i, args, out);
+            out.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Returns an equivalent {@link MessageFormat} for APIs that require one.
+     * <p>
+     * The instance is created on first use and shared; callers must synchronize on it while formatting.
+     * </p>
+     *
+     * @return the message format of this template
+     */
+    public MessageFormat toMessageFormat() {
+        MessageFormat format = messageFormat;
+        if (format == null) {
+            format = new MessageFormat(pattern, locale);
+            messageFormat = format;
+        }
+        return format;
+    }
+
+    /**
+     * @return the template in {@link MessageFormat} syntax
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the locale numbers and dates are formatted for
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    private void appendArgument(int element, Object[] args, StringBuilder out) {
+        int argument = arguments[element];
+        if (args == null || argument >= args.length) {
+            out.append('{').append(argument).append('}');
+            return;
+        }
+        Object arg = args[argument];
+        if (arg == null) {
+            out.append("null");
+        } else if (formats[element] != null) {
+            out.append(threadCopy(formats[element]).format(arg));
+        } else if (arg instanceof String string) {
+            out.append(string);
+        } else if (arg instanceof Number number) {
+            if (plainIntegers && isSmallInteger(number)) {
+                out.append(number.longValue());
+            } else {
+                out.append(defaultFormats()[0].format(number));
+            }
+        } else if (arg instanceof Date date) {
+            out.append(defaultFormats()[1].format(date));
+        } else {
+            out.append(arg);
+        }
+    }
+
+    private Format[] defaultFormats() {
+        return DEFAULT_FORMATS.get().computeIfAbsent(locale, l -> new Format[]{
+                NumberFormat.getInstance(l), DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, l)});
+    }
+
+    /**
+     * Returns this thread's copy of a format, as {@code Format} instances are not thread-safe.
+     */
+    @SuppressWarnings("unchecked")
+    private static <F extends Format> F threadCopy(F prototype) {
+        Map<Format, Format> copies = THREAD_FORMATS.get();
+        Format copy = copies.get(prototype);
+        if (copy == null) {
+            if (copies.size() >= MAX_THREAD_FORMATS) {
+                copies.clear();
+            }
+            copy = (Format) prototype.clone();
+            copies.put(prototype, copy);
+        }
+        return (F) copy;
+    }
+
+    private static boolean isSmallInteger(Number number) {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            long value = number.longValue();
+            return value > -1000 && value < 1000;
+        }
+        return false;
+    }
+
+    private static boolean formatsIntegersPlainly(Locale locale) {
+        NumberFormat format = NumberFormat.getInstance(locale);
+        return "-999".equals(format.format(-999)) && "999".equals(format.format(999)) && "0".equals(format.format(0));
+    }
+
+    /**
+     * Splits a pattern into literal text and argument indexes, following the rules of
+     * {@link MessageFormat#applyPattern(String)}; the pattern has already been validated by it.
+     */
+    private static void parse(String pattern, List<String> literals, List<Integer> arguments) {
+        StringBuilder literal = new StringBuilder();
+        StringBuilder index = new StringBuilder();
+        boolean inQuote = false;
+        boolean inElement = false;
+        boolean inIndex = false;
+        int braces = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char ch = pattern.charAt(i);
+            if (!inElement) {
+                if (ch == '\'') {
+                    if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                        literal.append(ch);
+                        i++;
+                    } else {
+                        inQuote = !inQuote;
+                    }
+                } else if (ch == '{' && !inQuote) {
+                    inElement = true;
+                    inIndex = true;
+                    index.setLength(0);
+                } else {
+                    literal.append(ch);
+                }
+            } else if (inQuote) {
+                inQuote = ch != '\'';
+            } else if (ch == ',') {
+                inIndex = false;
+            } else if (ch == '{') {
+                braces++;
+            } else if (ch == '}') {
+                if (braces == 0) {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    arguments.add(Integer.parseInt(index.toString().trim()));
+                    inElement = false;
+                } else {
+                    braces--;
+                }
+            } else if (ch == '\'') {
+                inQuote = true;
+            } else if (inIndex) {
+                index.append(ch);
+            }
+        }
+        literals.add(literal.toString());
+    }
+
+    private static final class Buffer {
+
+        private StringBuilder builder = new StringBuilder(256);
+
+        private boolean inUse;
+    }
+}
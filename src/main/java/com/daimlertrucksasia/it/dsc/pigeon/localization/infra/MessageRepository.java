@@ -6,10 +6,35 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface MessageRepository extends MongoRepository<LocalizedMessageEntity,Long> {
 
     @Query(value = "{ 'msgTemplateID': ?0, 'locale': ?1 }", fields = "{ 'message': 1, '_id': 0 }")
     LocalizedMessageEntity findMessageByCodeAndLocale(String msgTemplateID, String locale);
 
+    /**
+     * Fetches the translations of one template for several locales in a single query, served by the
+     * {@code msg_locale_unique_idx} index.
+     *
+     * @param msgTemplateID the template id
+     * @param locales       the candidate locale tags
+     * @return the translations found, in no particular order
+     */
+    @Query(value = "{ 'msgTemplateID': ?0, 'locale': { '$in': ?1 } }", fields = "{ 'locale': 1, 'message': 1, '_id': 0 }")
+    List<LocalizedMessageEntity> findMessagesByCodeAndLocaleIn(String msgTemplateID, Collection<String> locales);
+
+    /**
+     * Fetches the translations of several templates for several locales in a single query, served by the
+     * {@code msg_locale_unique_idx} index.
+     *
+     * @param msgTemplateIDs the template ids
+     * @param locales        the candidate locale tags
+     * @return the translations found, in no particular order
+     */
+    @Query(value = "{ 'msgTemplateID': { '$in': ?0 }, 'locale': { '$in': ?1 } }", fields = "{ 'msgTemplateID': 1, 'locale': 1, 'message': 1, '_id': 0 }")
+    List<LocalizedMessageEntity> findMessagesByCodeInAndLocaleIn(Collection<String> msgTemplateIDs, Collection<String> locales);
+
 }
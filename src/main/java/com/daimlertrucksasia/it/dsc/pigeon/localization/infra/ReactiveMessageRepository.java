@@ -0,0 +1,32 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.infra;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterpart of the finder queries of {@link MessageRepository}, used when
+ * {@code localization.read-path} is {@code reactive}.
+ *
+ * @author KUSHWPR
+ */
+@Repository
+public interface ReactiveMessageRepository extends ReactiveMongoRepository<LocalizedMessageEntity, ObjectId> {
+
+    /**
+     * Fetches the translations of several templates for several locales in a single query, served by the
+     * {@code msg_locale_unique_idx} index.
+     *
+     * @param msgTemplateIDs the template ids
+     * @param locales        the candidate locale tags
+     * @return the translations found, in no particular order
+     */
+    @Query(value = "{ 'msgTemplateID': { '$in': ?0 }, 'locale': { '$in': ?1 } }", fields = "{ 'msgTemplateID': 1, 'locale': 1, 'message': 1, '_id': 0 }")
+    Flux<LocalizedMessageEntity> findMessagesByCodeInAndLocaleIn(Collection<String> msgTemplateIDs, Collection<String> locales);
+
+}
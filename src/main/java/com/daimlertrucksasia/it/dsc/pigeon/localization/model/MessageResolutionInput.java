@@ -0,0 +1,21 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * GraphQL input naming one message to resolve.
+ */
+@Data
+public class MessageResolutionInput {
+
+    @NotNull
+    private String msgTemplateID;       // Template to resolve
+
+    private String locale;              // Requested locale tag, e.g. "ja-JP"; the default locale if omitted
+
+    private List<String> args;          // Values to be substituted in {0}, {1}, etc.
+
+}
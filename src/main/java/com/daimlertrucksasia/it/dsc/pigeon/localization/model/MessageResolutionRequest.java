@@ -0,0 +1,18 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageResolutionRequest {
+
+    private String msgTemplateID;       // Template to resolve
+    private String locale;              // Requested locale tag, e.g. "ja-JP"
+    private Object[] args;              // Values to be substituted in {0}, {1}, etc.
+
+}
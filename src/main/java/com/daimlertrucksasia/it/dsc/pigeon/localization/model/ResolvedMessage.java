@@ -0,0 +1,37 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * GraphQL result of the {@code resolveMessages} query.
+ * <p>
+ * Echoes the requested template, locale and args; the localized text itself is the {@code message} field,
+ * which is resolved through the batching {@code localizedMessage} data loader.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolvedMessage {
+
+    private String msgTemplateID;       // Requested template
+    private String locale;              // Requested locale tag
+    private List<String> args;          // Values substituted in {0}, {1}, etc.
+
+    /**
+     * @return the request resolving this message
+     */
+    public MessageResolutionRequest toRequest() {
+        return MessageResolutionRequest.builder()
+                .msgTemplateID(msgTemplateID)
+                .locale(locale)
+                .args(args != null ? args.toArray() : null)
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of importing one template of a bulk import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateImportResult {
+
+    public enum Status {
+        /** The (msgTemplateID, locale) pair did not exist and was inserted. */
+        INSERTED,
+        /** The (msgTemplateID, locale) pair existed and was overwritten. */
+        UPDATED,
+        /** The item failed validation and was not written. */
+        INVALID,
+        /** The item was valid but the database rejected the write. */
+        FAILED
+    }
+
+    private int index;                  // Position of the item in the import, starting at 0
+    private String msgTemplateID;
+    private String locale;
+    private Status status;
+    private String error;               // Validation or write error, null on success
+
+}
@@ -0,0 +1,26 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a bulk template import: the counts per status and the outcome of every item, in import order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateImportSummary {
+
+    private int total;
+    private int inserted;
+    private int updated;
+    private int invalid;
+    private int failed;
+    private List<TemplateImportResult> items;
+
+}
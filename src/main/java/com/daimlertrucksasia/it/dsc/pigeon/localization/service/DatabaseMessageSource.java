@@ -1,57 +1,313 @@
 package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
 
-import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.diagnostics.MessageFormatEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.diagnostics.TemplateLookupEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.FormattedMessageCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.SingleFlight;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.format.CompiledTemplate;
 import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
 import lombok.Builder;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
  * This Data Base Message Source will be used to retrieve locale specific message.
+ * <p>
+ * Resolved templates are kept in a {@link MessageTemplateCache}, so repeated resolutions of the same
+ * (msgTemplateID, locale) pair are served without a database round trip. Misses are cached as well.
+ * </p>
+ * <p>
+ * A cache miss is resolved along the locale fallback chain (tag, language, default locale) by the
+ * {@link LocaleFallbackResolver} with a single query. Batches of messages are resolved through
+ * {@link #getMessages(List)}, which loads all distinct cache misses of the batch with one bulk query, or
+ * {@link #resolveTemplatesAsync(List)}, which does so with the reactive driver.
+ * </p>
+ * <p>
+ * A stored template that is not a valid pattern is cached as invalid for its (msgTemplateID, locale) only; the
+ * messages using it fail when they are formatted, while the rest of their batch is resolved as usual.
+ * </p>
+ * <p>
+ * Cache misses go through a {@link SingleFlight}: threads missing the same (msgTemplateID, locale) at the
+ * same time, e.g. right after the template was evicted, share one database load.
+ * </p>
+ * <p>
+ * Templates are cached as {@link CompiledTemplate}s, parsed once and formatted without locking; the
+ * {@link MessageFormat} of {@link #resolveCode(String, Locale)} is only built for callers of that API.
+ * Formatted messages may additionally be kept in a {@link FormattedMessageCache}, so a message resolved again
+ * with the same arguments is neither looked up nor formatted.
+ * </p>
+ * <p>
+ * Every template lookup is recorded as a {@link TemplateLookupEvent} and every message formatted for a batch as a
+ * {@link MessageFormatEvent} JFR event.
+ * </p>
  */
+@Slf4j
 @Service
 public class DatabaseMessageSource extends AbstractMessageSource {
 
-    private final MessageRepository messageRepository;
+    private final MessageTemplateCache templateCache;
 
-    public DatabaseMessageSource(MessageRepository messageRepository) {
-        this.messageRepository = messageRepository;
+    private final LocaleFallbackResolver fallbackResolver;
+
+    private final SingleFlight<TemplateKey, MessageTemplateCache.Entry> singleFlight;
+
+    private final FormattedMessageCache outputCache;
+
+    public DatabaseMessageSource(MessageTemplateCache templateCache, LocaleFallbackResolver fallbackResolver,
+                                 SingleFlight<TemplateKey, MessageTemplateCache.Entry> singleFlight,
+                                 FormattedMessageCache outputCache) {
+        this.templateCache = templateCache;
+        this.fallbackResolver = fallbackResolver;
+        this.singleFlight = singleFlight;
+        this.outputCache = outputCache;
     }
 
     @Builder
-    public static DatabaseMessageSource build(MessageRepository messageRepository) {
-        return new DatabaseMessageSource(messageRepository);
+    public static DatabaseMessageSource build(MessageTemplateCache templateCache, LocaleFallbackResolver fallbackResolver,
+                                              SingleFlight<TemplateKey, MessageTemplateCache.Entry> singleFlight,
+                                              FormattedMessageCache outputCache) {
+        return new DatabaseMessageSource(templateCache, fallbackResolver, singleFlight, outputCache);
     }
 
     protected MessageFormat resolveCode(@NonNull String msgTemplateID, Locale locale) {
-        return Optional.ofNullable(messageRepository.findMessageByCodeAndLocale(msgTemplateID, locale.toLanguageTag()))
-                .map(msg -> new MessageFormat(msg.getMessage(), locale)).
-                orElse(new MessageFormat("No message found under msgTemplateID [" + msgTemplateID + "] for locale '" + locale + "'"));
+        return resolveTemplate(msgTemplateID, locale).toMessageFormat();
     }
 
-    private String resolveMessage(String code, Locale locale) {
-        String tag = locale.toLanguageTag();
-        String lang = locale.getLanguage();
+    /**
+     * Formats a message with its compiled template instead of a shared, synchronized {@link MessageFormat}.
+     */
+    @Override
+    protected String getMessageInternal(@Nullable String code, @Nullable Object[] args, @Nullable Locale locale) {
+        if (code == null) {
+            return null;
+        }
+        Locale localeToUse = locale != null ? locale : Locale.getDefault();
+        return outputCache.resolve(code, localeToUse.toLanguageTag(), args, () -> resolveEntry(code, localeToUse),
+                entry -> templateOf(entry, code, localeToUse).format(resolveArguments(args, localeToUse)));
+    }
 
-        LocalizedMessageEntity message = messageRepository.findMessageByCodeAndLocale(code, tag);
-        if (message.getMessage() != null) return message.getMessage();
+    private CompiledTemplate resolveTemplate(String msgTemplateID, Locale locale) {
+        return templateOf(resolveEntry(msgTemplateID, locale), msgTemplateID, locale);
+    }
 
-        if (!lang.equalsIgnoreCase(tag)) {
-            message = messageRepository.findMessageByCodeAndLocale(code, lang);
-            if (message.getMessage() != null) return message.getMessage();
+    private MessageTemplateCache.Entry resolveEntry(String msgTemplateID, Locale locale) {
+        TemplateLookupEvent event = new TemplateLookupEvent();
+        event.begin();
+        TemplateKey key = TemplateKey.of(msgTemplateID, locale.toLanguageTag());
+        MessageTemplateCache.Entry entry = templateCache.get(key);
+        boolean cached = entry != null;
+        if (entry == null) {
+            entry = singleFlight.load(key, () -> {
+                String msg = resolveMessage(msgTemplateID, locale);
+                return msg != null ? compile(key, msg, locale) : templateCache.putNotFound(key);
+            });
         }
+        event.commit(msgTemplateID, key.getLocale(), cached, entry.isFound());
+        return entry;
+    }
+
+    /**
+     * Resolves and formats a batch of messages.
+     * <p>
+     * The batch is de-duplicated by (msgTemplateID, locale); cached templates are served from the cache and
+     * all remaining keys are loaded with a single bulk query. Every request is then formatted against the
+     * shared result.
+     * </p>
+     *
+     * @param requests the messages to resolve
+     * @return the formatted messages, in request order
+     * @throws IllegalArgumentException if a message of the batch uses an invalid template or args
+     */
+    public List<String> getMessages(List<MessageResolutionRequest> requests) {
+        return format(requests, resolveTemplates(requests));
+    }
 
-        return null;
+    /**
+     * Resolves the templates of a batch of messages like {@link #resolveTemplates(List)}, without blocking the
+     * calling thread on the database.
+     * <p>
+     * The bulk query of the cache misses is run by the reactive driver; a batch served entirely from the cache
+     * completes right away.
+     * </p>
+     *
+     * @param requests the messages whose templates should be resolved
+     * @return a future completing with the resolved templates of the batch
+     */
+    public CompletableFuture<ResolvedTemplates> resolveTemplatesAsync(List<MessageResolutionRequest> requests) {
+        return resolveCodesAsync(keysOf(requests)).thenApply(this::templatesOf);
+    }
+
+    /**
+     * Resolves the templates of a batch of messages without formatting them yet.
+     * <p>
+     * Like {@link #getMessages(List)} the batch costs at most one bulk query; the returned templates can then
+     * be formatted per message, from any thread.
+     * </p>
+     *
+     * @param requests the messages whose templates should be resolved
+     * @return the resolved templates of the batch
+     */
+    public ResolvedTemplates resolveTemplates(List<MessageResolutionRequest> requests) {
+        return templatesOf(resolveCodes(keysOf(requests)));
+    }
+
+    private static Set<TemplateKey> keysOf(List<MessageResolutionRequest> requests) {
+        Set<TemplateKey> keys = new LinkedHashSet<>();
+        requests.forEach(request -> keys.add(TemplateKey.of(request.getMsgTemplateID(), request.getLocale())));
+        return keys;
+    }
+
+    private static List<String> format(List<MessageResolutionRequest> requests, ResolvedTemplates templates) {
+        List<String> messages = new ArrayList<>(requests.size());
+        requests.forEach(request -> messages.add(templates.format(request)));
+        return messages;
+    }
+
+    private ResolvedTemplates templatesOf(Map<TemplateKey, MessageTemplateCache.Entry> entries) {
+        return request -> {
+            Object[] args = request.getArgs() != null ? request.getArgs() : new Object[0];
+            TemplateKey key = TemplateKey.of(request.getMsgTemplateID(), request.getLocale());
+            return outputCache.resolve(request.getMsgTemplateID(), request.getLocale(), args, () -> entries.get(key), entry -> {
+                MessageFormatEvent event = new MessageFormatEvent();
+                event.begin();
+                CompiledTemplate template = templateOf(entry, request.getMsgTemplateID(), Locale.forLanguageTag(request.getLocale()));
+                String message = template.format(args);
+                event.commit(request.getMsgTemplateID(), request.getLocale());
+                return message;
+            });
+        };
+    }
+
+    private Map<TemplateKey, MessageTemplateCache.Entry> resolveCodes(Set<TemplateKey> keys) {
+        Map<TemplateKey, MessageTemplateCache.Entry> entries = new HashMap<>();
+        List<TemplateKey> misses = fromCache(keys, entries);
+        if (!misses.isEmpty()) {
+            TemplateLookupEvent[] events = beginLookups(misses);
+            Map<TemplateKey, MessageTemplateCache.Entry> loaded = singleFlight.loadAll(misses, this::loadCodes);
+            commitLookups(misses, events, loaded);
+            entries.putAll(loaded);
+        }
+        return entries;
+    }
+
+    private CompletableFuture<Map<TemplateKey, MessageTemplateCache.Entry>> resolveCodesAsync(Set<TemplateKey> keys) {
+        Map<TemplateKey, MessageTemplateCache.Entry> entries = new HashMap<>();
+        List<TemplateKey> misses = fromCache(keys, entries);
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(entries);
+        }
+        TemplateLookupEvent[] events = beginLookups(misses);
+        return singleFlight.loadAllAsync(misses, this::loadCodesAsync).thenApply(loaded -> {
+            commitLookups(misses, events, loaded);
+            entries.putAll(loaded);
+            return entries;
+        });
+    }
+
+    /**
+     * Adds the cached entries of the keys to {@code entries}.
+     *
+     * @return the keys missing from the cache
+     */
+    private List<TemplateKey> fromCache(Set<TemplateKey> keys, Map<TemplateKey, MessageTemplateCache.Entry> entries) {
+        List<TemplateKey> misses = new ArrayList<>();
+        for (TemplateKey key : keys) {
+            TemplateLookupEvent event = new TemplateLookupEvent();
+            event.begin();
+            MessageTemplateCache.Entry entry = templateCache.get(key);
+            if (entry == null) {
+                misses.add(key);
+            } else {
+                entries.put(key, entry);
+                event.commit(key.getMsgTemplateID(), key.getLocale(), true, entry.isFound());
+            }
+        }
+        return misses;
+    }
+
+    // one event per missed key, each spanning the shared bulk load the key waited for
+    private static TemplateLookupEvent[] beginLookups(List<TemplateKey> misses) {
+        TemplateLookupEvent[] events = new TemplateLookupEvent[misses.size()];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new TemplateLookupEvent();
+            events[i].begin();
+        }
+        return events;
+    }
+
+    private static void commitLookups(List<TemplateKey> misses, TemplateLookupEvent[] events,
+                                      Map<TemplateKey, MessageTemplateCache.Entry> loaded) {
+        for (int i = 0; i < events.length; i++) {
+            TemplateKey key = misses.get(i);
+            MessageTemplateCache.Entry entry = loaded.get(key);
+            events[i].commit(key.getMsgTemplateID(), key.getLocale(), false, entry != null && entry.isFound());
+        }
+    }
+
+    private Map<TemplateKey, MessageTemplateCache.Entry> loadCodes(List<TemplateKey> keys) {
+        return toEntries(keys, fallbackResolver.resolveAll(keys));
+    }
+
+    private CompletableFuture<Map<TemplateKey, MessageTemplateCache.Entry>> loadCodesAsync(List<TemplateKey> keys) {
+        return fallbackResolver.resolveAllAsync(keys).thenApply(loaded -> toEntries(keys, loaded));
+    }
+
+    private Map<TemplateKey, MessageTemplateCache.Entry> toEntries(List<TemplateKey> keys, Map<TemplateKey, LocalizedMessageEntity> loaded) {
+        Map<TemplateKey, MessageTemplateCache.Entry> entries = new HashMap<>();
+        for (TemplateKey key : keys) {
+            LocalizedMessageEntity msg = loaded.get(key);
+            entries.put(key, msg != null
+                    ? compile(key, msg.getMessage(), Locale.forLanguageTag(key.getLocale()))
+                    : templateCache.putNotFound(key));
+        }
+        return entries;
+    }
+
+    // an invalid template only fails the messages using it, not the batch it was loaded with
+    private MessageTemplateCache.Entry compile(TemplateKey key, String message, Locale locale) {
+        try {
+            return templateCache.put(key, CompiledTemplate.compile(message, locale));
+        } catch (IllegalArgumentException ex) {
+            log.error("Invalid template under msgTemplateID [{}] for locale '{}': {}", key.getMsgTemplateID(),
+                    key.getLocale(), ex.getMessage());
+            return templateCache.putInvalid(key, ex);
+        }
+    }
+
+    private static CompiledTemplate templateOf(MessageTemplateCache.Entry entry, String msgTemplateID, Locale locale) {
+        if (entry.getError() != null) {
+            throw new IllegalArgumentException("Invalid template under msgTemplateID [" + msgTemplateID + "] for locale '"
+                    + locale + "': " + entry.getError().getMessage(), entry.getError());
+        }
+        return entry.isFound() ? entry.getTemplate() : notFoundTemplate(msgTemplateID, locale);
+    }
+
+    private String resolveMessage(String code, Locale locale) {
+        return fallbackResolver.resolve(code, locale)
+                .map(LocalizedMessageEntity::getMessage)
+                .orElse(null);
     }
 
-    private String format(String message, Object[] args, Locale locale) {
-        return args == null || args.length == 0 ? message : new MessageFormat(message, locale).format(args);
+    private static CompiledTemplate notFoundTemplate(String msgTemplateID, Locale locale) {
+        return CompiledTemplate.ofText("No message found under msgTemplateID [" + msgTemplateID + "] for locale '" + locale + "'",
+                Locale.getDefault());
     }
 
 }
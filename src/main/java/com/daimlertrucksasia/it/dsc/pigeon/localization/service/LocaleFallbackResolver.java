@@ -0,0 +1,334 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshot;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotManager;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.TemplateExistenceFilter;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.ReactiveMessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves a message template along the locale fallback chain in a single database round trip.
+ * <p>
+ * For a requested locale such as {@code ja-JP} the chain is the full language tag, then the bare
+ * language and finally {@code localization.default-locale}: {@code [ja-JP, ja, en]}. All candidates are
+ * fetched with one {@code $in} query on the {@code msg_locale_unique_idx} index and the most specific
+ * translation found is picked in memory.
+ * </p>
+ * <p>
+ * While a {@link CatalogSnapshot} is loaded, the chain is resolved against the snapshot instead and the
+ * database is not queried at all: the snapshot holds the whole catalog, so a template missing from it does
+ * not exist.
+ * </p>
+ * <p>
+ * Otherwise lookups the {@link TemplateExistenceFilter} rejects, i.e. of templates that have no translation in
+ * any locale of the chain, return empty without a query.
+ * </p>
+ * <p>
+ * Bulk resolutions are also offered without blocking by {@link #resolveAllAsync(Collection)}, which queries
+ * through the {@link ReactiveMessageRepository}.
+ * </p>
+ * <p>
+ * The resolver publishes the following meters:
+ * <ul>
+ *   <li>{@code pigeon.localization.repository.query} - latency of the database queries, tagged by {@code query}
+ *   ({@code single}, {@code bulk}) and {@code result} ({@code hit} if any translation was found, else {@code miss}).</li>
+ *   <li>{@code pigeon.localization.fallback.level} - resolutions by the step of the fallback chain that matched,
+ *   tagged by {@code level} ({@code exact}, {@code language}, {@code default}, {@code miss}) and {@code source}
+ *   ({@code snapshot}, {@code database}).</li>
+ * </ul>
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Component
+public class LocaleFallbackResolver {
+
+    private static final int SNAPSHOT = 0;
+
+    private static final int DATABASE = 1;
+
+    private static final int EXACT = 0;
+
+    private static final int LANGUAGE = 1;
+
+    private static final int DEFAULT = 2;
+
+    private static final int MISS = 3;
+
+    private final MessageRepository messageRepository;
+
+    private final ReactiveMessageRepository reactiveMessageRepository;
+
+    private final CatalogSnapshotManager snapshotManager;
+
+    private final TemplateExistenceFilter existenceFilter;
+
+    private final String defaultLocale;
+
+    private final Timer singleHitTimer;
+
+    private final Timer singleMissTimer;
+
+    private final Timer bulkHitTimer;
+
+    private final Timer bulkMissTimer;
+
+    /** Resolution counters indexed by [source][level], see {@link #SNAPSHOT} and {@link #EXACT}. */
+    private final Counter[][] levelCounters = new Counter[2][4];
+
+    public LocaleFallbackResolver(MessageRepository messageRepository, ReactiveMessageRepository reactiveMessageRepository,
+                                  CatalogSnapshotManager snapshotManager, TemplateExistenceFilter existenceFilter,
+                                  LocalizationPropertiesConfig localizationProperties, MeterRegistry meterRegistry) {
+        this.messageRepository = messageRepository;
+        this.reactiveMessageRepository = reactiveMessageRepository;
+        this.snapshotManager = snapshotManager;
+        this.existenceFilter = existenceFilter;
+        this.defaultLocale = localizationProperties.getDefaultLocale();
+        this.singleHitTimer = queryTimer("single", "hit", meterRegistry);
+        this.singleMissTimer = queryTimer("single", "miss", meterRegistry);
+        this.bulkHitTimer = queryTimer("bulk", "hit", meterRegistry);
+        this.bulkMissTimer = queryTimer("bulk", "miss", meterRegistry);
+        String[] sources = {"snapshot", "database"};
+        String[] levels = {"exact", "language", "default", "miss"};
+        for (int source = 0; source < sources.length; source++) {
+            for (int level = 0; level < levels.length; level++) {
+                levelCounters[source][level] = Counter.builder("pigeon.localization.fallback.level")
+                        .description("Template resolutions by the step of the locale fallback chain that matched")
+                        .tag("source", sources[source])
+                        .tag("level", levels[level])
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Computes the ordered, de-duplicated list of locale tags to try for a requested locale.
+     *
+     * @param locale the requested locale
+     * @return the candidate locale tags, most specific first
+     */
+    public List<String> candidates(Locale locale) {
+        List<String> candidates = new ArrayList<>(3);
+        addCandidate(candidates, locale.toLanguageTag());
+        addCandidate(candidates, locale.getLanguage());
+        addCandidate(candidates, defaultLocale);
+        return candidates;
+    }
+
+    /**
+     * Resolves the most specific translation of a template for the requested locale.
+     *
+     * @param msgTemplateID the template id
+     * @param locale        the requested locale
+     * @return the best matching translation, or empty if none of the candidates exist
+     */
+    public Optional<LocalizedMessageEntity> resolve(String msgTemplateID, Locale locale) {
+        List<String> candidates = candidates(locale);
+        CatalogSnapshot snapshot = snapshotManager.current();
+        if (snapshot != null) {
+            return countLevel(SNAPSHOT, candidates, fromSnapshot(snapshot, msgTemplateID, candidates));
+        }
+        if (!existenceFilter.mightExist(msgTemplateID, candidates)) {
+            return countLevel(DATABASE, candidates, Optional.empty());
+        }
+        long started = System.nanoTime();
+        List<LocalizedMessageEntity> found = messageRepository.findMessagesByCodeAndLocaleIn(msgTemplateID, candidates);
+        (found.isEmpty() ? singleMissTimer : singleHitTimer).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return countLevel(DATABASE, candidates, pickBest(candidates, found));
+    }
+
+    /**
+     * Resolves the most specific translation for many (msgTemplateID, locale) pairs with a single query.
+     * <p>
+     * All template ids and the union of their candidate locales are fetched at once; the best match of
+     * every key is then picked in memory, exactly as {@link #resolve(String, Locale)} would.
+     * </p>
+     *
+     * @param keys the templates and requested locale tags to resolve
+     * @return the best matching translation per key; keys without any translation are absent
+     */
+    public Map<TemplateKey, LocalizedMessageEntity> resolveAll(Collection<TemplateKey> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        CatalogSnapshot snapshot = snapshotManager.current();
+        if (snapshot != null) {
+            return fromSnapshot(snapshot, keys);
+        }
+        BulkLookup lookup = bulkLookup(keys);
+        if (lookup.candidatesByKey.isEmpty()) {
+            return Map.of();
+        }
+        long started = System.nanoTime();
+        List<LocalizedMessageEntity> found = messageRepository.findMessagesByCodeInAndLocaleIn(lookup.templateIds, lookup.locales);
+        return pickAll(lookup, found, started);
+    }
+
+    /**
+     * Resolves the most specific translation for many (msgTemplateID, locale) pairs like
+     * {@link #resolveAll(Collection)}, without blocking the calling thread on the database.
+     * <p>
+     * The query is run by the {@link ReactiveMessageRepository} and the returned future completes on a thread of
+     * the reactive driver. Lookups answered from the catalog snapshot or rejected by the existence filter complete
+     * right away.
+     * </p>
+     *
+     * @param keys the templates and requested locale tags to resolve
+     * @return a future completing with the best matching translation per key; keys without any translation are absent
+     */
+    public CompletableFuture<Map<TemplateKey, LocalizedMessageEntity>> resolveAllAsync(Collection<TemplateKey> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        CatalogSnapshot snapshot = snapshotManager.current();
+        if (snapshot != null) {
+            return CompletableFuture.completedFuture(fromSnapshot(snapshot, keys));
+        }
+        BulkLookup lookup = bulkLookup(keys);
+        if (lookup.candidatesByKey.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        long started = System.nanoTime();
+        return reactiveMessageRepository.findMessagesByCodeInAndLocaleIn(lookup.templateIds, lookup.locales)
+                .collectList()
+                .toFuture()
+                .thenApply(found -> pickAll(lookup, found, started));
+    }
+
+    /**
+     * Picks the translation matching the earliest candidate.
+     *
+     * @param candidates the candidate locale tags, most specific first
+     * @param found      the translations fetched for those candidates
+     * @return the best matching translation, or empty if none matched
+     */
+    static Optional<LocalizedMessageEntity> pickBest(List<String> candidates, Collection<LocalizedMessageEntity> found) {
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, LocalizedMessageEntity> byLocale = new HashMap<>();
+        found.forEach(entity -> byLocale.put(entity.getLocale(), entity));
+        return candidates.stream()
+                .map(byLocale::get)
+                .filter(entity -> entity != null && entity.getMessage() != null)
+                .findFirst();
+    }
+
+    private Map<TemplateKey, LocalizedMessageEntity> fromSnapshot(CatalogSnapshot snapshot, Collection<TemplateKey> keys) {
+        Map<TemplateKey, LocalizedMessageEntity> resolved = new HashMap<>();
+        for (TemplateKey key : keys) {
+            List<String> candidates = candidates(Locale.forLanguageTag(key.getLocale()));
+            countLevel(SNAPSHOT, candidates, fromSnapshot(snapshot, key.getMsgTemplateID(), candidates))
+                    .ifPresent(entity -> resolved.put(key, entity));
+        }
+        return resolved;
+    }
+
+    /**
+     * Computes the candidates of every key the existence filter lets through and the ids and locales to query.
+     */
+    private BulkLookup bulkLookup(Collection<TemplateKey> keys) {
+        BulkLookup lookup = new BulkLookup();
+        for (TemplateKey key : keys) {
+            List<String> candidates = candidates(Locale.forLanguageTag(key.getLocale()));
+            if (existenceFilter.mightExist(key.getMsgTemplateID(), candidates)) {
+                lookup.candidatesByKey.put(key, candidates);
+                lookup.templateIds.add(key.getMsgTemplateID());
+                lookup.locales.addAll(candidates);
+            } else {
+                levelCounters[DATABASE][MISS].increment();
+            }
+        }
+        return lookup;
+    }
+
+    /**
+     * Records the query latency and picks the best match of every key among the translations found.
+     */
+    private Map<TemplateKey, LocalizedMessageEntity> pickAll(BulkLookup lookup, List<LocalizedMessageEntity> found, long started) {
+        (found.isEmpty() ? bulkMissTimer : bulkHitTimer).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        Map<String, List<LocalizedMessageEntity>> foundByTemplate = found.stream()
+                .collect(Collectors.groupingBy(LocalizedMessageEntity::getMsgTemplateID));
+
+        Map<TemplateKey, LocalizedMessageEntity> resolved = new HashMap<>();
+        lookup.candidatesByKey.forEach((key, candidates) ->
+                countLevel(DATABASE, candidates, pickBest(candidates, foundByTemplate.getOrDefault(key.getMsgTemplateID(), List.of())))
+                        .ifPresent(entity -> resolved.put(key, entity)));
+        return resolved;
+    }
+
+    private static Optional<LocalizedMessageEntity> fromSnapshot(CatalogSnapshot snapshot, String msgTemplateID,
+                                                                 List<String> candidates) {
+        for (String candidate : candidates) {
+            String message = snapshot.message(msgTemplateID, candidate);
+            if (message != null) {
+                return Optional.of(LocalizedMessageEntity.builder()
+                        .msgTemplateID(msgTemplateID)
+                        .locale(candidate)
+                        .message(message)
+                        .build());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<LocalizedMessageEntity> countLevel(int source, List<String> candidates,
+                                                        Optional<LocalizedMessageEntity> resolved) {
+        int level;
+        if (resolved.isEmpty()) {
+            level = MISS;
+        } else if (resolved.get().getLocale().equals(candidates.get(0))) {
+            level = EXACT;
+        } else {
+            level = resolved.get().getLocale().equals(defaultLocale) ? DEFAULT : LANGUAGE;
+        }
+        levelCounters[source][level].increment();
+        return resolved;
+    }
+
+    private static Timer queryTimer(String query, String result, MeterRegistry meterRegistry) {
+        return Timer.builder("pigeon.localization.repository.query")
+                .description("Latency of the template queries of the locale fallback chain")
+                .tag("query", query)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static void addCandidate(List<String> candidates, String tag) {
+        if (tag != null && !tag.isEmpty() && !"und".equals(tag) && !candidates.contains(tag)) {
+            candidates.add(tag);
+        }
+    }
+
+    /**
+     * The keys of a bulk resolution that need a query, with their candidates.
+     */
+    private static final class BulkLookup {
+
+        private final Map<TemplateKey, List<String>> candidatesByKey = new HashMap<>();
+
+        private final Set<String> templateIds = new LinkedHashSet<>();
+
+        private final Set<String> locales = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,46 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.dataloader.BatchLoader;
+import org.dataloader.Try;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Batch function of the {@value #NAME} GraphQL data loader.
+ * <p>
+ * The data loader collects every message requested while a GraphQL operation executes and hands them over
+ * in one call, which {@link MessageService#getMessagesAsync(List)} resolves with a single bulk query for all
+ * templates that are not cached yet. With {@code localization.read-path} set to {@code reactive} the query does not
+ * block the thread executing the GraphQL request, and the data fetchers waiting on the loader complete once the
+ * database answered.
+ * </p>
+ * <p>
+ * Every message is returned as a {@link Try}, so a message whose template or args are invalid fails its own field
+ * only; the loader has to be created with {@code DataLoaderFactory.newDataLoaderWithTry}.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Component
+public class MessageBatchLoader implements BatchLoader<MessageResolutionRequest, Try<String>> {
+
+    /** Name the data loader is registered under. */
+    public static final String NAME = "localizedMessage";
+
+    private final MessageService messageService;
+
+    public MessageBatchLoader(MessageService messageService) {
+        this.messageService = messageService;
+    }
+
+    @Override
+    public CompletionStage<List<Try<String>>> load(List<MessageResolutionRequest> requests) {
+        log.debug("Resolving {} messages in one batch", requests.size());
+        return messageService.getMessagesAsync(requests);
+    }
+}
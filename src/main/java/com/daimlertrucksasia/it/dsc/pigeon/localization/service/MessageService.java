@@ -1,36 +1,79 @@
 package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
 
-import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshot;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotManager;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig.ReadPath;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.dataloader.Try;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author KUSHWPR
  * <p>
  * The MessageService class does serve the purpose of localizaiton of message based on the application access.
  * <p/>
+ * Every resolution is timed by the {@code pigeon.localization.resolve} timer, tagged by {@code operation}:
+ * {@code template} for {@link #getMessage(String, Locale)}, {@code message} for
+ * {@link #getMessage(String, Object[], Locale)}, {@code batch} for {@link #getMessages(List)} and
+ * {@code templates} for {@link #resolveTemplates(List)}; {@link #getMessagesAsync(List)} is timed as {@code batch}
+ * until its future completes.
+ * <p/>
  * @version 1.0
  */
 @Service
 public class MessageService {
 
-    @Autowired
-    private final MessageRepository messageRepository;
-
     @Autowired
     private final MessageSource messageSource;
 
-    @Value("${localization.default-locale}")
-    private String defaultLocale;
+    private final LocaleFallbackResolver fallbackResolver;
+
+    private final CatalogSnapshotManager snapshotManager;
+
+    private final ReadPath readPath;
+
+    private final Timer templateTimer;
 
-    public MessageService(MessageRepository messageRepository, MessageSource messageSource) {
-        this.messageRepository = messageRepository;
+    private final Timer messageTimer;
+
+    private final Timer batchTimer;
+
+    private final Timer templatesTimer;
+
+    public MessageService(MessageSource messageSource, LocaleFallbackResolver fallbackResolver,
+                          CatalogSnapshotManager snapshotManager, LocalizationPropertiesConfig localizationProperties,
+                          MeterRegistry meterRegistry) {
         this.messageSource = messageSource;
+        this.fallbackResolver = fallbackResolver;
+        this.snapshotManager = snapshotManager;
+        this.readPath = localizationProperties.getReadPath();
+        this.templateTimer = resolveTimer("template", meterRegistry);
+        this.messageTimer = resolveTimer("message", meterRegistry);
+        this.batchTimer = resolveTimer("batch", meterRegistry);
+        this.templatesTimer = resolveTimer("templates", meterRegistry);
+    }
+
+    /**
+     * <p>
+     * The GetCatalogVersion method reports which catalog snapshot messages are currently resolved from
+     * <p/>
+     *
+     * @return the version id of the current catalog snapshot, or {@code null} if messages are resolved from the database
+     */
+    public Long getCatalogVersion() {
+        CatalogSnapshot snapshot = snapshotManager.current();
+        return snapshot != null ? snapshot.getVersion() : null;
     }
 
 
@@ -38,16 +81,16 @@ public class MessageService {
      * <p>
      * The GetMessage method is used to get localization specific message
      * <p/>
+     * The locale fallback chain (tag, language, default locale) is resolved with a single query.
      *
      * @param msgTemplateID the Code
      * @param locale        the Locale
-     * @return it returns the localized message per request based on
+     * @return it returns the localized message per request based on, or {@code null} if no translation exists
      */
     public String getMessage(String msgTemplateID, Locale locale) {
-        return Optional.ofNullable(
-                messageRepository.findMessageByCodeAndLocale(msgTemplateID, locale.toLanguageTag()).getMessage()
-        ).orElse(messageRepository.findMessageByCodeAndLocale(msgTemplateID, defaultLocale).getMessage());
-
+        return templateTimer.record(() -> fallbackResolver.resolve(msgTemplateID, locale)
+                .map(LocalizedMessageEntity::getMessage)
+                .orElse(null));
     }
 
     /**
@@ -61,6 +104,89 @@ public class MessageService {
      * @return it returns the localized message per request based on
      */
     public String getMessage(String code, Object[] args, Locale locale) {
-        return messageSource.getMessage(code, args, locale);
+        return messageTimer.record(() -> messageSource.getMessage(code, args, locale));
+    }
+
+    /**
+     * <p>
+     * The GetMessages method is used to resolve a batch of localization specific messages at once
+     * <p/>
+     * When backed by the {@link DatabaseMessageSource}, all distinct templates of the batch are loaded with a
+     * single bulk query instead of one query per message.
+     *
+     * @param requests the template, locale and args of every message
+     * @return the localized messages, in request order
+     */
+    public List<String> getMessages(List<MessageResolutionRequest> requests) {
+        return batchTimer.record(() -> {
+            if (messageSource instanceof DatabaseMessageSource databaseMessageSource) {
+                return databaseMessageSource.getMessages(requests);
+            }
+            return requests.stream()
+                    .map(request -> messageSource.getMessage(request.getMsgTemplateID(), request.getArgs(),
+                            Locale.forLanguageTag(request.getLocale())))
+                    .toList();
+        });
+    }
+
+    /**
+     * <p>
+     * The GetMessagesAsync method is used to resolve a batch of localization specific messages without waiting for them
+     * <p/>
+     * With {@code localization.read-path} set to {@code reactive} and the {@link DatabaseMessageSource}, the bulk query
+     * is run by the reactive driver and the calling thread is never blocked on the database. Otherwise the batch is
+     * resolved on the calling thread and the future is already complete. Each message is formatted on its own, so a
+     * message with an invalid template or args fails alone instead of failing the batch.
+     *
+     * @param requests the template, locale and args of every message
+     * @return a future completing with the localized message or the failure of every request, in request order
+     */
+    public CompletableFuture<List<Try<String>>> getMessagesAsync(List<MessageResolutionRequest> requests) {
+        if (readPath == ReadPath.REACTIVE && messageSource instanceof DatabaseMessageSource databaseMessageSource) {
+            Timer.Sample sample = Timer.start();
+            return databaseMessageSource.resolveTemplatesAsync(requests)
+                    .thenApply(templates -> formatEach(requests, templates))
+                    .whenComplete((messages, ex) -> sample.stop(batchTimer));
+        }
+        try {
+            return CompletableFuture.completedFuture(batchTimer.record(() -> formatEach(requests, templatesOf(requests))));
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * <p>
+     * The ResolveTemplates method is used to look up the templates of a batch of messages up front
+     * <p/>
+     * The returned templates format one message at a time and may be used from several threads, so a batch
+     * can be resolved with a single query and formatted in parallel.
+     *
+     * @param requests the template, locale and args of every message
+     * @return the resolved templates of the batch
+     */
+    public ResolvedTemplates resolveTemplates(List<MessageResolutionRequest> requests) {
+        return templatesTimer.record(() -> templatesOf(requests));
+    }
+
+    private ResolvedTemplates templatesOf(List<MessageResolutionRequest> requests) {
+        if (messageSource instanceof DatabaseMessageSource databaseMessageSource) {
+            return databaseMessageSource.resolveTemplates(requests);
+        }
+        return request -> messageSource.getMessage(request.getMsgTemplateID(), request.getArgs(),
+                Locale.forLanguageTag(request.getLocale()));
+    }
+
+    private static List<Try<String>> formatEach(List<MessageResolutionRequest> requests, ResolvedTemplates templates) {
+        List<Try<String>> messages = new ArrayList<>(requests.size());
+        requests.forEach(request -> messages.add(Try.tryCall(() -> templates.format(request))));
+        return messages;
+    }
+
+    private static Timer resolveTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("pigeon.localization.resolve")
+                .description("Message resolution latency")
+                .tag("operation", operation)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,21 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Application event published after message templates were created or changed in the database.
+ * <p>
+ * Listeners drop whatever they derived from the previous version of the templates, e.g. cached templates
+ * or cached "not found" results.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Value
+public class MessageTemplateChangedEvent {
+
+    /** The ids of the changed templates; every locale of a template may have changed. */
+    Set<String> msgTemplateIDs;
+}
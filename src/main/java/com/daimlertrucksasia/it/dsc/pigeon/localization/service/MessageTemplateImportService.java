@@ -0,0 +1,228 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMsgRequest;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.TemplateImportResult;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.TemplateImportSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports message templates in bulk.
+ * <p>
+ * Items are validated one by one; valid items are written in chunks of
+ * {@code localization.bulk-import.chunk-size} with one unordered Mongo bulk operation per chunk. Every item
+ * is an upsert on the {@code (msgTemplateID, locale)} pair of the {@code msg_locale_unique_idx} index, so
+ * importing a catalog twice overwrites the messages instead of failing on the unique index.
+ * </p>
+ * <p>
+ * Invalid items and items the database rejected are reported in the {@link TemplateImportSummary} and do
+ * not stop the rest of the import. A {@link MessageTemplateChangedEvent} is published after every chunk.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@Slf4j
+@Service
+public class MessageTemplateImportService {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int chunkSize;
+
+    public MessageTemplateImportService(MongoTemplate mongoTemplate, Validator validator, ObjectMapper objectMapper,
+                                        ApplicationEventPublisher eventPublisher,
+                                        LocalizationPropertiesConfig localizationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = Math.max(1, localizationProperties.getBulkImport().getChunkSize());
+    }
+
+    /**
+     * Imports a list of templates.
+     *
+     * @param templates the templates to import
+     * @return the per-item outcome of the import
+     */
+    public TemplateImportSummary importTemplates(List<LocalizedMsgRequest> templates) {
+        Import anImport = new Import();
+        templates.forEach(anImport::add);
+        return anImport.finish();
+    }
+
+    /**
+     * Imports templates from a newline delimited JSON stream, one {@link LocalizedMsgRequest} per line.
+     * <p>
+     * The stream is read line by line and written chunk by chunk, so only one chunk is held in memory at a
+     * time. Blank lines are skipped; a line that is not valid JSON is reported as an invalid item.
+     * </p>
+     *
+     * @param ndjson the stream to import; it is not closed
+     * @return the per-item outcome of the import
+     * @throws IOException if the stream cannot be read
+     */
+    public TemplateImportSummary importTemplates(InputStream ndjson) throws IOException {
+        Import anImport = new Import();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                anImport.add(objectMapper.readValue(line, LocalizedMsgRequest.class));
+            } catch (JsonProcessingException ex) {
+                anImport.reject("Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+        return anImport.finish();
+    }
+
+    /**
+     * State of one running import.
+     */
+    private class Import {
+
+        private final List<TemplateImportResult> results = new ArrayList<>();
+
+        private final List<TemplateImportResult> chunk = new ArrayList<>(chunkSize);
+
+        private final List<LocalizedMsgRequest> chunkItems = new ArrayList<>(chunkSize);
+
+        private void add(LocalizedMsgRequest item) {
+            TemplateImportResult result = TemplateImportResult.builder()
+                    .index(results.size())
+                    .msgTemplateID(item.getMsgTemplateID())
+                    .locale(item.getLocale())
+                    .build();
+            results.add(result);
+
+            Set<ConstraintViolation<LocalizedMsgRequest>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                result.setStatus(TemplateImportResult.Status.INVALID);
+                result.setError(violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            chunk.add(result);
+            chunkItems.add(item);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void reject(String error) {
+            results.add(TemplateImportResult.builder()
+                    .index(results.size())
+                    .status(TemplateImportResult.Status.INVALID)
+                    .error(error)
+                    .build());
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LocalizedMessageEntity.class);
+            for (LocalizedMsgRequest item : chunkItems) {
+                operations.upsert(
+                        Query.query(Criteria.where("msgTemplateID").is(item.getMsgTemplateID()).and("locale").is(item.getLocale())),
+                        new Update()
+                                .set("message", item.getMessage())
+                                .set("serviceProviderID", item.getServiceProviderID())
+                                .set("serviceConsumerID", item.getServiceConsumerID()));
+            }
+
+            BulkWriteResult writeResult = null;
+            Map<Integer, String> errors = new HashMap<>();
+            try {
+                writeResult = operations.execute();
+            } catch (BulkOperationException ex) {
+                writeResult = ex.getResult();
+                for (BulkWriteError error : ex.getErrors()) {
+                    errors.put(error.getIndex(), error.getMessage());
+                }
+            } catch (DataAccessException ex) {
+                log.error("Bulk write of {} templates failed: {}", chunk.size(), ex.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    errors.put(i, ex.getMessage());
+                }
+            }
+
+            Set<Integer> inserted = writeResult == null ? Set.of() : writeResult.getUpserts().stream()
+                    .map(BulkWriteUpsert::getIndex)
+                    .collect(Collectors.toSet());
+            Set<String> changed = new LinkedHashSet<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                TemplateImportResult result = chunk.get(i);
+                String error = errors.get(i);
+                if (error != null) {
+                    result.setStatus(TemplateImportResult.Status.FAILED);
+                    result.setError(error);
+                } else {
+                    result.setStatus(inserted.contains(i) ? TemplateImportResult.Status.INSERTED : TemplateImportResult.Status.UPDATED);
+                    changed.add(result.getMsgTemplateID());
+                }
+            }
+            log.info("Imported chunk of {} templates, {} failed", chunk.size(), errors.size());
+            chunk.clear();
+            chunkItems.clear();
+            if (!changed.isEmpty()) {
+                eventPublisher.publishEvent(new MessageTemplateChangedEvent(changed));
+            }
+        }
+
+        private TemplateImportSummary finish() {
+            flush();
+            Map<TemplateImportResult.Status, Long> counts = results.stream()
+                    .collect(Collectors.groupingBy(TemplateImportResult::getStatus, Collectors.counting()));
+            return TemplateImportSummary.builder()
+                    .total(results.size())
+                    .inserted(counts.getOrDefault(TemplateImportResult.Status.INSERTED, 0L).intValue())
+                    .updated(counts.getOrDefault(TemplateImportResult.Status.UPDATED, 0L).intValue())
+                    .invalid(counts.getOrDefault(TemplateImportResult.Status.INVALID, 0L).intValue())
+                    .failed(counts.getOrDefault(TemplateImportResult.Status.FAILED, 0L).intValue())
+                    .items(results)
+                    .build();
+        }
+    }
+}
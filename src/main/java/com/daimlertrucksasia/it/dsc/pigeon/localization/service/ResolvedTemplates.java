@@ -0,0 +1,24 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+
+/**
+ * Templates of a batch of messages that were resolved up front and can be formatted one message at a time.
+ * <p>
+ * Instances are safe to use from several threads, so the messages of a batch can be formatted in parallel
+ * after a single bulk lookup.
+ * </p>
+ *
+ * @author KUSHWPR
+ */
+@FunctionalInterface
+public interface ResolvedTemplates {
+
+    /**
+     * Formats one message of the batch the templates were resolved for.
+     *
+     * @param request the template, locale and args of the message
+     * @return the localized message
+     */
+    String format(MessageResolutionRequest request);
+}
@@ -0,0 +1,147 @@
+package com.daimlertrucksasia.it.dsc.pigeon.benchmark;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CompactCatalogStore;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the heap footprint and lookup cost of a {@link CompactCatalogStore} with the naive
+ * {@code Map<TemplateKey, LocalizedMessageEntity>} for a multi-tenant catalog.
+ * <p>
+ * Run from the test classpath with {@code org.openjdk.jmh.Main CatalogFootprintBenchmark}. The retained heap
+ * of both layouts, measured as the used heap after a full GC before and after building each of them, is
+ * reported as the {@link Footprint} secondary results of the lookup benchmark of each layout; give the fork
+ * enough heap ({@code -jvmArgs -Xmx4g}) for large catalogs.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogFootprintBenchmark {
+
+	private static final String[] LOCALES = {"en", "en-GB", "de", "fr", "ja", "ja-JP", "zh-CN", "hi", "id", "th"};
+
+	@Param({"200000"})
+	public int translations;
+
+	private Map<TemplateKey, LocalizedMessageEntity> entityMap;
+
+	private CompactCatalogStore compactStore;
+
+	private long entityBytes;
+
+	private long compactBytes;
+
+	@Setup
+	public void setUp() {
+		entityBytes = retained(() -> entityMap = buildEntityMap());
+		compactBytes = retained(() -> compactStore = buildCompactStore());
+	}
+
+	@Benchmark
+	public String lookupEntityMap(Footprint footprint) {
+		int i = ThreadLocalRandom.current().nextInt(translations);
+		LocalizedMessageEntity entity = entityMap.get(TemplateKey.of(templateId(i), LOCALES[i % LOCALES.length]));
+		return entity != null ? entity.getMessage() : null;
+	}
+
+	@Benchmark
+	public String lookupCompactStore(Footprint footprint) {
+		int i = ThreadLocalRandom.current().nextInt(translations);
+		return compactStore.message(templateId(i), LOCALES[i % LOCALES.length]);
+	}
+
+	/**
+	 * Reports the retained heap of the layout a benchmark looks up in as secondary results, in bytes.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+
+		public long retainedBytes;
+
+		public long retainedBytesPerTranslation;
+
+		/** The bytes held in the arrays of the compact store, {@code 0} for the entity map. */
+		public long arrayBytes;
+
+		// JMH zeroes the counters after the iteration set-up, so they are set once the iteration ran
+		@TearDown(Level.Iteration)
+		public void report(CatalogFootprintBenchmark benchmark, BenchmarkParams params) {
+			boolean compact = params.getBenchmark().endsWith("lookupCompactStore");
+			retainedBytes = compact ? benchmark.compactBytes : benchmark.entityBytes;
+			retainedBytesPerTranslation = retainedBytes / benchmark.translations;
+			arrayBytes = compact ? benchmark.compactStore.footprint() : 0;
+		}
+	}
+
+	private Map<TemplateKey, LocalizedMessageEntity> buildEntityMap() {
+		Map<TemplateKey, LocalizedMessageEntity> map = new HashMap<>();
+		for (int i = 0; i < translations; i++) {
+			String locale = LOCALES[i % LOCALES.length];
+			map.put(TemplateKey.of(templateId(i), locale), LocalizedMessageEntity.builder()
+					.id(new ObjectId())
+					.msgTemplateID(templateId(i))
+					.locale(locale)
+					.message(message(i))
+					.serviceProviderID("pigeon")
+					.serviceConsumerID("tenant-" + (i % 50))
+					.build());
+		}
+		return map;
+	}
+
+	private CompactCatalogStore buildCompactStore() {
+		CompactCatalogStore.Builder builder = CompactCatalogStore.builder();
+		for (int i = 0; i < translations; i++) {
+			builder.put(templateId(i), LOCALES[i % LOCALES.length], message(i));
+		}
+		return builder.build();
+	}
+
+	private static String templateId(int i) {
+		return "tenant-" + (i % 50) + ".staff.validation.failed." + (i / LOCALES.length);
+	}
+
+	private static String message(int i) {
+		return "Staff {0} could not be validated for tenant " + (i % 50) + ": rule " + i + " rejected value {1}";
+	}
+
+	private static long retained(Runnable build) {
+		long before = usedAfterGc();
+		build.run();
+		return usedAfterGc() - before;
+	}
+
+	private static long usedAfterGc() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+}
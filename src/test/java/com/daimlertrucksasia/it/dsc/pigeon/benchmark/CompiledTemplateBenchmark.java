@@ -0,0 +1,75 @@
+package com.daimlertrucksasia.it.dsc.pigeon.benchmark;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.format.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.MessageFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link CompiledTemplate} with {@link MessageFormat}, both parsed per call (the former
+ * {@code DatabaseMessageSource} behaviour) and shared under a lock (the former cached behaviour).
+ * <p>
+ * Run from the test classpath with {@code org.openjdk.jmh.Main CompiledTemplateBenchmark}; add {@code -prof gc}
+ * to compare the allocation rates.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CompiledTemplateBenchmark {
+
+	@Param({"Staff {0} with id {1} was not found in {2}", "Order {0} of {1,date,long} totals {2,number,#,##0.00}"})
+	public String pattern;
+
+	private final Locale locale = Locale.ENGLISH;
+
+	private final Object[] args = {"Pradeep", 42, 1234.5};
+
+	private Object[] typedArgs;
+
+	private MessageFormat sharedMessageFormat;
+
+	private CompiledTemplate compiledTemplate;
+
+	@Setup
+	public void setUp() {
+		sharedMessageFormat = new MessageFormat(pattern, locale);
+		compiledTemplate = CompiledTemplate.compile(pattern, locale);
+		typedArgs = pattern.contains(",date") ? new Object[]{"Pradeep", new Date(), 1234.5} : args;
+	}
+
+	@Benchmark
+	public String messageFormatPerCall() {
+		return new MessageFormat(pattern, locale).format(typedArgs);
+	}
+
+	@Benchmark
+	public String messageFormatShared() {
+		synchronized (sharedMessageFormat) {
+			return sharedMessageFormat.format(typedArgs);
+		}
+	}
+
+	@Benchmark
+	public String compiledTemplate() {
+		return compiledTemplate.format(typedArgs);
+	}
+}
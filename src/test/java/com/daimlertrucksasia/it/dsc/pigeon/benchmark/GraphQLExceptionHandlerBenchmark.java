@@ -0,0 +1,109 @@
+package com.daimlertrucksasia.it.dsc.pigeon.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.daimlertrucksasia.it.dsc.pigeon.exceptions.e.CustomGraphQLExceptionHandler;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import graphql.Scalars;
+import graphql.execution.DataFetcherExceptionHandlerParameters;
+import graphql.execution.DataFetcherExceptionHandlerResult;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.MergedField;
+import graphql.execution.ResultPath;
+import graphql.language.Field;
+import graphql.language.SourceLocation;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import io.leangen.graphql.util.ClassFinder;
+import jakarta.validation.ValidationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CustomGraphQLExceptionHandler#handleException(DataFetcherExceptionHandlerParameters)}, including
+ * the localization of the error message against an {@link InMemoryMessageRepository}.
+ * <p>
+ * The handler logs every exception with its stack trace; that logger is switched off while the benchmark runs, so
+ * the results cover handler lookup, message resolution and error building but not the cost of the appender.
+ * </p>
+ * <p>
+ * Run with {@code mvn -Pjmh verify -Djmh.includes=GraphQLExceptionHandlerBenchmark}, or from the test classpath
+ * with {@code org.openjdk.jmh.Main GraphQLExceptionHandlerBenchmark}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphQLExceptionHandlerBenchmark {
+
+	private final Logger handlerLogger = (Logger) LoggerFactory.getLogger(ClassFinder.class);
+
+	private Level handlerLogLevel;
+
+	private CustomGraphQLExceptionHandler handler;
+
+	private DataFetcherExceptionHandlerParameters validationFailure;
+
+	private DataFetcherExceptionHandlerParameters unexpectedFailure;
+
+	@Setup
+	public void setUp() {
+		handlerLogLevel = handlerLogger.getLevel();
+		handlerLogger.setLevel(Level.OFF);
+
+		InMemoryLocalization localization = new InMemoryLocalization(List.of(
+				LocalizedMessageEntity.builder().msgTemplateID("staff.id.invalid").locale("en")
+						.message("The staff id is invalid").build()), new LocalizationPropertiesConfig());
+		handler = new CustomGraphQLExceptionHandler(localization.messageService, null);
+
+		DataFetchingEnvironment environment = DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+				.executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+						.type(Scalars.GraphQLString)
+						.path(ResultPath.parse("/getMessage"))
+						.build())
+				.mergedField(MergedField.newMergedField(Field.newField("getMessage")
+						.sourceLocation(new SourceLocation(1, 3))
+						.build()).build())
+				.build();
+		validationFailure = DataFetcherExceptionHandlerParameters.newExceptionParameters()
+				.dataFetchingEnvironment(environment)
+				.exception(new ValidationException("staff.id.invalid"))
+				.build();
+		unexpectedFailure = DataFetcherExceptionHandlerParameters.newExceptionParameters()
+				.dataFetchingEnvironment(environment)
+				.exception(new IllegalStateException("Connection pool exhausted"))
+				.build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		handlerLogger.setLevel(handlerLogLevel);
+	}
+
+	@Benchmark
+	public DataFetcherExceptionHandlerResult handleValidationException() {
+		return handler.handleException(validationFailure).join();
+	}
+
+	@Benchmark
+	public DataFetcherExceptionHandlerResult handleUnexpectedException() {
+		return handler.handleException(unexpectedFailure).join();
+	}
+}
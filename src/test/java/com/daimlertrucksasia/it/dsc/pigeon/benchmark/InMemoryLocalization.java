@@ -0,0 +1,61 @@
+package com.daimlertrucksasia.it.dsc.pigeon.benchmark;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.FormattedMessageCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.SingleFlight;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotManager;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.TemplateExistenceFilter;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.DatabaseMessageSource;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.LocaleFallbackResolver;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * The localization services wired the way {@code MessageSourceConfig} wires them, over an
+ * {@link InMemoryMessageRepository} for both read paths. Catalog snapshots, the existence filter and the caches follow the given
+ * properties; snapshots and the existence filter need a database and must stay disabled.
+ */
+final class InMemoryLocalization {
+
+	final LocaleFallbackResolver fallbackResolver;
+
+	final DatabaseMessageSource messageSource;
+
+	final MessageService messageService;
+
+	/**
+	 * @param messages   the translations of the catalog
+	 * @param properties the localization settings
+	 */
+	InMemoryLocalization(Collection<LocalizedMessageEntity> messages, LocalizationPropertiesConfig properties) {
+		this(messages, properties, Duration.ZERO);
+	}
+
+	/**
+	 * @param messages     the translations of the catalog
+	 * @param properties   the localization settings
+	 * @param queryLatency the simulated latency of every repository query
+	 */
+	InMemoryLocalization(Collection<LocalizedMessageEntity> messages, LocalizationPropertiesConfig properties, Duration queryLatency) {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		MessageRepository repository = InMemoryMessageRepository.of(messages, queryLatency);
+		MessageTemplateCache templateCache = new MessageTemplateCache(properties.getCache());
+		CatalogSnapshotManager snapshotManager = new CatalogSnapshotManager(null, templateCache, properties);
+		fallbackResolver = new LocaleFallbackResolver(repository, InMemoryMessageRepository.reactive(messages, queryLatency),
+				snapshotManager, new TemplateExistenceFilter(null, properties, meterRegistry), properties, meterRegistry);
+		messageSource = DatabaseMessageSource.builder()
+				.templateCache(templateCache)
+				.fallbackResolver(fallbackResolver)
+				.singleFlight(new SingleFlight<>(Duration.ofSeconds(5)))
+				.outputCache(new FormattedMessageCache(properties, templateCache))
+				.build();
+		messageService = new MessageService(messageSource, fallbackResolver, snapshotManager, properties, meterRegistry);
+	}
+}
@@ -0,0 +1,115 @@
+package com.daimlertrucksasia.it.dsc.pigeon.benchmark;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.ReactiveMessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link MessageRepository} and {@link ReactiveMessageRepository} answering the finder queries of the resolution
+ * path from a {@link HashMap}, so benchmarks measure Pigeon's own code rather than a database round trip.
+ * <p>
+ * A query latency can be simulated: the blocking repository parks the calling thread for it, the reactive one
+ * emits its result that much later from a Reactor timer thread, as the reactive driver would.
+ * </p>
+ * <p>
+ * Every other repository method throws {@link UnsupportedOperationException}.
+ * </p>
+ */
+final class InMemoryMessageRepository {
+
+	private final Map<String, Map<String, LocalizedMessageEntity>> templates = new HashMap<>();
+
+	private InMemoryMessageRepository(Collection<LocalizedMessageEntity> messages) {
+		messages.forEach(message -> templates.computeIfAbsent(message.getMsgTemplateID(), id -> new HashMap<>())
+				.put(message.getLocale(), message));
+	}
+
+	/**
+	 * @param messages the translations the repository holds
+	 * @return a repository serving the given translations
+	 */
+	static MessageRepository of(Collection<LocalizedMessageEntity> messages) {
+		return of(messages, Duration.ZERO);
+	}
+
+	/**
+	 * @param messages     the translations the repository holds
+	 * @param queryLatency how long every query blocks the calling thread
+	 * @return a repository serving the given translations
+	 */
+	static MessageRepository of(Collection<LocalizedMessageEntity> messages, Duration queryLatency) {
+		InMemoryMessageRepository repository = new InMemoryMessageRepository(messages);
+		long latencyNanos = queryLatency.toNanos();
+		return (MessageRepository) Proxy.newProxyInstance(MessageRepository.class.getClassLoader(),
+				new Class<?>[]{MessageRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+					case "findMessageByCodeAndLocale" -> repository.await(latencyNanos).find((String) args[0], (String) args[1]);
+					case "findMessagesByCodeAndLocaleIn" -> repository.await(latencyNanos).findAll(List.of((String) args[0]), cast(args[1]));
+					case "findMessagesByCodeInAndLocaleIn" -> repository.await(latencyNanos).findAll(cast(args[0]), cast(args[1]));
+					case "toString" -> "InMemoryMessageRepository";
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "equals" -> proxy == args[0];
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	/**
+	 * @param messages     the translations the repository holds
+	 * @param queryLatency how long every query takes to emit its result
+	 * @return a reactive repository serving the given translations
+	 */
+	static ReactiveMessageRepository reactive(Collection<LocalizedMessageEntity> messages, Duration queryLatency) {
+		InMemoryMessageRepository repository = new InMemoryMessageRepository(messages);
+		return (ReactiveMessageRepository) Proxy.newProxyInstance(ReactiveMessageRepository.class.getClassLoader(),
+				new Class<?>[]{ReactiveMessageRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+					case "findMessagesByCodeInAndLocaleIn" -> {
+						Flux<LocalizedMessageEntity> found = Flux.defer(() -> Flux.fromIterable(repository.findAll(cast(args[0]), cast(args[1]))));
+						yield queryLatency.isZero() ? found : Mono.delay(queryLatency).thenMany(found);
+					}
+					case "toString" -> "InMemoryReactiveMessageRepository";
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "equals" -> proxy == args[0];
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private InMemoryMessageRepository await(long latencyNanos) {
+		if (latencyNanos > 0) {
+			LockSupport.parkNanos(latencyNanos);
+		}
+		return this;
+	}
+
+	private LocalizedMessageEntity find(String msgTemplateID, String locale) {
+		Map<String, LocalizedMessageEntity> translations = templates.get(msgTemplateID);
+		return translations != null ? translations.get(locale) : null;
+	}
+
+	private List<LocalizedMessageEntity> findAll(Collection<String> msgTemplateIDs, Collection<String> locales) {
+		List<LocalizedMessageEntity> found = new ArrayList<>();
+		for (String msgTemplateID : msgTemplateIDs) {
+			for (String locale : locales) {
+				LocalizedMessageEntity message = find(msgTemplateID, locale);
+				if (message != null) {
+					found.add(message);
+				}
+			}
+		}
+		return found;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Collection<String> cast(Object value) {
+		return (Collection<String>) value;
+	}
+}
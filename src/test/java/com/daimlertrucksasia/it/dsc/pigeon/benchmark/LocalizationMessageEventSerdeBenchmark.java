@@ -0,0 +1,98 @@
+package com.daimlertrucksasia.it.dsc.pigeon.benchmark;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.serde.LocalizationMessageEventCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary {@link LocalizationMessageEventCodec} with Jackson JSON for a typical request event.
+ * <p>
+ * Run from the test classpath with {@code org.openjdk.jmh.Main LocalizationMessageEventSerdeBenchmark}.
+ * Besides the timings, every benchmark reports the size of the payload it encodes or decodes as the
+ * {@link PayloadSize} secondary result.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalizationMessageEventSerdeBenchmark {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private LocalizationMessageEvent event;
+
+	private byte[] binary;
+
+	private byte[] json;
+
+	@Setup
+	public void setUp() throws Exception {
+		event = LocalizationMessageEvent.builder()
+				.requestId("5b0f6a4e-8f39-4c53-9d0c-0c5f0f7a1b2e")
+				.sourceService("staff-service")
+				.targetService("pigeon")
+				.msgTemplateID("staff.not.found.by.user.id")
+				.locale("ja-JP")
+				.args(new Object[]{"Pradeep", 42, 1_700_000_000_000L})
+				.timestamp(System.currentTimeMillis())
+				.build();
+		binary = LocalizationMessageEventCodec.encode(event);
+		json = objectMapper.writeValueAsBytes(event);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary(PayloadSize payloadSize) {
+		return LocalizationMessageEventCodec.encode(event);
+	}
+
+	@Benchmark
+	public byte[] encodeJson(PayloadSize payloadSize) throws Exception {
+		return objectMapper.writeValueAsBytes(event);
+	}
+
+	@Benchmark
+	public LocalizationMessageEvent decodeBinary(PayloadSize payloadSize) {
+		return LocalizationMessageEventCodec.decode(ByteBuffer.wrap(binary));
+	}
+
+	@Benchmark
+	public LocalizationMessageEvent decodeJson(PayloadSize payloadSize) throws Exception {
+		return objectMapper.readValue(json, LocalizationMessageEvent.class);
+	}
+
+	/**
+	 * Reports the size of the encoded event a benchmark works on as a secondary result.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PayloadSize {
+
+		public long payloadBytes;
+
+		// JMH zeroes the counters after the iteration set-up, so they are set once the iteration ran
+		@TearDown(Level.Iteration)
+		public void report(LocalizationMessageEventSerdeBenchmark benchmark, BenchmarkParams params) {
+			payloadBytes = params.getBenchmark().endsWith("Binary") ? benchmark.binary.length : benchmark.json.length;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.daimlertrucksasia.it.dsc.pigeon.benchmark;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.DatabaseMessageSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures message resolution through {@link DatabaseMessageSource} against an {@link InMemoryMessageRepository}.
+ * <p>
+ * With {@code templateCache=true} templates are served from the {@link MessageTemplateCache}; with {@code false}
+ * every resolution walks the locale fallback chain through the repository, which shows the cost of a cache miss
+ * apart from the database itself. {@code fallback} resolves a locale that only exists through its language.
+ * </p>
+ * <p>
+ * Run with {@code mvn -Pjmh verify -Djmh.includes=MessageSourceBenchmark}, or from the test classpath with
+ * {@code org.openjdk.jmh.Main MessageSourceBenchmark}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageSourceBenchmark {
+
+	private static final String[] LOCALES = {"en", "ja", "de", "fr", "zh"};
+
+	@Param({"true", "false"})
+	public boolean templateCache;
+
+	private final Object[] args = {"Pradeep", 42};
+
+	private final Locale fallbackLocale = Locale.forLanguageTag("ja-JP");
+
+	private DatabaseMessageSource messageSource;
+
+	private List<MessageResolutionRequest> batch;
+
+	@Setup
+	public void setUp() {
+		List<LocalizedMessageEntity> messages = new ArrayList<>();
+		for (int template = 0; template < 200; template++) {
+			for (String locale : LOCALES) {
+				messages.add(LocalizedMessageEntity.builder()
+						.msgTemplateID("staff.error." + template)
+						.locale(locale)
+						.message("[" + locale + "] Staff {0} with id {1} failed check " + template)
+						.build());
+			}
+		}
+		LocalizationPropertiesConfig properties = new LocalizationPropertiesConfig();
+		properties.getCache().setEnabled(templateCache);
+		messageSource = new InMemoryLocalization(messages, properties).messageSource;
+
+		batch = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			batch.add(MessageResolutionRequest.builder()
+					.msgTemplateID("staff.error." + (i % 10))
+					.locale(LOCALES[i % LOCALES.length])
+					.args(args)
+					.build());
+		}
+	}
+
+	@Benchmark
+	public String getMessage() {
+		return messageSource.getMessage("staff.error.7", args, Locale.ENGLISH);
+	}
+
+	@Benchmark
+	public String getMessageWithFallback() {
+		return messageSource.getMessage("staff.error.7", args, fallbackLocale);
+	}
+
+	@Benchmark
+	public List<String> getMessages() {
+		return messageSource.getMessages(batch);
+	}
+
+}
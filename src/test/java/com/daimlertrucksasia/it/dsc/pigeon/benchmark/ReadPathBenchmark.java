@@ -0,0 +1,124 @@
+package com.daimlertrucksasia.it.dsc.pigeon.benchmark;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig.ReadPath;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the blocking and the reactive read path of the batched GraphQL lookups under concurrency.
+ * <p>
+ * Every invocation starts {@value #CONCURRENT_REQUESTS} concurrent resolutions, as many GraphQL requests would, on
+ * a pool of {@code requestThreads} threads standing in for the servlet container, and waits for all of them. The
+ * template cache is disabled so every request queries the {@link InMemoryMessageRepository}, which simulates a
+ * database answering after {@code queryLatencyMillis}. On the blocking path a request thread is held for the whole
+ * query; on the reactive path it is released as soon as the query was started.
+ * </p>
+ * <p>
+ * Run with {@code mvn -Pjmh verify -Djmh.includes=ReadPathBenchmark}, or from the test classpath with
+ * {@code org.openjdk.jmh.Main ReadPathBenchmark}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+	private static final int CONCURRENT_REQUESTS = 1_000;
+
+	private static final int MESSAGES_PER_REQUEST = 5;
+
+	private static final String[] LOCALES = {"en", "ja", "de"};
+
+	@Param({"BLOCKING", "REACTIVE"})
+	public ReadPath readPath;
+
+	@Param({"0", "2"})
+	public int queryLatencyMillis;
+
+	@Param({"16"})
+	public int requestThreads;
+
+	private MessageService messageService;
+
+	private ExecutorService requestExecutor;
+
+	private List<List<MessageResolutionRequest>> requests;
+
+	@Setup
+	public void setUp() {
+		List<LocalizedMessageEntity> messages = new ArrayList<>();
+		for (int template = 0; template < 1_000; template++) {
+			for (String locale : LOCALES) {
+				messages.add(LocalizedMessageEntity.builder()
+						.msgTemplateID("staff.error." + template)
+						.locale(locale)
+						.message("[" + locale + "] Staff {0} failed check " + template)
+						.build());
+			}
+		}
+		LocalizationPropertiesConfig properties = new LocalizationPropertiesConfig();
+		properties.getCache().setEnabled(false);
+		properties.setReadPath(readPath);
+		messageService = new InMemoryLocalization(messages, properties, Duration.ofMillis(queryLatencyMillis)).messageService;
+		requestExecutor = Executors.newFixedThreadPool(requestThreads, new CustomizableThreadFactory("request-"));
+
+		requests = new ArrayList<>(CONCURRENT_REQUESTS);
+		for (int request = 0; request < CONCURRENT_REQUESTS; request++) {
+			List<MessageResolutionRequest> batch = new ArrayList<>(MESSAGES_PER_REQUEST);
+			for (int message = 0; message < MESSAGES_PER_REQUEST; message++) {
+				int id = request * MESSAGES_PER_REQUEST + message;
+				batch.add(MessageResolutionRequest.builder()
+						.msgTemplateID("staff.error." + id % 1_000)
+						.locale(LOCALES[id % LOCALES.length])
+						.args(new Object[]{"Pradeep"})
+						.build());
+			}
+			requests.add(batch);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		requestExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CONCURRENT_REQUESTS)
+	public Object concurrentRequests() {
+		CompletableFuture<?>[] responses = new CompletableFuture<?>[CONCURRENT_REQUESTS];
+		for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+			List<MessageResolutionRequest> batch = requests.get(i);
+			responses[i] = CompletableFuture.supplyAsync(() -> messageService.getMessagesAsync(batch), requestExecutor)
+					.thenCompose(Function.identity());
+		}
+		return CompletableFuture.allOf(responses).join();
+	}
+}
@@ -0,0 +1,86 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.serde;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalizationMessageEventSerdeTests {
+
+	private final LocalizationMessageEventSerializer serializer = new LocalizationMessageEventSerializer();
+
+	private final LocalizationMessageEventDeserializer deserializer = new LocalizationMessageEventDeserializer();
+
+	@Test
+	void roundTripsAllFieldsAndArgTypes() {
+		LocalizationMessageEvent event = LocalizationMessageEvent.builder()
+				.requestId("3f1c2a")
+				.sourceService("staff-service")
+				.msgTemplateID("staff.not.found.by.user.id")
+				.locale("ja-JP")
+				.args(new Object[]{"Pradeep", "山田", 42, -7L, 1.5d, true, new BigDecimal("12.50"), new Date(1_700_000_000_000L), null})
+				.timestamp(1_700_000_000_123L)
+				.build();
+
+		LocalizationMessageEvent decoded = deserializer.deserialize("topic", serializer.serialize("topic", event));
+
+		assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+	}
+
+	@Test
+	void decodesFromBufferSliceWithoutTouchingItsPosition() {
+		LocalizationMessageEvent event = LocalizationMessageEvent.builder().msgTemplateID("staff.not.valid").build();
+		byte[] encoded = serializer.serialize("topic", event);
+		byte[] framed = new byte[encoded.length + 4];
+		System.arraycopy(encoded, 0, framed, 2, encoded.length);
+		ByteBuffer buffer = ByteBuffer.wrap(framed, 2, encoded.length).slice();
+
+		LocalizationMessageEvent decoded = deserializer.deserialize("topic", null, buffer);
+
+		assertThat(decoded.getMsgTemplateID()).isEqualTo("staff.not.valid");
+		assertThat(decoded.getArgs()).isNull();
+		assertThat(buffer.position()).isZero();
+	}
+
+	@Test
+	void rejectsTruncatedPayload() {
+		byte[] encoded = serializer.serialize("topic", LocalizationMessageEvent.builder().requestId("r-1").build());
+
+		assertThatThrownBy(() -> deserializer.deserialize("topic", Arrays.copyOf(encoded, encoded.length - 2)))
+				.isInstanceOf(SerializationException.class);
+	}
+
+	@Test
+	void rejectsArgCountBeyondPayload() {
+		byte[] encoded = serializer.serialize("topic", LocalizationMessageEvent.builder().requestId("r-1").build());
+		byte[] corrupt = Arrays.copyOf(encoded, encoded.length + 4);
+		// replace the trailing "no args" varint by one declaring 2^31 - 16 args
+		byte[] argCount = {(byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+		System.arraycopy(argCount, 0, corrupt, encoded.length - 1, argCount.length);
+
+		assertThatThrownBy(() -> deserializer.deserialize("topic", corrupt))
+				.isInstanceOf(SerializationException.class)
+				.hasMessageContaining("args");
+	}
+
+	@Test
+	void errorHandlingDeserializerTurnsBadBufferIntoNullValueWithFailureHeader() {
+		ByteBufferErrorHandlingDeserializer<LocalizationMessageEvent> errorHandling =
+				new ByteBufferErrorHandlingDeserializer<>(deserializer);
+		RecordHeaders headers = new RecordHeaders();
+
+		LocalizationMessageEvent decoded = errorHandling.deserialize("topic", headers, ByteBuffer.wrap(new byte[]{9, 9, 9}));
+
+		assertThat(decoded).isNull();
+		assertThat(headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)).isNotNull();
+	}
+}
@@ -0,0 +1,127 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.consumer;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.config.KafkaPropertiesConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class KeyOrderedExecutorTests {
+
+	private final ExecutorService threads = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void shutdown() {
+		threads.shutdownNow();
+	}
+
+	@Test
+	void runsTasksOfOneKeyOnOneLaneInSubmissionOrder() throws Exception {
+		KeyOrderedExecutor executor = new KeyOrderedExecutor(processing(4, 100), null);
+		Map<String, Queue<Integer>> started = new ConcurrentHashMap<>();
+		Map<String, Set<String>> threadNames = new ConcurrentHashMap<>();
+
+		List<CompletableFuture<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			String key = "staff-" + (i % 3);
+			int sequence = i;
+			results.add(executor.submit(key, () -> {
+				started.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(sequence);
+				threadNames.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+				return CompletableFuture.completedFuture(sequence);
+			}));
+		}
+
+		CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+		executor.shutdown();
+		assertThat(started).hasSize(3);
+		started.values().forEach(sequences -> assertThat(new ArrayList<>(sequences)).hasSize(20).isSorted());
+		threadNames.values().forEach(names -> assertThat(names).singleElement().asString().startsWith("pigeon-worker-"));
+	}
+
+	@Test
+	void runsTasksOnTheCallingThreadWithAParallelismOfOne() {
+		KeyOrderedExecutor executor = new KeyOrderedExecutor(processing(1, 100), null);
+
+		CompletableFuture<Thread> result = executor.submit("staff-1", () -> CompletableFuture.completedFuture(Thread.currentThread()));
+
+		assertThat(result).isCompletedWithValue(Thread.currentThread());
+	}
+
+	@Test
+	void blocksTheCallerWhileMaxInFlightTasksArePending() throws Exception {
+		KeyOrderedExecutor executor = new KeyOrderedExecutor(processing(1, 2), null);
+		CompletableFuture<String> first = new CompletableFuture<>();
+		executor.submit("staff-1", () -> first);
+		executor.submit("staff-2", CompletableFuture::new);
+
+		Future<CompletableFuture<String>> third = threads.submit(() ->
+				executor.submit("staff-3", () -> CompletableFuture.completedFuture("third")));
+
+		assertThatExceptionOfType(TimeoutException.class).isThrownBy(() -> third.get(200, TimeUnit.MILLISECONDS));
+		first.complete("first");
+		assertThat(third.get(5, TimeUnit.SECONDS)).isCompletedWithValue("third");
+	}
+
+	@Test
+	void runsEveryTaskOnItsOwnThreadInKeyOrder() throws Exception {
+		KeyOrderedExecutor executor = new KeyOrderedExecutor(processing(1, 100), threads);
+		CountDownLatch otherKeyStarted = new CountDownLatch(1);
+		Queue<String> started = new ConcurrentLinkedQueue<>();
+
+		List<CompletableFuture<String>> results = new ArrayList<>();
+		results.add(executor.submit("staff-1", () -> {
+			// blocks its key only, the task of the other key still starts
+			await(otherKeyStarted);
+			started.add("staff-1#0");
+			return CompletableFuture.completedFuture("staff-1#0");
+		}));
+		for (int i = 1; i < 20; i++) {
+			String task = "staff-1#" + i;
+			results.add(executor.submit("staff-1", () -> {
+				started.add(task);
+				return CompletableFuture.completedFuture(task);
+			}));
+		}
+		results.add(executor.submit("staff-2", () -> {
+			otherKeyStarted.countDown();
+			return CompletableFuture.completedFuture("staff-2#0");
+		}));
+
+		CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+		assertThat(started).hasSize(20).allMatch(task -> task.startsWith("staff-1#"));
+		assertThat(new ArrayList<>(started)).isSortedAccordingTo((a, b) ->
+				Integer.compare(Integer.parseInt(a.substring(8)), Integer.parseInt(b.substring(8))));
+	}
+
+	private static KafkaPropertiesConfig.Processing processing(int parallelism, int maxInFlight) {
+		KafkaPropertiesConfig.Processing processing = new KafkaPropertiesConfig.Processing();
+		processing.setParallelism(parallelism);
+		processing.setMaxInFlight(maxInFlight);
+		return processing;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.consumer;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.retry.RetryTierRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class PigeonKafkaConsumerServiceTests {
+
+	private static final Duration BACKOFF = Duration.ofMillis(1000);
+
+	private final LocalizationBatchProcessor processor = mock(LocalizationBatchProcessor.class);
+
+	private final RetryTierRouter retryTierRouter = mock(RetryTierRouter.class);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final PigeonKafkaConsumerService consumer = new PigeonKafkaConsumerService(processor,
+			mock(KafkaListenerEndpointRegistry.class), retryTierRouter, meterRegistry, BACKOFF.toMillis(), 2);
+
+	@Test
+	void commitsUpToTheFirstFailedRecordAndRedeliversTheRest() {
+		List<ConsumerRecord<String, LocalizationMessageEvent>> batch = records(10, 4);
+		when(processor.process(anyList(), eq(-1))).thenReturn(-1, 2);
+		Acknowledgment handled = mock(Acknowledgment.class);
+		Acknowledgment failed = mock(Acknowledgment.class);
+
+		consumer.consume(batch, handled);
+		consumer.consume(batch, failed);
+
+		verify(handled).acknowledge();
+		verify(failed).nack(2, BACKOFF);
+		verifyNoMoreInteractions(handled, failed);
+	}
+
+	@Test
+	void skipsARecordThatKeepsFailingWithoutRetryTiers() {
+		when(processor.process(anyList(), eq(-1))).thenReturn(1);
+		Acknowledgment ack = mock(Acknowledgment.class);
+
+		for (int i = 0; i < 3; i++) {
+			consumer.consume(records(10, 4), ack);
+		}
+
+		verify(ack, times(2)).nack(1, BACKOFF);
+		verify(ack).nack(2, Duration.ZERO);
+		assertThat(meterRegistry.counter("pigeon.kafka.records.skipped").count()).isEqualTo(1);
+
+		Acknowledgment last = mock(Acknowledgment.class);
+		for (int i = 0; i < 3; i++) {
+			consumer.consume(records(12, 2), last);
+		}
+		verify(last, times(2)).nack(1, BACKOFF);
+		verify(last).acknowledge();
+	}
+
+	@Test
+	void keepsRedeliveringWhenRetryTiersTakeOverFailedRecords() {
+		when(retryTierRouter.isEnabled()).thenReturn(true);
+		when(processor.process(anyList(), eq(-1))).thenReturn(1);
+		Acknowledgment ack = mock(Acknowledgment.class);
+
+		for (int i = 0; i < 5; i++) {
+			consumer.consume(records(10, 4), ack);
+		}
+
+		verify(ack, times(5)).nack(1, BACKOFF);
+		assertThat(meterRegistry.counter("pigeon.kafka.records.skipped").count()).isZero();
+	}
+
+	private static List<ConsumerRecord<String, LocalizationMessageEvent>> records(long firstOffset, int count) {
+		return LongStream.range(firstOffset, firstOffset + count)
+				.mapToObj(offset -> new ConsumerRecord<String, LocalizationMessageEvent>("pigeon-events", 0, offset, "key-" + offset,
+						LocalizationMessageEvent.builder().msgTemplateID("staff.not.found").build()))
+				.toList();
+	}
+}
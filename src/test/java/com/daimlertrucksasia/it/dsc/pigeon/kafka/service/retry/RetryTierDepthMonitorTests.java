@@ -0,0 +1,58 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.retry;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.config.KafkaPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer.PigeonKafkaProducerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@EmbeddedKafka(partitions = 1, topics = {"pigeon-events-retry-0", "pigeon-events-retry-1"})
+class RetryTierDepthMonitorTests {
+
+	@Test
+	void reportsTheLagOfTheConsumerGroupOnEveryTierTopic(EmbeddedKafkaBroker broker) throws Exception {
+		try (KafkaProducer<String, String> producer = new KafkaProducer<>(Map.of(
+				ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()), new StringSerializer(), new StringSerializer())) {
+			for (int i = 0; i < 3; i++) {
+				producer.send(new ProducerRecord<>("pigeon-events-retry-0", "key", "event")).get();
+			}
+			producer.send(new ProducerRecord<>("pigeon-events-retry-1", "key", "event")).get();
+		}
+
+		KafkaPropertiesConfig properties = new KafkaPropertiesConfig();
+		properties.setBootstrapServers(broker.getBrokersAsString());
+		properties.getRetryTopics().setDelays(List.of(Duration.ofSeconds(5), Duration.ofSeconds(30)));
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		RetryTierRouter router = new RetryTierRouter(mock(PigeonKafkaProducerService.class), properties, meterRegistry,
+				"pigeon-events");
+		RetryTierDepthMonitor monitor = new RetryTierDepthMonitor(router, properties, meterRegistry, "pigeon");
+
+		try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+			admin.alterConsumerGroupOffsets("pigeon",
+					Map.of(new TopicPartition("pigeon-events-retry-0", 0), new OffsetAndMetadata(1))).all().get();
+
+			monitor.refresh(admin);
+		} finally {
+			monitor.shutdown();
+		}
+
+		assertThat(meterRegistry.get("pigeon.kafka.retry.tier.depth").tag("tier", "0").gauge().value()).isEqualTo(2);
+		assertThat(meterRegistry.get("pigeon.kafka.retry.tier.depth").tag("tier", "1").gauge().value()).isEqualTo(1);
+	}
+}
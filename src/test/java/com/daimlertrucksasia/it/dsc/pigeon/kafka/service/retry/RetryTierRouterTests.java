@@ -0,0 +1,126 @@
+package com.daimlertrucksasia.it.dsc.pigeon.kafka.service.retry;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.config.KafkaPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.consumer.LocalizationBatchProcessor;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer.BatchSendResult;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.service.producer.PigeonKafkaProducerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetryTierRouterTests {
+
+	private final PigeonKafkaProducerService producer = mock(PigeonKafkaProducerService.class);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final RetryTierRouter router;
+
+	RetryTierRouterTests() {
+		KafkaPropertiesConfig properties = new KafkaPropertiesConfig();
+		properties.getRetryTopics().setDelays(List.of(Duration.ofSeconds(5), Duration.ofSeconds(30)));
+		router = new RetryTierRouter(producer, properties, meterRegistry, "pigeon-events");
+		when(producer.sendBatch(anyList(), anyInt())).thenAnswer(invocation ->
+				CompletableFuture.completedFuture(new BatchSendResult(new ArrayList<>(
+						Collections.nCopies(invocation.<List<?>>getArgument(0).size(), null)))));
+	}
+
+	@Test
+	void movesMainTopicFailuresToTheFirstTierWithOneSendAttempt() {
+		long before = System.currentTimeMillis();
+
+		router.forward(List.of(record("pigeon-events", null)), List.of(new IllegalArgumentException("bad args")), -1).join();
+
+		ProducerRecord<String, LocalizationMessageEvent> forwarded = sentRecord();
+		assertThat(forwarded.topic()).isEqualTo("pigeon-events-retry-0");
+		assertThat(forwarded.key()).isEqualTo("key");
+		assertThat(header(forwarded.headers(), RetryTierRouter.TIER_HEADER)).isEqualTo("0");
+		assertThat(header(forwarded.headers(), RetryTierRouter.ORIGINAL_TOPIC_HEADER)).isEqualTo("pigeon-events");
+		assertThat(header(forwarded.headers(), RetryTierRouter.EXCEPTION_HEADER)).isEqualTo("bad args");
+		assertThat(Long.parseLong(header(forwarded.headers(), RetryTierRouter.DUE_AT_HEADER)))
+				.isGreaterThanOrEqualTo(before + 5_000);
+		assertThat(meterRegistry.counter("pigeon.kafka.retry.tier.forwarded", "tier", "0").count()).isEqualTo(1);
+	}
+
+	@Test
+	void movesLastTierFailuresToTheDeadLetterTopic() {
+		router.forward(List.of(record("pigeon-events-retry-1", "1")), List.of(new IllegalStateException("down")), 1).join();
+
+		ProducerRecord<String, LocalizationMessageEvent> forwarded = sentRecord();
+		assertThat(forwarded.topic()).isEqualTo("pigeon-events-dlt");
+		assertThat(header(forwarded.headers(), RetryTierRouter.TIER_HEADER)).isEqualTo("dlt");
+		assertThat(header(forwarded.headers(), RetryTierRouter.ORIGINAL_TOPIC_HEADER)).isEqualTo("pigeon-events");
+		assertThat(meterRegistry.counter("pigeon.kafka.retry.dead.lettered").count()).isEqualTo(1);
+	}
+
+	@Test
+	void reprocessesDueRecordsAndRedeliversTheRestOnceDue() {
+		LocalizationBatchProcessor processor = mock(LocalizationBatchProcessor.class);
+		when(processor.process(anyList(), eq(0))).thenReturn(-1);
+		RetryTierListenerContainers containers = new RetryTierListenerContainers(
+				mock(ConcurrentKafkaListenerContainerFactory.class), processor, router, "pigeon", 1000);
+		long now = System.currentTimeMillis();
+		ConsumerRecord<String, LocalizationMessageEvent> due = record("pigeon-events-retry-0", "0");
+		due.headers().add(RetryTierRouter.DUE_AT_HEADER, String.valueOf(now - 1).getBytes(StandardCharsets.UTF_8));
+		ConsumerRecord<String, LocalizationMessageEvent> waiting = record("pigeon-events-retry-0", "0");
+		waiting.headers().add(RetryTierRouter.DUE_AT_HEADER, String.valueOf(now + 60_000).getBytes(StandardCharsets.UTF_8));
+		Acknowledgment ack = mock(Acknowledgment.class);
+
+		containers.onTierBatch(0, List.of(due, waiting), ack);
+
+		verify(processor).process(List.of(due), 0);
+		ArgumentCaptor<Duration> wait = ArgumentCaptor.forClass(Duration.class);
+		verify(ack).nack(eq(1), wait.capture());
+		assertThat(wait.getValue()).isGreaterThan(Duration.ofSeconds(50)).isLessThanOrEqualTo(Duration.ofSeconds(60));
+		verify(ack, never()).acknowledge();
+
+		Acknowledgment next = mock(Acknowledgment.class);
+		containers.onTierBatch(0, List.of(waiting), next);
+		verify(next).nack(eq(0), any(Duration.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	private ProducerRecord<String, LocalizationMessageEvent> sentRecord() {
+		ArgumentCaptor<List<ProducerRecord<String, LocalizationMessageEvent>>> sent = ArgumentCaptor.forClass(List.class);
+		verify(producer).sendBatch(sent.capture(), eq(1));
+		assertThat(sent.getValue()).hasSize(1);
+		return sent.getValue().get(0);
+	}
+
+	private static ConsumerRecord<String, LocalizationMessageEvent> record(String topic, String tier) {
+		ConsumerRecord<String, LocalizationMessageEvent> record = new ConsumerRecord<>(topic, 0, 0, "key",
+				LocalizationMessageEvent.builder().msgTemplateID("staff.not.found").build());
+		if (tier != null) {
+			record.headers().add(RetryTierRouter.TIER_HEADER, tier.getBytes(StandardCharsets.UTF_8));
+			record.headers().add(RetryTierRouter.ORIGINAL_TOPIC_HEADER, "pigeon-events".getBytes(StandardCharsets.UTF_8));
+		}
+		return record;
+	}
+
+	private static String header(Headers headers, String key) {
+		return new String(headers.lastHeader(key).value(), StandardCharsets.UTF_8);
+	}
+}
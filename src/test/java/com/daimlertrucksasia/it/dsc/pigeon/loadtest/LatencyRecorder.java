@@ -0,0 +1,88 @@
+package com.daimlertrucksasia.it.dsc.pigeon.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the latencies of the requests sent within a measurement window and the responses received within it.
+ * <p>
+ * Latencies are taken from the time a request was due to be sent, not the time it actually was, so the
+ * percentiles include any delay the driver suffered while the system under test was slow.
+ * </p>
+ */
+final class LatencyRecorder {
+
+	private final long windowStart;
+
+	private final long windowEnd;
+
+	private final LongAdder completedInWindow = new LongAdder();
+
+	private final LongAdder errors = new LongAdder();
+
+	private long[] latencies = new long[1 << 16];
+
+	private int count;
+
+	/**
+	 * @param windowStart start of the measurement window, in {@link System#nanoTime()}
+	 * @param windowEnd   end of the measurement window, in {@link System#nanoTime()}
+	 */
+	LatencyRecorder(long windowStart, long windowEnd) {
+		this.windowStart = windowStart;
+		this.windowEnd = windowEnd;
+	}
+
+	/**
+	 * @param intendedNanos the time the request was due to be sent
+	 * @param completedNanos the time its response was received
+	 */
+	void record(long intendedNanos, long completedNanos) {
+		if (completedNanos - windowStart >= 0 && completedNanos - windowEnd < 0) {
+			completedInWindow.increment();
+		}
+		if (intendedNanos - windowStart < 0 || intendedNanos - windowEnd >= 0) {
+			return;
+		}
+		synchronized (this) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = completedNanos - intendedNanos;
+		}
+	}
+
+	void error() {
+		errors.increment();
+	}
+
+	/**
+	 * @return responses received within the window per second
+	 */
+	double throughput() {
+		return completedInWindow.sum() * 1e9 / (windowEnd - windowStart);
+	}
+
+	long errors() {
+		return errors.sum();
+	}
+
+	synchronized int count() {
+		return count;
+	}
+
+	/**
+	 * @param percentile the percentile, e.g. {@code 99.9}
+	 * @return the latency below which the given share of the recorded requests completed, zero if none were
+	 */
+	synchronized Duration percentile(double percentile) {
+		if (count == 0) {
+			return Duration.ZERO;
+		}
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100 * count) - 1;
+		return Duration.ofNanos(sorted[Math.max(0, Math.min(count - 1, index))]);
+	}
+}
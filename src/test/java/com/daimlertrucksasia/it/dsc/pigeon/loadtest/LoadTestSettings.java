@@ -0,0 +1,60 @@
+package com.daimlertrucksasia.it.dsc.pigeon.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Scenario and thresholds of a load test run, read from {@code loadtest/load-test.properties} and overridden by
+ * system properties of the same name.
+ */
+final class LoadTestSettings {
+
+	static final String RESOURCE = "loadtest/load-test.properties";
+
+	private final Properties properties;
+
+	private LoadTestSettings(Properties properties) {
+		this.properties = properties;
+	}
+
+	static LoadTestSettings load() {
+		Properties properties = new Properties();
+		try (InputStream in = new ClassPathResource(RESOURCE).getInputStream()) {
+			properties.load(in);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Could not read " + RESOURCE, ex);
+		}
+		System.getProperties().stringPropertyNames().stream()
+				.filter(name -> name.startsWith("loadtest."))
+				.forEach(name -> properties.setProperty(name, System.getProperty(name)));
+		return new LoadTestSettings(properties);
+	}
+
+	int integer(String key) {
+		return Integer.parseInt(value(key));
+	}
+
+	Duration duration(String key) {
+		return DurationStyle.detectAndParse(value(key));
+	}
+
+	List<String> list(String key) {
+		return Arrays.stream(value(key).split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+	}
+
+	private String value(String key) {
+		String value = properties.getProperty(key);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing load test setting " + key);
+		}
+		return value.trim();
+	}
+}
@@ -0,0 +1,438 @@
+package com.daimlertrucksasia.it.dsc.pigeon.loadtest;
+
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.model.LocalizationMessageEvent;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.serde.LocalizationMessageEventDeserializer;
+import com.daimlertrucksasia.it.dsc.pigeon.kafka.serde.LocalizationMessageEventSerializer;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * End-to-end load test of the consume, resolve and produce pipeline and of the GraphQL endpoint.
+ * <p>
+ * Starts Pigeon against an embedded Kafka broker and a MongoDB container, seeds a catalog and offers
+ * localization requests on the consumer topic and {@code resolveMessages} queries at fixed rates. Reports
+ * throughput, p50/p99/p999 latency and the consumer lag of the measured window to the log and to
+ * {@code target/load-test-report.json}, and fails if any of them is worse than the thresholds of
+ * {@code loadtest/load-test.properties}.
+ * </p>
+ * <p>
+ * The report also records whether Pigeon ran on virtual threads and every {@code jdk.VirtualThreadPinned} event of
+ * the run, by the innermost Pigeon frame of the pinned thread; the run fails if Pigeon's own code pinned a carrier
+ * thread more often than allowed. Run it once plain and once with the {@code virtual-threads} profile on a Java 21
+ * runtime to compare both modes; that profile writes its report to {@code target/load-test-report-virtual-threads.json}
+ * so both reports are kept side by side.
+ * </p>
+ * <p>
+ * Tagged {@code load} and only run by the {@code load-test} Maven profile. Pigeon settings such as
+ * {@code -Dlocalization.snapshot.enabled=true} can be passed as system properties to load test a configuration.
+ * </p>
+ */
+@Slf4j
+@Tag("load")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EmbeddedKafka(partitions = PipelineLoadTests.PARTITIONS, topics = {PipelineLoadTests.REQUEST_TOPIC, PipelineLoadTests.RESOLVED_TOPIC},
+		bootstrapServersProperty = "spring.pigeon.kafka.bootstrap-servers")
+class PipelineLoadTests {
+
+	static final int PARTITIONS = 6;
+
+	static final String REQUEST_TOPIC = "pigeon-load-events";
+
+	static final String RESOLVED_TOPIC = "pigeon-load-resolved-events";
+
+	static final String GROUP_ID = "pigeon-load";
+
+	static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	static final String OUTSIDE_PIGEON = "outside Pigeon";
+
+	@Container
+	static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+	private final LoadTestSettings settings = LoadTestSettings.load();
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private EmbeddedKafkaBroker broker;
+
+	@Autowired
+	private Environment environment;
+
+	@LocalServerPort
+	private int port;
+
+	private List<String> locales;
+
+	private int templates;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("spring.data.mongodb.uri", () -> mongo.getReplicaSetUrl("pigeon-load"));
+		registry.add("spring.pigeon.kafka.consumer.topic", () -> REQUEST_TOPIC);
+		registry.add("spring.pigeon.kafka.consumer.group-id", () -> GROUP_ID);
+		registry.add("spring.pigeon.kafka.consumer[auto.offset.reset]", () -> "earliest");
+		registry.add("spring.pigeon.kafka.producer.topic", () -> RESOLVED_TOPIC);
+		registry.add("spring.pigeon.kafka.retry-topics.enabled", () -> false);
+		registry.add("eureka.client.enabled", () -> false);
+	}
+
+	@Test
+	void pipelineMeetsThresholds() throws Exception {
+		locales = settings.list("loadtest.catalog.locales");
+		templates = settings.integer("loadtest.catalog.templates");
+		seedCatalog();
+
+		long start = System.nanoTime();
+		long windowStart = start + settings.duration("loadtest.warm-up").toNanos();
+		long windowEnd = windowStart + settings.duration("loadtest.duration").toNanos();
+		LatencyRecorder kafka = new LatencyRecorder(windowStart, windowEnd);
+		LatencyRecorder graphql = new LatencyRecorder(windowStart, windowEnd);
+		Map<String, Long> pending = new ConcurrentHashMap<>();
+		Queue<CompletableFuture<?>> queries = new ConcurrentLinkedQueue<>();
+		AtomicLong maxLag = new AtomicLong();
+		AtomicBoolean collecting = new AtomicBoolean(true);
+		Map<String, LongAdder> pinned = new ConcurrentHashMap<>();
+
+		ExecutorService drivers = Executors.newFixedThreadPool(3);
+		ScheduledExecutorService lagSampler = Executors.newSingleThreadScheduledExecutor();
+		try (RecordingStream pinning = pinnedThreads(pinned);
+			 KafkaProducer<String, LocalizationMessageEvent> producer = producer();
+			 AdminClient admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+			Future<?> collector = drivers.submit(() -> collectResolved(pending, kafka, collecting));
+			lagSampler.scheduleAtFixedRate(() -> {
+				long now = System.nanoTime();
+				if (now - windowStart >= 0 && now - windowEnd < 0) {
+					maxLag.accumulateAndGet(consumerLag(admin), Math::max);
+				}
+			}, 0, 250, TimeUnit.MILLISECONDS);
+
+			int kafkaRate = settings.integer("loadtest.kafka.rate");
+			int keys = settings.integer("loadtest.kafka.keys");
+			Future<Long> kafkaDriver = drivers.submit(() -> drive(kafkaRate, start, windowEnd,
+					(i, intended) -> sendRequest(producer, pending, kafka, i, intended, keys)));
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			int messagesPerRequest = settings.integer("loadtest.graphql.messages-per-request");
+			Future<Long> graphqlDriver = drivers.submit(() -> drive(settings.integer("loadtest.graphql.rate"), start, windowEnd,
+					(i, intended) -> queries.add(query(client, graphql, i, intended, messagesPerRequest))));
+
+			long kafkaSent = kafkaDriver.get();
+			long graphqlSent = graphqlDriver.get();
+			producer.flush();
+			long drainDeadline = System.nanoTime() + settings.duration("loadtest.drain-timeout").toNanos();
+			while (!pending.isEmpty() && System.nanoTime() - drainDeadline < 0) {
+				Thread.sleep(100);
+			}
+			try {
+				CompletableFuture.allOf(queries.toArray(CompletableFuture[]::new))
+						.get(Math.max(0, drainDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException ex) {
+				log.warn("GraphQL requests still outstanding after the drain timeout");
+			}
+			collecting.set(false);
+			collector.get();
+
+			report(kafka, kafkaSent, pending.size(), maxLag.get(), graphql, graphqlSent,
+					queries.stream().filter(query -> !query.isDone()).count(), pinned);
+		} finally {
+			lagSampler.shutdownNow();
+			drivers.shutdownNow();
+		}
+	}
+
+	private void seedCatalog() {
+		List<LocalizedMessageEntity> chunk = new ArrayList<>(1_000);
+		for (int template = 0; template < templates; template++) {
+			for (String locale : locales) {
+				chunk.add(LocalizedMessageEntity.builder()
+						.msgTemplateID(templateId(template))
+						.locale(locale)
+						.message("Load test message " + template + " (" + locale + ") for request {0}")
+						.serviceConsumerID("load-test")
+						.build());
+				if (chunk.size() == 1_000) {
+					mongoTemplate.insert(chunk, LocalizedMessageEntity.class);
+					chunk.clear();
+				}
+			}
+		}
+		if (!chunk.isEmpty()) {
+			mongoTemplate.insert(chunk, LocalizedMessageEntity.class);
+		}
+		log.info("Seeded {} templates in {} locales", templates, locales.size());
+	}
+
+	/**
+	 * Calls {@code request} at a fixed rate from {@code start} until {@code end}, without catching up on the
+	 * latency of slow calls by sending faster.
+	 *
+	 * @return the number of requests sent
+	 */
+	private static long drive(int rate, long start, long end, Request request) {
+		long sent = 0;
+		for (long intended = start; intended - end < 0; intended = start + sent * 1_000_000_000L / rate) {
+			long wait = intended - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			request.send(sent++, intended);
+		}
+		return sent;
+	}
+
+	private void sendRequest(KafkaProducer<String, LocalizationMessageEvent> producer, Map<String, Long> pending,
+							 LatencyRecorder recorder, long i, long intended, int keys) {
+		String requestId = "load-" + i;
+		LocalizationMessageEvent event = LocalizationMessageEvent.builder()
+				.requestId(requestId)
+				.sourceService("load-test")
+				.msgTemplateID(templateId(i))
+				.locale(locales.get((int) (i % locales.size())))
+				.args(new Object[]{i})
+				.timestamp(System.currentTimeMillis())
+				.build();
+		pending.put(requestId, intended);
+		producer.send(new ProducerRecord<>(REQUEST_TOPIC, "key-" + i % keys, event), (metadata, ex) -> {
+			if (ex != null && pending.remove(requestId) != null) {
+				recorder.error();
+			}
+		});
+	}
+
+	private CompletableFuture<?> query(HttpClient client, LatencyRecorder recorder, long i, long intended, int messages) {
+		StringBuilder requests = new StringBuilder();
+		for (int m = 0; m < messages; m++) {
+			long message = i * messages + m;
+			requests.append(m == 0 ? "" : ",")
+					.append("{msgTemplateID:\\\"").append(templateId(message))
+					.append("\\\",locale:\\\"").append(locales.get((int) (message % locales.size())))
+					.append("\\\",args:[\\\"").append(message).append("\\\"]}");
+		}
+		String body = "{\"query\":\"{resolveMessages(requests:[" + requests + "]){message}}\"}";
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/graphql"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, ex) -> {
+			long completed = System.nanoTime();
+			if (ex != null || response.statusCode() != 200 || response.body().contains("\"errors\"")) {
+				recorder.error();
+			} else {
+				recorder.record(intended, completed);
+			}
+		});
+	}
+
+	private void collectResolved(Map<String, Long> pending, LatencyRecorder recorder, AtomicBoolean collecting) {
+		Map<String, Object> config = Map.of(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+				ConsumerConfig.GROUP_ID_CONFIG, "pigeon-load-collector",
+				ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+				ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+				ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, LocalizationMessageEventDeserializer.class);
+		try (KafkaConsumer<String, LocalizationMessageEvent> consumer = new KafkaConsumer<>(config)) {
+			consumer.subscribe(List.of(RESOLVED_TOPIC));
+			while (collecting.get()) {
+				for (ConsumerRecord<String, LocalizationMessageEvent> record : consumer.poll(Duration.ofMillis(100))) {
+					long completed = System.nanoTime();
+					Long intended = pending.remove(record.value().getRequestId());
+					if (intended == null) {
+						continue;
+					}
+					if (record.value().getResolvedMessage() == null) {
+						recorder.error();
+					} else {
+						recorder.record(intended, completed);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of request records not yet committed by Pigeon's consumer group
+	 */
+	private static long consumerLag(AdminClient admin) {
+		try {
+			Map<TopicPartition, OffsetAndMetadata> committed =
+					admin.listConsumerGroupOffsets(GROUP_ID).partitionsToOffsetAndMetadata().get();
+			Map<TopicPartition, OffsetSpec> latest = new LinkedHashMap<>();
+			IntStream.range(0, PARTITIONS).forEach(partition -> latest.put(new TopicPartition(REQUEST_TOPIC, partition), OffsetSpec.latest()));
+			long lag = 0;
+			for (var end : admin.listOffsets(latest).all().get().entrySet()) {
+				OffsetAndMetadata offset = committed.get(end.getKey());
+				lag += end.getValue().offset() - (offset == null ? 0 : offset.offset());
+			}
+			return lag;
+		} catch (Exception ex) {
+			log.debug("Could not sample the consumer lag: {}", ex.getMessage());
+			return 0;
+		}
+	}
+
+	/**
+	 * Streams the {@value #PINNED_EVENT} events of the run into {@code pinned}, counted by the innermost Pigeon frame
+	 * of the pinned thread. Receives no events before Java 21.
+	 */
+	private static RecordingStream pinnedThreads(Map<String, LongAdder> pinned) {
+		RecordingStream stream = new RecordingStream();
+		stream.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+		stream.onEvent(PINNED_EVENT, event -> pinned.computeIfAbsent(pigeonFrame(event), frame -> new LongAdder()).increment());
+		stream.startAsync();
+		return stream;
+	}
+
+	private static String pigeonFrame(RecordedEvent event) {
+		if (event.getStackTrace() != null) {
+			for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+				String type = frame.getMethod().getType().getName();
+				if (type.startsWith("com.daimlertrucksasia.")) {
+					return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+				}
+			}
+		}
+		return OUTSIDE_PIGEON;
+	}
+
+	private void report(LatencyRecorder kafka, long kafkaSent, long kafkaLost, long maxLag,
+						LatencyRecorder graphql, long graphqlSent, long graphqlLost, Map<String, LongAdder> pinned) throws Exception {
+		Map<String, Object> kafkaReport = channelReport(kafka, kafkaSent, kafkaLost);
+		kafkaReport.put("maxConsumerLag", maxLag);
+		Map<String, Long> pinnedByFrame = new TreeMap<>();
+		pinned.forEach((frame, count) -> pinnedByFrame.put(frame, count.sum()));
+		long pinnedInPigeon = pinnedByFrame.entrySet().stream()
+				.filter(entry -> !OUTSIDE_PIGEON.equals(entry.getKey()))
+				.mapToLong(Map.Entry::getValue)
+				.sum();
+		Map<String, Object> runtime = new LinkedHashMap<>();
+		runtime.put("javaVersion", Runtime.version().toString());
+		runtime.put("virtualThreads", Threading.VIRTUAL.isActive(environment));
+		runtime.put("pinnedVirtualThreads", pinnedByFrame);
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("runtime", runtime);
+		report.put("kafka", kafkaReport);
+		report.put("graphql", channelReport(graphql, graphqlSent, graphqlLost));
+		Path file = Path.of(System.getProperty("loadtest.report", "target/load-test-report.json"));
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		String json = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report);
+		Files.writeString(file, json);
+		log.info("Load test report written to {}:\n{}", file, json);
+
+		SoftAssertions softly = new SoftAssertions();
+		assertChannel(softly, "kafka", kafka, kafkaLost);
+		softly.assertThat(maxLag).as("kafka max consumer lag").isLessThanOrEqualTo(settings.integer("loadtest.threshold.kafka.max-lag"));
+		assertChannel(softly, "graphql", graphql, graphqlLost);
+		softly.assertThat(pinnedInPigeon).as("virtual threads pinned in Pigeon code")
+				.isLessThanOrEqualTo(settings.integer("loadtest.threshold.max-pinned-in-pigeon"));
+		softly.assertAll();
+	}
+
+	private static Map<String, Object> channelReport(LatencyRecorder recorder, long sent, long lost) {
+		Map<String, Object> channel = new LinkedHashMap<>();
+		channel.put("sent", sent);
+		channel.put("measured", recorder.count());
+		channel.put("errors", recorder.errors());
+		channel.put("withoutResponse", lost);
+		channel.put("throughputPerSecond", Math.round(recorder.throughput()));
+		channel.put("p50Millis", millis(recorder.percentile(50)));
+		channel.put("p99Millis", millis(recorder.percentile(99)));
+		channel.put("p999Millis", millis(recorder.percentile(99.9)));
+		return channel;
+	}
+
+	private void assertChannel(SoftAssertions softly, String channel, LatencyRecorder recorder, long lost) {
+		String thresholds = "loadtest.threshold." + channel + ".";
+		softly.assertThat(recorder.errors()).as(channel + " errors").isZero();
+		softly.assertThat(lost).as(channel + " requests without response").isZero();
+		softly.assertThat(recorder.throughput()).as(channel + " throughput")
+				.isGreaterThanOrEqualTo(settings.integer(thresholds + "min-throughput"));
+		softly.assertThat(recorder.percentile(50)).as(channel + " p50").isLessThanOrEqualTo(settings.duration(thresholds + "p50"));
+		softly.assertThat(recorder.percentile(99)).as(channel + " p99").isLessThanOrEqualTo(settings.duration(thresholds + "p99"));
+		softly.assertThat(recorder.percentile(99.9)).as(channel + " p999").isLessThanOrEqualTo(settings.duration(thresholds + "p999"));
+	}
+
+	private KafkaProducer<String, LocalizationMessageEvent> producer() {
+		return new KafkaProducer<>(Map.of(
+				ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+				ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+				ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, LocalizationMessageEventSerializer.class,
+				ProducerConfig.LINGER_MS_CONFIG, 1));
+	}
+
+	private String templateId(long i) {
+		return "load.template." + (i * 7_919 % templates);
+	}
+
+	private static double millis(Duration duration) {
+		return duration.toNanos() / 10_000 / 100.0;
+	}
+
+	@FunctionalInterface
+	private interface Request {
+
+		void send(long i, long intendedNanos);
+	}
+}
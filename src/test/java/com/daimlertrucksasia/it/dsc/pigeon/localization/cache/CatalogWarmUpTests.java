@@ -0,0 +1,70 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotManager;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogWarmUpTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+	private final CatalogSnapshotManager snapshotManager = mock(CatalogSnapshotManager.class);
+
+	private final LocalizationPropertiesConfig properties = new LocalizationPropertiesConfig();
+
+	private final MessageTemplateCache templateCache = new MessageTemplateCache(properties.getCache());
+
+	@SuppressWarnings("unchecked")
+	private final CatalogWarmUp warmUp = new CatalogWarmUp(mongoTemplate, templateCache, properties,
+			mock(ApplicationEventPublisher.class), mock(ObjectProvider.class), snapshotManager);
+
+	CatalogWarmUpTests() {
+		properties.getWarmUp().setEnabled(true);
+		when(mongoTemplate.stream(any(Query.class), eq(LocalizedMessageEntity.class)))
+				.thenReturn(Stream.of(template("staff.not.found", "ja", "スタッフ {0} が見つかりません"),
+						template("staff.not.valid", "en", "Staff {0 is invalid")));
+	}
+
+	@Test
+	void loadsTheStoredLocaleOfEveryValidTemplate() {
+		when(snapshotManager.initialBuild()).thenReturn(CompletableFuture.completedFuture(null));
+
+		warmUp.run(new DefaultApplicationArguments());
+
+		assertThat(templateCache.get(TemplateKey.of("staff.not.found", "ja")).getTemplate().format(new Object[]{7}))
+				.isEqualTo("スタッフ 7 が見つかりません");
+		assertThat(templateCache.get(TemplateKey.of("staff.not.found", "ja-JP"))).isNull();
+		assertThat(templateCache.get(TemplateKey.of("staff.not.valid", "en"))).isNull();
+	}
+
+	@Test
+	void waitsForTheFirstSnapshotBuiltFromTheDatabase() {
+		CompletableFuture<Void> initialBuild = new CompletableFuture<>();
+		when(snapshotManager.initialBuild()).thenReturn(initialBuild);
+
+		warmUp.run(new DefaultApplicationArguments());
+		assertThat(templateCache.get(TemplateKey.of("staff.not.found", "ja"))).isNull();
+
+		initialBuild.complete(null);
+		assertThat(templateCache.get(TemplateKey.of("staff.not.found", "ja"))).isNotNull();
+	}
+
+	private static LocalizedMessageEntity template(String msgTemplateID, String locale, String message) {
+		return LocalizedMessageEntity.builder().msgTemplateID(msgTemplateID).locale(locale).message(message).build();
+	}
+}
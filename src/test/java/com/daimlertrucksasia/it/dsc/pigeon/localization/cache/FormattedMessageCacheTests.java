@@ -0,0 +1,106 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.format.CompiledTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FormattedMessageCacheTests {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final MessageTemplateCache templateCache =
+			new MessageTemplateCache(true, 10, Duration.ofSeconds(10), Duration.ofSeconds(1), clock::get);
+
+	private final AtomicInteger formatted = new AtomicInteger();
+
+	private final FormattedMessageCache cache;
+
+	FormattedMessageCacheTests() {
+		LocalizationPropertiesConfig.OutputCache properties = new LocalizationPropertiesConfig.OutputCache();
+		properties.setEnabled(true);
+		properties.setMaximumSize(8);
+		properties.setMaxArgLength(8);
+		properties.setSampleSize(4);
+		properties.setMinHitRatio(0.5);
+		cache = new FormattedMessageCache(properties, templateCache, clock::get);
+	}
+
+	@Test
+	void servesRepeatedResolutionsUntilTemplatesChange() {
+		assertThat(resolve("staff.not.found", 42)).isEqualTo("staff.not.found[42]");
+		assertThat(resolve("staff.not.found", 42)).isEqualTo("staff.not.found[42]");
+		assertThat(formatted).hasValue(1);
+		assertThat(cache.hitCount()).isEqualTo(1);
+
+		templateCache.evictTemplate("staff.not.found");
+		resolve("staff.not.found", 42);
+		assertThat(formatted).hasValue(2);
+
+		clock.addAndGet(Duration.ofSeconds(11).toNanos());
+		resolve("staff.not.found", 42);
+		assertThat(formatted).hasValue(3);
+
+		resolve("staff.not.found", "a-long-argument");
+		resolve("staff.not.found", "a-long-argument");
+		assertThat(formatted).hasValue(5);
+		assertThat(cache.missCount()).isEqualTo(3);
+	}
+
+	@Test
+	void expiresNoLaterThanTheTemplateEntryItWasFormattedFrom() {
+		templateCache.put(TemplateKey.of("staff.not.found", "en"), CompiledTemplate.compile("staff.not.found[{0}]", Locale.ENGLISH));
+		clock.addAndGet(Duration.ofSeconds(8).toNanos());
+		resolve("staff.not.found", 42);
+		clock.addAndGet(Duration.ofSeconds(3).toNanos());
+		resolve("staff.not.found", 42);
+		assertThat(formatted).hasValue(2);
+
+		TemplateKey unknown = TemplateKey.of("staff.misspelled", "en");
+		MessageTemplateCache.Entry notFound = templateCache.putNotFound(unknown);
+		cache.resolve(unknown.getMsgTemplateID(), "en", new Object[]{1}, () -> notFound, entry -> "No message found");
+		clock.addAndGet(Duration.ofSeconds(2).toNanos());
+		cache.resolve(unknown.getMsgTemplateID(), "en", new Object[]{1}, () -> notFound, entry -> "No message found");
+		assertThat(cache.hitCount()).isZero();
+		assertThat(cache.missCount()).isEqualTo(4);
+	}
+
+	@Test
+	void bypassesTemplatesWithHighCardinalityArguments() {
+		for (int i = 0; i < 4; i++) {
+			resolve("staff.not.valid", i);
+		}
+		resolve("staff.not.valid", 0);
+
+		assertThat(cache.bypassCount()).isEqualTo(1);
+		assertThat(cache.missCount()).isEqualTo(4);
+		assertThat(formatted).hasValue(5);
+	}
+
+	@Test
+	void keepsSamplersOfRecentlyResolvedTemplatesOnly() {
+		for (int i = 0; i < 100; i++) {
+			resolve("staff.misspelled." + i, 1);
+		}
+
+		assertThat(cache.samplerCount()).isEqualTo(8);
+		assertThat(cache.size()).isEqualTo(8);
+	}
+
+	private String resolve(String msgTemplateID, Object arg) {
+		TemplateKey key = TemplateKey.of(msgTemplateID, "en");
+		return cache.resolve(msgTemplateID, "en", new Object[]{arg}, () -> {
+			MessageTemplateCache.Entry entry = templateCache.get(key);
+			return entry != null ? entry : templateCache.put(key, CompiledTemplate.compile(msgTemplateID + "[{0}]", Locale.ENGLISH));
+		}, entry -> {
+			formatted.incrementAndGet();
+			return msgTemplateID + "[" + arg + "]";
+		});
+	}
+}
@@ -0,0 +1,79 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.format.CompiledTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageTemplateCacheTests {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final MessageTemplateCache cache =
+			new MessageTemplateCache(true, 2, Duration.ofSeconds(10), Duration.ofSeconds(1), clock::get);
+
+	@Test
+	void cachesFoundAndNotFoundEntries() {
+		TemplateKey found = TemplateKey.of("staff.not.found.by.user.id", "en");
+		TemplateKey missing = TemplateKey.of("staff.unknown", "en");
+
+		cache.put(found, CompiledTemplate.compile("Staff {0} not found", Locale.ENGLISH));
+		cache.putNotFound(missing);
+
+		assertThat(cache.get(found).isFound()).isTrue();
+		assertThat(cache.get(missing).isFound()).isFalse();
+		assertThat(cache.get(TemplateKey.of("staff.not.valid", "en"))).isNull();
+
+		TemplateCacheStats stats = cache.stats();
+		assertThat(stats.getHits()).isEqualTo(1);
+		assertThat(stats.getNegativeHits()).isEqualTo(1);
+		assertThat(stats.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedEntry() {
+		TemplateKey first = TemplateKey.of("a", "en");
+		TemplateKey second = TemplateKey.of("b", "en");
+		TemplateKey third = TemplateKey.of("c", "en");
+
+		cache.put(first, CompiledTemplate.compile("a", Locale.ENGLISH));
+		cache.put(second, CompiledTemplate.compile("b", Locale.ENGLISH));
+		cache.get(first);
+		cache.put(third, CompiledTemplate.compile("c", Locale.ENGLISH));
+
+		assertThat(cache.get(second)).isNull();
+		assertThat(cache.get(first)).isNotNull();
+		assertThat(cache.stats().getEvictions()).isEqualTo(1);
+	}
+
+	@Test
+	void expiresEntriesAfterTheirTtl() {
+		TemplateKey found = TemplateKey.of("a", "en");
+		TemplateKey missing = TemplateKey.of("b", "en");
+
+		cache.put(found, CompiledTemplate.compile("a", Locale.ENGLISH));
+		cache.putNotFound(missing);
+		clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+		assertThat(cache.get(missing)).isNull();
+		assertThat(cache.get(found)).isNotNull();
+
+		clock.addAndGet(Duration.ofSeconds(10).toNanos());
+		assertThat(cache.get(found)).isNull();
+		assertThat(cache.stats().getExpirations()).isEqualTo(2);
+	}
+
+	@Test
+	void evictsAllLocalesOfATemplate() {
+		cache.put(TemplateKey.of("a", "en"), CompiledTemplate.compile("a", Locale.ENGLISH));
+		cache.put(TemplateKey.of("a", "ja"), CompiledTemplate.compile("a", Locale.ENGLISH));
+
+		cache.evictTemplate("a");
+
+		assertThat(cache.stats().getSize()).isZero();
+	}
+}
@@ -0,0 +1,118 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTests {
+
+	@Test
+	void concurrentCallersShareOneLoad() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch leaderStarted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.load("staff.not.found", () -> {
+				loads.incrementAndGet();
+				leaderStarted.countDown();
+				await(release);
+				return "Staff {0} not found";
+			}), executor);
+			leaderStarted.await(5, TimeUnit.SECONDS);
+
+			List<CompletableFuture<String>> followers = new ArrayList<>();
+			for (int i = 0; i < 7; i++) {
+				followers.add(CompletableFuture.supplyAsync(() -> singleFlight.load("staff.not.found", () -> {
+					loads.incrementAndGet();
+					return "loaded again";
+				}), executor));
+			}
+			while (singleFlight.coalescedCount() < 7) {
+				Thread.onSpinWait();
+			}
+			release.countDown();
+
+			assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Staff {0} not found");
+			for (CompletableFuture<String> follower : followers) {
+				assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("Staff {0} not found");
+			}
+			assertThat(loads).hasValue(1);
+			assertThat(singleFlight.timeoutCount()).isZero();
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void callerLoadsItselfWhenInFlightLoadTimesOut() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofMillis(50));
+		CountDownLatch leaderStarted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.load("a", () -> {
+			leaderStarted.countDown();
+			await(release);
+			return "slow";
+		}));
+		try {
+			leaderStarted.await(5, TimeUnit.SECONDS);
+
+			Map<String, String> values = singleFlight.loadAll(List.of("a", "b"),
+					keys -> keys.stream().collect(Collectors.toMap(key -> key, key -> "fast " + key)));
+
+			assertThat(values).containsEntry("a", "fast a").containsEntry("b", "fast b");
+			assertThat(singleFlight.coalescedCount()).isEqualTo(1);
+			assertThat(singleFlight.timeoutCount()).isEqualTo(1);
+		} finally {
+			release.countDown();
+		}
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+	}
+
+	@Test
+	void asyncCallersShareOneLoadWithoutBlocking() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+		AtomicInteger loads = new AtomicInteger();
+		CompletableFuture<Map<String, String>> query = new CompletableFuture<>();
+
+		CompletableFuture<Map<String, String>> leader = singleFlight.loadAllAsync(List.of("a", "b"), keys -> {
+			loads.incrementAndGet();
+			return query;
+		});
+		CompletableFuture<Map<String, String>> follower = singleFlight.loadAllAsync(List.of("b"), keys -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture(Map.of("b", "loaded again"));
+		});
+		assertThat(leader).isNotDone();
+		assertThat(follower).isNotDone();
+
+		query.complete(Map.of("a", "value a", "b", "value b"));
+
+		assertThat(leader.get(5, TimeUnit.SECONDS)).containsEntry("a", "value a").containsEntry("b", "value b");
+		assertThat(follower.get(5, TimeUnit.SECONDS)).containsExactly(Map.entry("b", "value b"));
+		assertThat(loads).hasValue(1);
+		assertThat(singleFlight.coalescedCount()).isEqualTo(1);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.cache;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.format.CompiledTemplate;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateChangedEvent;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a single-node replica set, which change streams require.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TemplateChangeStreamWatcherTests {
+
+	@Container
+	static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+	private final TemplateKey key = TemplateKey.of("staff.not.found", "en");
+
+	private MongoClient client;
+
+	private MongoTemplate mongoTemplate;
+
+	private MessageTemplateCache cache;
+
+	private LocalizationPropertiesConfig properties;
+
+	private TemplateChangeStreamWatcher watcher;
+
+	@BeforeEach
+	void setUp() {
+		client = MongoClients.create(mongo.getReplicaSetUrl("pigeon"));
+		mongoTemplate = new MongoTemplate(client, "pigeon");
+		mongoTemplate.dropCollection(LocalizedMessageEntity.class);
+		mongoTemplate.dropCollection("Localized_Message_Resume_Token");
+		mongoTemplate.insert(LocalizedMessageEntity.builder().msgTemplateID("staff.not.found").locale("en").message("Staff {0} not found").build());
+
+		properties = new LocalizationPropertiesConfig();
+		properties.getChangeStream().setEnabled(true);
+		properties.getChangeStream().setNodeId("node-1");
+		properties.getChangeStream().setTokenSaveInterval(Duration.ZERO);
+		cache = new MessageTemplateCache(properties.getCache());
+		watcher = newWatcher();
+	}
+
+	@AfterEach
+	void tearDown() {
+		watcher.stop();
+		client.close();
+	}
+
+	@Test
+	void evictsTemplatesChangedByAnyInstance() {
+		watcher.start();
+		awaitResumeTokenSaved();
+		cache.put(key, CompiledTemplate.compile("Staff {0} not found", Locale.ENGLISH));
+
+		updateMessage("Staff {0} does not exist");
+
+		await(() -> cache.get(key) == null);
+	}
+
+	@Test
+	void evictsChangesMadeWhileStoppedAfterRestart() {
+		watcher.start();
+		awaitResumeTokenSaved();
+		watcher.stop();
+
+		updateMessage("Staff {0} does not exist");
+		cache.put(key, CompiledTemplate.compile("Staff {0} not found", Locale.ENGLISH));
+		watcher = newWatcher();
+		watcher.start();
+
+		await(() -> cache.get(key) == null);
+	}
+
+	private TemplateChangeStreamWatcher newWatcher() {
+		TemplateCacheEvictionListener listener = new TemplateCacheEvictionListener(cache);
+		return new TemplateChangeStreamWatcher(mongoTemplate, cache,
+				event -> listener.onTemplatesChanged((MessageTemplateChangedEvent) event), properties);
+	}
+
+	private void updateMessage(String message) {
+		mongoTemplate.updateFirst(Query.query(Criteria.where("msgTemplateID").is("staff.not.found")),
+				Update.update("message", message), LocalizedMessageEntity.class);
+	}
+
+	private void awaitResumeTokenSaved() {
+		await(() -> mongoTemplate.getCollection("Localized_Message_Resume_Token").countDocuments() > 0);
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition not met within 15s").isLessThan(deadline);
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+class CatalogSnapshotFileTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void mappedSnapshotServesWrittenCatalog() throws IOException {
+		Map<TemplateKey, String> messages = new HashMap<>();
+		for (int i = 0; i < 500; i++) {
+			messages.put(TemplateKey.of("template." + i, "en"), "Template {0} number " + i);
+		}
+		messages.put(TemplateKey.of("staff.not.found", "ja"), "スタッフ {0} が見つかりません");
+		CatalogSnapshot snapshot = CatalogSnapshot.of(42, messages);
+		Path file = directory.resolve("catalog.snapshot");
+
+		CatalogSnapshotFile.write(snapshot, file);
+		CatalogSnapshot mapped = CatalogSnapshotFile.load(file);
+
+		assertThat(mapped.getVersion()).isEqualTo(42);
+		assertThat(mapped.getCreatedAt().toEpochMilli()).isEqualTo(snapshot.getCreatedAt().toEpochMilli());
+		assertThat(mapped.size()).isEqualTo(501);
+		assertThat(mapped.message("template.123", "en")).isEqualTo("Template {0} number 123");
+		assertThat(mapped.message("staff.not.found", "ja")).isEqualTo("スタッフ {0} が見つかりません");
+		assertThat(mapped.message("staff.not.found", "en")).isNull();
+		Map<TemplateKey, String> copied = new HashMap<>();
+		mapped.forEach(copied::put);
+		assertThat(copied).isEqualTo(messages);
+	}
+
+	@Test
+	void rejectsCorruptFile() throws IOException {
+		Path file = directory.resolve("catalog.snapshot");
+		CatalogSnapshotFile.write(CatalogSnapshot.of(1, Map.of(TemplateKey.of("staff.not.found", "en"), "Staff {0} not found")), file);
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 0x20;
+		Files.write(file, bytes);
+
+		assertThatIOException().isThrownBy(() -> CatalogSnapshotFile.load(file)).withMessageContaining("checksum");
+	}
+}
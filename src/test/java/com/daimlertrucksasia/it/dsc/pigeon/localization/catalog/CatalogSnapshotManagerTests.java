@@ -0,0 +1,87 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSnapshotManagerTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+	private final CatalogSnapshotManager manager;
+
+	CatalogSnapshotManagerTests() {
+		LocalizationPropertiesConfig properties = new LocalizationPropertiesConfig();
+		properties.getSnapshot().setEnabled(true);
+		manager = new CatalogSnapshotManager(mongoTemplate, new MessageTemplateCache(properties.getCache()), properties);
+	}
+
+	@AfterEach
+	void shutdown() {
+		manager.shutdown();
+	}
+
+	@Test
+	void refreshSwapsInNewVersionAndRollbackRestoresPrevious() {
+		when(mongoTemplate.stream(any(Query.class), eq(LocalizedMessageEntity.class)))
+				.thenReturn(Stream.of(template("staff.not.found", "en", "Staff {0} not found")))
+				.thenReturn(Stream.of(template("staff.not.found", "en", "Staff {0} does not exist"),
+						template("staff.not.found", "ja", "スタッフ {0} が見つかりません")));
+
+		CatalogSnapshot first = manager.refresh();
+		CatalogSnapshot second = manager.refresh();
+
+		assertThat(second.getVersion()).isGreaterThan(first.getVersion());
+		assertThat(manager.current()).isSameAs(second);
+		assertThat(second.message("staff.not.found", "en")).isEqualTo("Staff {0} does not exist");
+		assertThat(first.message("staff.not.found", "en")).isEqualTo("Staff {0} not found");
+		assertThat(first.message("staff.not.found", "ja")).isNull();
+
+		assertThat(manager.rollback()).isSameAs(first);
+		CatalogSnapshotInfo info = manager.info();
+		assertThat(info.getVersion()).isEqualTo(first.getVersion());
+		assertThat(info.getPreviousVersion()).isEqualTo(second.getVersion());
+		assertThat(info.isPinned()).isTrue();
+	}
+
+	@Test
+	void refreshOfAnUnchangedCatalogKeepsTheGenerations() {
+		when(mongoTemplate.stream(any(Query.class), eq(LocalizedMessageEntity.class)))
+				.thenReturn(Stream.of(template("staff.not.found", "en", "Staff {0} not found")))
+				.thenReturn(Stream.of(template("staff.not.found", "en", "Staff {0} does not exist")))
+				.thenReturn(Stream.of(template("staff.not.found", "en", "Staff {0} does not exist")));
+
+		CatalogSnapshot first = manager.refresh();
+		CatalogSnapshot second = manager.refresh();
+
+		assertThat(manager.refresh()).isSameAs(second);
+		assertThat(manager.info().getPreviousVersion()).isEqualTo(first.getVersion());
+		assertThat(manager.rollback()).isSameAs(first);
+	}
+
+	@Test
+	void rollbackWithoutPreviousSnapshotFails() {
+		when(mongoTemplate.stream(any(Query.class), eq(LocalizedMessageEntity.class))).thenReturn(Stream.empty());
+
+		manager.refresh();
+
+		assertThatIllegalStateException().isThrownBy(manager::rollback);
+	}
+
+	private static LocalizedMessageEntity template(String msgTemplateID, String locale, String message) {
+		return LocalizedMessageEntity.builder().msgTemplateID(msgTemplateID).locale(locale).message(message).build();
+	}
+}
@@ -0,0 +1,36 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactCatalogStoreTests {
+
+	@Test
+	void looksUpTranslationsByTemplateAndLocale() {
+		CompactCatalogStore.Builder builder = CompactCatalogStore.builder();
+		for (int i = 0; i < 5_000; i++) {
+			builder.put("template." + i, i % 2 == 0 ? "en" : "ja-JP", "Message {0} of template " + i);
+		}
+		builder.put("staff.not.found", "ja", "スタッフ {0} が見つかりません");
+		builder.put("スタッフ", "en", "first");
+		builder.put("スタッフ", "en", "replaced");
+
+		CompactCatalogStore store = builder.build();
+
+		assertThat(store.size()).isEqualTo(5_002);
+		assertThat(store.message("template.4242", "en")).isEqualTo("Message {0} of template 4242");
+		assertThat(store.message("template.4243", "ja-JP")).isEqualTo("Message {0} of template 4243");
+		assertThat(store.message("template.4243", "en")).isNull();
+		assertThat(store.message("template.5000", "en")).isNull();
+		assertThat(store.message("staff.not.found", "ja")).isEqualTo("スタッフ {0} が見つかりません");
+		assertThat(store.message("スタッフ", "en")).isEqualTo("replaced");
+		Map<TemplateKey, String> copied = new HashMap<>();
+		store.forEach(copied::put);
+		assertThat(copied).hasSize(5_002).containsEntry(TemplateKey.of("スタッフ", "en"), "replaced");
+	}
+}
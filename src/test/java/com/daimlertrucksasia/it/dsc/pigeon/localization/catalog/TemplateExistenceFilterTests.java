@@ -0,0 +1,76 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.catalog;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.service.MessageTemplateChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TemplateExistenceFilterTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final TemplateExistenceFilter filter;
+
+	TemplateExistenceFilterTests() {
+		LocalizationPropertiesConfig properties = new LocalizationPropertiesConfig();
+		properties.getExistenceFilter().setEnabled(true);
+		properties.getChangeStream().setEnabled(true);
+		filter = new TemplateExistenceFilter(mongoTemplate, properties, meterRegistry);
+	}
+
+	@AfterEach
+	void shutdown() {
+		filter.shutdown();
+	}
+
+	@Test
+	void rejectsUnknownTemplatesOnlyAfterRebuildAndLetsChangedTemplatesThrough() {
+		when(mongoTemplate.estimatedCount(LocalizedMessageEntity.class)).thenReturn(2L);
+		when(mongoTemplate.stream(any(Query.class), eq(LocalizedMessageEntity.class)))
+				.thenReturn(Stream.of(template("staff.not.found", "en"), template("staff.not.found", "ja")));
+
+		assertThat(filter.mightExist("staff.unknown", List.of("en"))).isTrue();
+
+		filter.rebuild();
+
+		assertThat(filter.mightExist("staff.not.found", List.of("de-DE", "de", "en"))).isTrue();
+		assertThat(filter.mightExist("staff.unknown", List.of("en"))).isFalse();
+		assertThat(meterRegistry.get("pigeon.localization.existence.filter.rejections").functionCounter().count())
+				.isEqualTo(1);
+
+		filter.onTemplatesChanged(new MessageTemplateChangedEvent(Set.of("staff.unknown")));
+
+		assertThat(filter.mightExist("staff.unknown", List.of("en"))).isTrue();
+	}
+
+	@Test
+	void refusesToRunWithoutTheChangeStream() {
+		LocalizationPropertiesConfig properties = new LocalizationPropertiesConfig();
+		properties.getExistenceFilter().setEnabled(true);
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> new TemplateExistenceFilter(mongoTemplate, properties, meterRegistry))
+				.withMessageContaining("localization.change-stream.enabled");
+	}
+
+	private static LocalizedMessageEntity template(String msgTemplateID, String locale) {
+		return LocalizedMessageEntity.builder().msgTemplateID(msgTemplateID).locale(locale).build();
+	}
+}
@@ -0,0 +1,59 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.format;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class CompiledTemplateTests {
+
+	private static final List<String> PATTERNS = List.of(
+			"Staff {0} not found",
+			"{1} of {0} staff members ''{2}'' were updated",
+			"It''s '{0}' literally, but {0} is not",
+			"Staff {0} joined on {1,date,long} at {1,time,short}",
+			"Balance {0,number,#,##0.00} ({0,number,percent}, {0,number,integer})",
+			"Value {0} with nested '{'quotes'}' and {2}",
+			"{0,choice,0#no staff|1#one staff member|1<{0,number,integer} staff members}",
+			"Missing {5} argument",
+			"");
+
+	private static final List<Object[]> ARGS = List.of(
+			new Object[]{"Pradeep", 42, "x"},
+			new Object[]{1234567, -5L, null},
+			new Object[]{12.5, new BigDecimal("1234.5678"), new Date(1_700_000_000_000L)},
+			new Object[]{0, new Date(1_700_000_000_000L), 'c'},
+			new Object[]{2, 3, 4});
+
+	@Test
+	void formatsLikeMessageFormat() {
+		for (Locale locale : List.of(Locale.ENGLISH, Locale.GERMANY, Locale.JAPAN, Locale.forLanguageTag("ar-EG"))) {
+			for (String pattern : PATTERNS) {
+				CompiledTemplate template = CompiledTemplate.compile(pattern, locale);
+				for (Object[] args : ARGS) {
+					String expected;
+					try {
+						expected = new MessageFormat(pattern, locale).format(args);
+					} catch (IllegalArgumentException ex) {
+						assertThatIllegalArgumentException().isThrownBy(() -> template.format(args));
+						continue;
+					}
+					assertThat(template.format(args)).as("%s [%s]", pattern, locale).isEqualTo(expected);
+				}
+				assertThat(template.format(null)).isEqualTo(new MessageFormat(pattern, locale).format(null));
+			}
+		}
+	}
+
+	@Test
+	void rejectsInvalidPatternsLikeMessageFormat() {
+		assertThatIllegalArgumentException().isThrownBy(() -> CompiledTemplate.compile("Staff {0 not found", Locale.ENGLISH));
+		assertThatIllegalArgumentException().isThrownBy(() -> CompiledTemplate.compile("Staff {x}", Locale.ENGLISH));
+	}
+}
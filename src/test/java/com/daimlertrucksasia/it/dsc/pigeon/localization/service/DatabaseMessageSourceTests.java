@@ -0,0 +1,72 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.FormattedMessageCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.SingleFlight;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.TemplateKey;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DatabaseMessageSourceTests {
+
+	private final LocaleFallbackResolver fallbackResolver = mock(LocaleFallbackResolver.class);
+
+	private final DatabaseMessageSource messageSource;
+
+	DatabaseMessageSourceTests() {
+		LocalizationPropertiesConfig properties = new LocalizationPropertiesConfig();
+		MessageTemplateCache templateCache = new MessageTemplateCache(properties.getCache());
+		messageSource = new DatabaseMessageSource(templateCache, fallbackResolver, new SingleFlight<>(Duration.ofSeconds(5)),
+				new FormattedMessageCache(properties, templateCache));
+	}
+
+	@Test
+	void failsOnlyTheMessagesOfAnInvalidTemplate() {
+		when(fallbackResolver.resolveAll(anyCollection())).thenReturn(Map.of(
+				TemplateKey.of("staff.not.found", "en"), entity("staff.not.found", "Staff {0} not found"),
+				TemplateKey.of("staff.not.valid", "en"), entity("staff.not.valid", "Staff {0 is not valid")));
+		MessageResolutionRequest found = request("staff.not.found");
+		MessageResolutionRequest invalid = request("staff.not.valid");
+
+		ResolvedTemplates templates = messageSource.resolveTemplates(List.of(found, invalid));
+
+		assertThat(templates.format(found)).isEqualTo("Staff 7 not found");
+		assertThatIllegalArgumentException().isThrownBy(() -> templates.format(invalid))
+				.withMessageContaining("staff.not.valid");
+
+		ResolvedTemplates cached = messageSource.resolveTemplates(List.of(invalid, found));
+		assertThatIllegalArgumentException().isThrownBy(() -> cached.format(invalid));
+		verify(fallbackResolver, times(1)).resolveAll(anyCollection());
+	}
+
+	@Test
+	void reportsUnknownTemplateIdsVerbatim() {
+		when(fallbackResolver.resolveAll(anyCollection())).thenReturn(Map.of());
+		MessageResolutionRequest unknown = request("it's {0");
+
+		assertThat(messageSource.resolveTemplates(List.of(unknown)).format(unknown))
+				.isEqualTo("No message found under msgTemplateID [it's {0] for locale 'en'");
+	}
+
+	private static LocalizedMessageEntity entity(String msgTemplateID, String message) {
+		return LocalizedMessageEntity.builder().msgTemplateID(msgTemplateID).locale("en").message(message).build();
+	}
+
+	private static MessageResolutionRequest request(String msgTemplateID) {
+		return MessageResolutionRequest.builder().msgTemplateID(msgTemplateID).locale("en").args(new Object[]{7}).build();
+	}
+}
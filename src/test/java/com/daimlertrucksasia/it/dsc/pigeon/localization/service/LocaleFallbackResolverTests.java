@@ -0,0 +1,63 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotManager;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.TemplateExistenceFilter;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.ReactiveMessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LocaleFallbackResolverTests {
+
+	private static final List<String> JA_JP = List.of("ja-JP", "ja", "en");
+
+	private final LocaleFallbackResolver resolver = new LocaleFallbackResolver(mock(MessageRepository.class),
+			mock(ReactiveMessageRepository.class), mock(CatalogSnapshotManager.class), mock(TemplateExistenceFilter.class),
+			new LocalizationPropertiesConfig(), new SimpleMeterRegistry());
+
+	@Test
+	void triesTheFullTagThenTheLanguageThenTheDefaultLocale() {
+		assertThat(resolver.candidates(Locale.JAPAN)).isEqualTo(JA_JP);
+		assertThat(resolver.candidates(Locale.forLanguageTag("zh-Hant-TW"))).containsExactly("zh-Hant-TW", "zh", "en");
+	}
+
+	@Test
+	void leavesOutDuplicateAndUndeterminedCandidates() {
+		assertThat(resolver.candidates(Locale.ENGLISH)).containsExactly("en");
+		assertThat(resolver.candidates(Locale.US)).containsExactly("en-US", "en");
+		assertThat(resolver.candidates(Locale.ROOT)).containsExactly("en");
+		assertThat(resolver.candidates(Locale.forLanguageTag("und"))).containsExactly("en");
+	}
+
+	@Test
+	void picksTheMostSpecificTranslationFound() {
+		assertThat(LocaleFallbackResolver.pickBest(JA_JP, List.of(template("en", "Staff not found"),
+				template("ja-JP", "スタッフが見つかりません"), template("ja", "スタッフなし"))))
+				.get().extracting(LocalizedMessageEntity::getLocale).isEqualTo("ja-JP");
+		assertThat(LocaleFallbackResolver.pickBest(JA_JP, List.of(template("en", "Staff not found"), template("ja", "スタッフなし"))))
+				.get().extracting(LocalizedMessageEntity::getLocale).isEqualTo("ja");
+		assertThat(LocaleFallbackResolver.pickBest(JA_JP, List.of(template("en", "Staff not found"))))
+				.get().extracting(LocalizedMessageEntity::getLocale).isEqualTo("en");
+	}
+
+	@Test
+	void skipsTranslationsWithoutMessageAndLocalesOutsideTheChain() {
+		assertThat(LocaleFallbackResolver.pickBest(JA_JP, List.of(template("ja", null), template("en", "Staff not found"))))
+				.get().extracting(LocalizedMessageEntity::getLocale).isEqualTo("en");
+		assertThat(LocaleFallbackResolver.pickBest(JA_JP, List.of(template("ja", null), template("de", "Mitarbeiter fehlt"))))
+				.isEmpty();
+		assertThat(LocaleFallbackResolver.pickBest(JA_JP, List.of())).isEmpty();
+	}
+
+	private static LocalizedMessageEntity template(String locale, String message) {
+		return LocalizedMessageEntity.builder().msgTemplateID("staff.not.found").locale(locale).message(message).build();
+	}
+}
@@ -0,0 +1,84 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.LocalizationController;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.cache.MessageTemplateCache;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.catalog.CatalogSnapshotManager;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.DataLoaderConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.infra.MessageRepository;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.MessageResolutionRequest;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import io.leangen.graphql.GraphQLSchemaGenerator;
+import org.dataloader.Try;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageBatchLoaderTests {
+
+	private final MessageService messageService = mock(MessageService.class);
+
+	private final GraphQL graphQL;
+
+	MessageBatchLoaderTests() {
+		LocalizationController controller = new LocalizationController(mock(MessageRepository.class), mock(MessageTemplateCache.class),
+				mock(MessageTemplateImportService.class), mock(ApplicationEventPublisher.class), mock(CatalogSnapshotManager.class),
+				new LocalizationPropertiesConfig());
+		graphQL = GraphQL.newGraphQL(new GraphQLSchemaGenerator()
+				.withBasePackages("com.daimlertrucksasia.it.dsc.pigeon")
+				.withOperationsFromSingleton(controller)
+				.generate()).build();
+	}
+
+	@Test
+	void resolvesAllMessagesOfOneQueryWithOneBulkLookup() {
+		when(messageService.getMessagesAsync(anyList())).thenAnswer(invocation -> {
+			List<MessageResolutionRequest> requests = invocation.getArgument(0);
+			return CompletableFuture.completedFuture(requests.stream()
+					.map(request -> Try.succeeded(request.getMsgTemplateID() + "@" + request.getLocale()))
+					.toList());
+		});
+		String query = """
+				{
+				  resolveMessages(requests: [
+				    {msgTemplateID: "staff.not.found", locale: "en", args: ["7"]},
+				    {msgTemplateID: "staff.not.valid", locale: "ja"},
+				    {msgTemplateID: "staff.not.found", locale: "de"}
+				  ]) { msgTemplateID locale message }
+				}
+				""";
+
+		ExecutionResult result = graphQL.execute(ExecutionInput.newExecutionInput()
+				.query(query)
+				.dataLoaderRegistry(new DataLoaderConfig().dataLoaderRegistryFactory(new MessageBatchLoader(messageService))
+						.createDataLoaderRegistry())
+				.build());
+
+		assertThat(result.getErrors()).isEmpty();
+		Map<String, List<Map<String, String>>> data = result.getData();
+		assertThat(data.get("resolveMessages"))
+				.extracting(message -> message.get("msgTemplateID"), message -> message.get("locale"), message -> message.get("message"))
+				.containsExactly(tuple("staff.not.found", "en", "staff.not.found@en"),
+						tuple("staff.not.valid", "ja", "staff.not.valid@ja"),
+						tuple("staff.not.found", "de", "staff.not.found@de"));
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<MessageResolutionRequest>> batch = ArgumentCaptor.forClass(List.class);
+		verify(messageService, times(1)).getMessagesAsync(batch.capture());
+		assertThat(batch.getValue()).extracting(MessageResolutionRequest::getLocale).containsExactly("en", "ja", "de");
+	}
+}
@@ -0,0 +1,81 @@
+package com.daimlertrucksasia.it.dsc.pigeon.localization.service;
+
+import com.daimlertrucksasia.it.dsc.pigeon.localization.config.LocalizationPropertiesConfig;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.LocalizedMessageEntity;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.TemplateImportResult.Status;
+import com.daimlertrucksasia.it.dsc.pigeon.localization.model.TemplateImportSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import jakarta.validation.Validation;
+import org.bson.BsonObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageTemplateImportServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+	private final BulkOperations bulkOperations = mock(BulkOperations.class);
+
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+	private final MessageTemplateImportService importService;
+
+	MessageTemplateImportServiceTests() {
+		LocalizationPropertiesConfig properties = new LocalizationPropertiesConfig();
+		properties.getBulkImport().setChunkSize(2);
+		importService = new MessageTemplateImportService(mongoTemplate, Validation.buildDefaultValidatorFactory().getValidator(),
+				new ObjectMapper(), eventPublisher, properties);
+		when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(LocalizedMessageEntity.class))).thenReturn(bulkOperations);
+	}
+
+	@Test
+	void upsertsValidLinesInChunksAndReportsEveryItem() throws Exception {
+		BulkWriteResult firstChunk = mock(BulkWriteResult.class);
+		when(firstChunk.getUpserts()).thenReturn(List.of(new BulkWriteUpsert(1, new BsonObjectId())));
+		BulkWriteResult secondChunk = mock(BulkWriteResult.class);
+		when(secondChunk.getUpserts()).thenReturn(List.of());
+		when(bulkOperations.execute()).thenReturn(firstChunk, secondChunk);
+
+		String ndjson = """
+				{"messageTemplateID":"staff.not.found","locale":"en","message":"Staff {0} not found","serviceProviderID":"p","serviceConsumerID":"c"}
+				{"messageTemplateID":"staff.not.found","locale":"ja","message":"スタッフ {0}","serviceProviderID":"p","serviceConsumerID":"c"}
+				{"messageTemplateID":"staff.invalid","locale":"en"}
+
+				not json
+				{"messageTemplateID":"staff.not.valid","locale":"en","message":"Staff {0} is not valid","serviceProviderID":"p","serviceConsumerID":"c"}
+				""";
+
+		TemplateImportSummary summary = importService.importTemplates(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(summary.getItems()).extracting(item -> item.getStatus())
+				.containsExactly(Status.UPDATED, Status.INSERTED, Status.INVALID, Status.INVALID, Status.UPDATED);
+		assertThat(summary.getItems().get(2).getError()).contains("message", "serviceProviderID", "serviceConsumerID");
+		assertThat(summary.getTotal()).isEqualTo(5);
+		assertThat(summary.getInserted()).isEqualTo(1);
+		assertThat(summary.getUpdated()).isEqualTo(2);
+		assertThat(summary.getInvalid()).isEqualTo(2);
+		verify(bulkOperations, times(3)).upsert(any(Query.class), any(Update.class));
+		verify(bulkOperations, times(2)).execute();
+		verify(eventPublisher).publishEvent(new MessageTemplateChangedEvent(Set.of("staff.not.found")));
+		verify(eventPublisher).publishEvent(new MessageTemplateChangedEvent(Set.of("staff.not.valid")));
+	}
+}